@@ -0,0 +1,92 @@
+package com.studysync.studysyncbackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the STOMP broker behind the chat, bound from {@code chat.broker.*}.
+ * <p>
+ * {@link Mode#SIMPLE} keeps subscriptions in this JVM and is the local stand-in for
+ * development and tests. {@link Mode#RELAY} forwards "/topic" and "/queue" to an
+ * external STOMP broker (RabbitMQ, ActiveMQ) so that a room's messages reach its
+ * subscribers on every node.
+ */
+@Data
+@ConfigurationProperties(prefix = "chat.broker")
+public class ChatBrokerProperties {
+
+    public enum Mode {
+        SIMPLE,
+        RELAY
+    }
+
+    private Mode mode = Mode.SIMPLE;
+
+    private final Relay relay = new Relay();
+
+    /**
+     * Delivers inbound frames to the message handlers.
+     */
+    private final Pool inbound = new Pool();
+
+    /**
+     * Writes outbound frames to the client sessions.
+     */
+    private final Pool outbound = new Pool();
+
+    private final Transport transport = new Transport();
+
+    private final Batching batching = new Batching();
+
+    @Data
+    public static class Relay {
+        private String host = "localhost";
+        private int port = 61613;
+        private String login = "guest";
+        private String passcode = "guest";
+        private String virtualHost;
+        private long heartbeatSendIntervalMs = 10_000;
+        private long heartbeatReceiveIntervalMs = 10_000;
+    }
+
+    @Data
+    public static class Pool {
+        private int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        private int maxPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        /**
+         * Frames waiting for a thread; once full (and at max-pool-size) further frames are rejected.
+         */
+        private int queueCapacity = 10_000;
+    }
+
+    @Data
+    public static class Transport {
+        /**
+         * How long a single send to a slow client may block before the session is closed.
+         */
+        private int sendTimeLimitMs = 10_000;
+        /**
+         * Bytes buffered for a slow client before the session is closed.
+         */
+        private int sendBufferSizeLimit = 512 * 1024;
+        private int messageSizeLimit = 64 * 1024;
+        /**
+         * Outbound backlog, in bytes, above which a session stops receiving typing events.
+         */
+        private long ephemeralDropThreshold = 64 * 1024;
+    }
+
+    @Data
+    public static class Batching {
+        /**
+         * Sends room messages as arrays collected over a short window instead of one frame each.
+         */
+        private boolean enabled = false;
+        private long minWindowMs = 20;
+        private long maxWindowMs = 50;
+        /**
+         * Messages per frame the window is sized for.
+         */
+        private int targetSize = 16;
+    }
+}
@@ -0,0 +1,213 @@
+package com.studysync.studysyncbackend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Slow-consumer protection on the client outbound channel.
+ * <p>
+ * Tracks the bytes waiting in the channel for each session. Ephemeral frames (typing
+ * indicators and presence deltas) are dropped for a session whose backlog is over the
+ * threshold; typing indicators are also coalesced to one pending frame per session,
+ * destination and sender ({@link #SENDER_HEADER}), and the frame that is finally
+ * written is the latest one received. A client that misses a presence delta notices the version gap and
+ * reloads the snapshot. Chat messages are never dropped here: a client that still
+ * cannot keep up hits the transport's send-time and buffer limits, is disconnected
+ * and catches up through the history.
+ * <p>
+ * Publishes chat.outbound.session.queued.bytes (backlog seen by each frame),
+ * chat.outbound.queued.bytes (total backlog), chat.outbound.dropped (by reason) and
+ * chat.fanout.latency (enqueue to write, by room).
+ */
+@Component
+@Slf4j
+public class ChatOutboundInterceptor implements ExecutorChannelInterceptor {
+
+    public static final List<String> EPHEMERAL_PREFIXES = List.of("/topic/typing/", "/topic/presence/");
+    // Only a state that the next frame fully replaces can be coalesced
+    public static final List<String> COALESCED_PREFIXES = List.of("/topic/typing/");
+    public static final String ROOM_PREFIX = "/topic/public/";
+    // Native header naming the user a coalesced frame is about
+    public static final String SENDER_HEADER = "chat-sender";
+    // Rooms beyond this many share the "other" latency timer, bounding the tag cardinality
+    static final int MAX_ROOM_TIMERS = 500;
+
+    private static final String ENQUEUED_AT_HEADER = "chatEnqueuedAt";
+
+    private final long dropThreshold;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary sessionQueuedBytes;
+    private final Counter droppedBacklog;
+    private final Counter droppedCoalesced;
+    private final AtomicLong totalQueuedBytes = new AtomicLong();
+    private final Map<String, SessionBacklog> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Timer> roomTimers = new ConcurrentHashMap<>();
+
+    public ChatOutboundInterceptor(ChatBrokerProperties brokerProperties, MeterRegistry meterRegistry) {
+        this.dropThreshold = brokerProperties.getTransport().getEphemeralDropThreshold();
+        this.meterRegistry = meterRegistry;
+        this.sessionQueuedBytes = DistributionSummary.builder("chat.outbound.session.queued.bytes")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.droppedBacklog = Counter.builder("chat.outbound.dropped").tag("reason", "backlog").register(meterRegistry);
+        this.droppedCoalesced = Counter.builder("chat.outbound.dropped").tag("reason", "coalesced").register(meterRegistry);
+        Gauge.builder("chat.outbound.queued.bytes", totalQueuedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // Bytes waiting in the outbound channel for one session, and the latest frame per coalescing key
+    private static final class SessionBacklog {
+        private final AtomicLong queuedBytes = new AtomicLong();
+        private final Map<String, Message<?>> pendingCoalesced = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(message);
+        String sessionId = headers.getSessionId();
+        if (sessionId == null) {
+            return message;
+        }
+        if (headers.getMessageType() == SimpMessageType.CONNECT_ACK) {
+            // Tracking starts with the session; frames that race a disconnect find no entry
+            sessions.putIfAbsent(sessionId, new SessionBacklog());
+            return message;
+        }
+        SessionBacklog backlog = sessions.get(sessionId);
+        if (backlog == null || headers.getMessageType() != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        String destination = headers.getDestination();
+        int size = payloadSize(message);
+
+        if (matches(destination, EPHEMERAL_PREFIXES)) {
+            if (backlog.queuedBytes.get() > dropThreshold) {
+                droppedBacklog.increment();
+                return null;
+            }
+            if (matches(destination, COALESCED_PREFIXES)) {
+                Message<?> previous = backlog.pendingCoalesced.put(coalescingKey(headers), message);
+                if (previous != null) {
+                    // The queued frame is swapped for this one just before it is written
+                    droppedCoalesced.increment();
+                    int delta = size - payloadSize(previous);
+                    backlog.queuedBytes.addAndGet(delta);
+                    totalQueuedBytes.addAndGet(delta);
+                    return null;
+                }
+            }
+        }
+
+        sessionQueuedBytes.record(backlog.queuedBytes.addAndGet(size));
+        totalQueuedBytes.addAndGet(size);
+        if (destination != null && destination.startsWith(ROOM_PREFIX)) {
+            return MessageBuilder.fromMessage(message).setHeader(ENQUEUED_AT_HEADER, System.nanoTime()).build();
+        }
+        return message;
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(message);
+        if (headers.getSessionId() == null || !matches(headers.getDestination(), COALESCED_PREFIXES)) {
+            return message;
+        }
+        SessionBacklog backlog = sessions.get(headers.getSessionId());
+        if (backlog == null) {
+            return message;
+        }
+        // Frees the key for the next frame and writes the latest one received meanwhile
+        Message<?> latest = backlog.pendingCoalesced.remove(coalescingKey(headers));
+        return latest != null ? latest : message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(message);
+        String sessionId = headers.getSessionId();
+        if (sessionId == null || headers.getMessageType() != SimpMessageType.MESSAGE) {
+            return;
+        }
+        SessionBacklog backlog = sessions.get(sessionId);
+        if (backlog != null) {
+            int size = payloadSize(message);
+            backlog.queuedBytes.addAndGet(-size);
+            totalQueuedBytes.addAndGet(-size);
+        }
+        if (message.getHeaders().get(ENQUEUED_AT_HEADER) instanceof Long enqueuedAt) {
+            String room = headers.getDestination().substring(ROOM_PREFIX.length());
+            roomTimer(room).record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        SessionBacklog backlog = sessions.remove(event.getSessionId());
+        if (backlog != null) {
+            totalQueuedBytes.addAndGet(-backlog.queuedBytes.get());
+        }
+    }
+
+    /**
+     * Bytes waiting in the outbound channel for the session.
+     */
+    public long queuedBytes(String sessionId) {
+        SessionBacklog backlog = sessions.get(sessionId);
+        return backlog == null ? 0 : backlog.queuedBytes.get();
+    }
+
+    private Timer roomTimer(String room) {
+        Timer timer = roomTimers.get(room);
+        if (timer != null) {
+            return timer;
+        }
+        String tag = roomTimers.size() < MAX_ROOM_TIMERS ? room : "other";
+        return roomTimers.computeIfAbsent(tag, t -> Timer.builder("chat.fanout.latency")
+                .tag("room", t)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+    }
+
+    private static String coalescingKey(SimpMessageHeaderAccessor headers) {
+        String sender = headers.getFirstNativeHeader(SENDER_HEADER);
+        return sender == null ? headers.getDestination() : headers.getDestination() + '\n' + sender;
+    }
+
+    private static boolean matches(String destination, List<String> prefixes) {
+        if (destination == null) {
+            return false;
+        }
+        for (String prefix : prefixes) {
+            if (destination.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int payloadSize(Message<?> message) {
+        return message.getPayload() instanceof byte[] bytes ? bytes.length : 0;
+    }
+}
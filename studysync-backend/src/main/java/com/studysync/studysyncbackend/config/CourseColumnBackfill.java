@@ -0,0 +1,39 @@
+package com.studysync.studysyncbackend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes courses.average_rating and courses.view_count NOT NULL in databases created
+ * before they were. ddl-auto=update adds the catalog indexes but never tightens an
+ * existing column, and the keyset queries skip rows with a null sort key.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseColumnBackfill {
+
+    private static final String COUNT_NULLABLE =
+            "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() "
+                    + "AND table_name = 'courses' AND column_name IN ('average_rating', 'view_count') "
+                    + "AND is_nullable = 'YES'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Integer nullable = jdbcTemplate.queryForObject(COUNT_NULLABLE, Integer.class);
+        if (nullable == null || nullable == 0) {
+            return;
+        }
+        int rows = jdbcTemplate.update("UPDATE courses SET average_rating = COALESCE(average_rating, 0), "
+                + "view_count = COALESCE(view_count, 0) WHERE average_rating IS NULL OR view_count IS NULL");
+        jdbcTemplate.execute("ALTER TABLE courses MODIFY average_rating FLOAT(53) NOT NULL, "
+                + "MODIFY view_count BIGINT NOT NULL");
+        log.info("Backfilled {} courses and made their rating and view count NOT NULL", rows);
+    }
+}
@@ -1,6 +1,7 @@
 package com.studysync.studysyncbackend.config;
 
 import com.studysync.studysyncbackend.service.JwtService;
+import com.studysync.studysyncbackend.service.UserPrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,7 +11,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter; // Ensures the filter runs only once per request
@@ -23,7 +23,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter { // Extends base class for filters
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService; // Spring Security's service to load user details
+    private final UserPrincipalCache userPrincipalCache; // Cached principals, loaded via UserDetailsService on a miss
 
     @Override
     protected void doFilterInternal(
@@ -46,16 +46,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter { // Extends b
         // 3. Extract the JWT token (substring after "Bearer ")
         jwt = authHeader.substring(7);
 
-        // 4. Extract the user email from the token using JwtService
-        userEmail = jwtService.extractUsername(jwt);
+        // 4. Extract the user email from the token using JwtService.
+        // The signature and expiry are verified here (once per distinct token).
+        userEmail = jwtService.extractVerifiedUsername(jwt);
 
         // 5. Check if email exists and the user is not already authenticated
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Load user details from the database using UserDetailsService
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            // Load user details, hitting the database only on a cache miss
+            UserDetails userDetails = this.userPrincipalCache.get(userEmail);
 
-            // 6. Validate the token against the user details
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            // 6. The token was verified in step 4; just make sure it belongs to this user
+            if (userEmail.equals(userDetails.getUsername())) {
                 // If token is valid, create an authentication token
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
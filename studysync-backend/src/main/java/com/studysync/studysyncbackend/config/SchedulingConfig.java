@@ -0,0 +1,12 @@
+package com.studysync.studysyncbackend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled jobs (write-behind flushes and cleanup tasks).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,62 @@
+package com.studysync.studysyncbackend.config;
+
+import com.studysync.studysyncbackend.service.BlobStore;
+import com.studysync.studysyncbackend.service.LocalBlobStore;
+import com.studysync.studysyncbackend.service.S3BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+@Configuration
+@EnableConfigurationProperties(StorageProperties.class)
+@Slf4j
+public class StorageConfig {
+
+    @Bean
+    public BlobStore blobStore(StorageProperties properties, @Value("${file.upload-dir:uploads}") String uploadDir) {
+        if (properties.getBackend() == StorageProperties.Backend.LOCAL) {
+            return new LocalBlobStore(Paths.get(uploadDir));
+        }
+
+        StorageProperties.S3 s3 = properties.getS3();
+        Region region = Region.of(s3.getRegion());
+        AwsCredentialsProvider credentials = StringUtils.hasText(s3.getAccessKey())
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(s3.getAccessKey(), s3.getSecretKey()))
+                : DefaultCredentialsProvider.builder().build();
+        S3Configuration serviceConfiguration = S3Configuration.builder()
+                .pathStyleAccessEnabled(s3.isPathStyleAccess())
+                .build();
+
+        var client = S3Client.builder()
+                .region(region)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(serviceConfiguration);
+        var presigner = S3Presigner.builder()
+                .region(region)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(serviceConfiguration);
+        if (StringUtils.hasText(s3.getEndpoint())) {
+            client.endpointOverride(URI.create(s3.getEndpoint()));
+            presigner.endpointOverride(URI.create(s3.getEndpoint()));
+        }
+        log.info("Storing uploads in bucket {}{}", s3.getBucket(),
+                StringUtils.hasText(s3.getEndpoint()) ? " at " + s3.getEndpoint() : "");
+        // Closed by the context on shutdown, as S3BlobStore is AutoCloseable
+        return new S3BlobStore(client.build(), presigner.build(), s3.getBucket(), s3.getPartSize().toBytes(),
+                s3.getSignedUrlTtl(), s3.isRedirect());
+    }
+}
@@ -0,0 +1,57 @@
+package com.studysync.studysyncbackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Where uploads are kept, bound from {@code storage.*}.
+ * <p>
+ * {@link Backend#LOCAL} keeps them in {@code file.upload-dir} on this node, which only
+ * works for a single node (or a shared volume). {@link Backend#S3} keeps them in an
+ * S3-compatible bucket; MinIO serves as the local stand-in for development and tests.
+ * Uploads are staged in {@code file.upload-dir} either way.
+ */
+@Data
+@ConfigurationProperties(prefix = "storage")
+public class StorageProperties {
+
+    public enum Backend {
+        LOCAL,
+        S3
+    }
+
+    private Backend backend = Backend.LOCAL;
+
+    private final S3 s3 = new S3();
+
+    @Data
+    public static class S3 {
+        private String bucket = "studysync-uploads";
+        private String region = "us-east-1";
+        /**
+         * Endpoint of an S3-compatible service such as MinIO; empty for AWS.
+         */
+        private String endpoint;
+        /**
+         * Static credentials; empty for the SDK's default provider chain.
+         */
+        private String accessKey;
+        private String secretKey;
+        /**
+         * MinIO and most stand-ins need path-style URLs (endpoint/bucket/key).
+         */
+        private boolean pathStyleAccess = true;
+        /**
+         * Files above this are uploaded in parts of this size (at least 5MB).
+         */
+        private DataSize partSize = DataSize.ofMegabytes(16);
+        /**
+         * Redirect downloads to presigned URLs instead of streaming them through the app.
+         */
+        private boolean redirect = true;
+        private Duration signedUrlTtl = Duration.ofMinutes(15);
+    }
+}
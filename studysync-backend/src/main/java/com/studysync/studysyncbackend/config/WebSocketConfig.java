@@ -1,15 +1,27 @@
 package com.studysync.studysyncbackend.config;
 
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.TaskExecutorRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker // Enables WebSocket message handling, backed by a message broker
+@EnableConfigurationProperties(ChatBrokerProperties.class)
+@RequiredArgsConstructor
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final ChatBrokerProperties brokerProperties;
+    private final ChatOutboundInterceptor chatOutboundInterceptor;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // This is the endpoint clients will connect to for WebSocket handshake.
@@ -29,10 +41,56 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
         // Messages whose destination starts with "/topic" should be routed to the message broker.
         // The broker broadcasts messages to all subscribed clients.
-        // We use a simple in-memory broker here. For production, consider RabbitMQ or others.
-        registry.enableSimpleBroker("/topic");
+        // "/queue" carries per-session messages such as the history sent on join.
+        if (brokerProperties.getMode() == ChatBrokerProperties.Mode.RELAY) {
+            // An external broker shares subscriptions between nodes, so any node can fan out to any room
+            ChatBrokerProperties.Relay relay = brokerProperties.getRelay();
+            registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relay.getHost())
+                    .setRelayPort(relay.getPort())
+                    .setClientLogin(relay.getLogin())
+                    .setClientPasscode(relay.getPasscode())
+                    .setSystemLogin(relay.getLogin())
+                    .setSystemPasscode(relay.getPasscode())
+                    .setVirtualHost(relay.getVirtualHost())
+                    .setSystemHeartbeatSendInterval(relay.getHeartbeatSendIntervalMs())
+                    .setSystemHeartbeatReceiveInterval(relay.getHeartbeatReceiveIntervalMs())
+                    // Resolves "/user/..." sends for sessions connected to another node
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            log.info("Relaying chat destinations to STOMP broker {}:{}", relay.getHost(), relay.getPort());
+        } else {
+            // In-memory broker: every subscriber must be connected to this node
+            registry.enableSimpleBroker("/topic", "/queue");
+        }
+
+        // Clients subscribe to "/user/queue/..." to receive messages addressed to their session
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        configurePool(registration.taskExecutor(), brokerProperties.getInbound());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        configurePool(registration.taskExecutor(), brokerProperties.getOutbound());
+        registration.interceptors(chatOutboundInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A client that cannot keep up is disconnected instead of buffering without bound
+        ChatBrokerProperties.Transport transport = brokerProperties.getTransport();
+        registration.setSendTimeLimit(transport.getSendTimeLimitMs())
+                .setSendBufferSizeLimit(transport.getSendBufferSizeLimit())
+                .setMessageSizeLimit(transport.getMessageSizeLimit());
+    }
 
-        // Optionally, configure user destination prefix (for user-specific messages, e.g., private chats)
-        // registry.setUserDestinationPrefix("/user");
+    private static void configurePool(TaskExecutorRegistration executor, ChatBrokerProperties.Pool pool) {
+        executor.corePoolSize(pool.getCorePoolSize())
+                .maxPoolSize(pool.getMaxPoolSize())
+                .queueCapacity(pool.getQueueCapacity());
     }
-}
\ No newline at end of file
+}
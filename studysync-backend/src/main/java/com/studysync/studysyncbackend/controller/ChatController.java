@@ -1,56 +1,91 @@
 package com.studysync.studysyncbackend.controller;
 
+import com.studysync.studysyncbackend.config.ChatOutboundInterceptor;
 import com.studysync.studysyncbackend.dto.ChatMessageDto;
+import com.studysync.studysyncbackend.dto.RoomPresenceDto;
+import com.studysync.studysyncbackend.model.ChatMessageType;
+import com.studysync.studysyncbackend.service.ChatBroadcaster;
+import com.studysync.studysyncbackend.service.ChatHistoryService;
+import com.studysync.studysyncbackend.service.ChatPresenceService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable; // For dynamic destinations
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor; // To access session attributes or user info
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
-// import org.springframework.web.bind.annotation.RestController; // Use @Controller for WebSockets
+
+import java.util.Map;
 
 @Controller // Use @Controller, not @RestController, for WebSocket message handling
 @RequiredArgsConstructor
+@Slf4j
 public class ChatController {
 
-    // You might inject services here later if needed (e.g., to save messages)
+    private final ChatHistoryService chatHistoryService;
+    private final ChatBroadcaster chatBroadcaster;
+    private final ChatPresenceService chatPresenceService;
+    private final SimpMessagingTemplate messagingTemplate;
 
     /**
      * Handles incoming chat messages sent to '/app/chat.sendMessage/{roomId}'.
-     * Broadcasts the message to all subscribers of '/topic/public/{roomId}'.
+     * The message is stamped with a server timestamp and sequence number, recorded in
+     * the room's history and broadcast to all subscribers of '/topic/public/{roomId}'
+     * (as part of an array when batching is enabled, see {@link ChatBroadcaster}).
      *
      * @param chatMessage The message payload from the client.
      * @param roomId      The dynamic room identifier from the destination path.
-     * @return The received chat message, which will be broadcast.
      */
     @MessageMapping("/chat.sendMessage/{roomId}") // Where clients send messages
-    @SendTo("/topic/public/{roomId}") // Where the message is broadcasted to subscribers
-    public ChatMessageDto sendMessage(
+    public void sendMessage(
             @Payload ChatMessageDto chatMessage,
             @DestinationVariable String roomId // Extract roomId from the path
     ) {
-        // Here you could potentially:
-        // 1. Add server-side timestamp.
-        // 2. Save the message to the database.
-        // 3. Perform moderation.
-        System.out.println("Received message for room " + roomId + ": " + chatMessage); // Simple logging
-        return chatMessage; // Return the message to be broadcast
+        chatHistoryService.append(roomId, chatMessage, ChatMessageType.CHAT, sent -> chatBroadcaster.publish(roomId, sent));
+    }
+
+    /**
+     * Handles typing indicators sent to '/app/chat.typing/{roomId}'.
+     * They are broadcast to '/topic/typing/{roomId}' but not recorded, and may be
+     * coalesced (per sender) or dropped for clients that are falling behind.
+     *
+     * @param chatMessage Message containing the sender who is typing.
+     * @param roomId      The dynamic room identifier from the destination path.
+     */
+    @MessageMapping("/chat.typing/{roomId}")
+    public void typing(
+            @Payload ChatMessageDto chatMessage,
+            @DestinationVariable String roomId
+    ) {
+        String sender = chatMessage.getSender();
+        if (sender != null && sender.length() > ChatHistoryService.MAX_SENDER_LENGTH) {
+            throw new IllegalArgumentException("Sender cannot exceed " + ChatHistoryService.MAX_SENDER_LENGTH + " characters.");
+        }
+        ChatMessageDto typing = ChatMessageDto.builder()
+                .sender(sender)
+                .type(ChatMessageType.TYPING)
+                .build();
+        // The sender header lets the outbound channel coalesce each user's indicators separately
+        messagingTemplate.convertAndSend("/topic/typing/" + roomId, typing,
+                sender == null ? Map.of() : Map.of(ChatOutboundInterceptor.SENDER_HEADER, sender));
     }
 
     /**
      * Handles notifications when a new user joins a chat room.
      * Sends a message to '/app/chat.addUser/{roomId}'.
-     * Broadcasts the user joining message to all subscribers of '/topic/public/{roomId}'.
+     * The joining session first receives the room's recent history on
+     * '/user/queue/history', then the join is broadcast to '/topic/public/{roomId}'
+     * and, if this is the user's first session in the room, to '/topic/presence/{roomId}'.
      *
      * @param chatMessage Message containing sender info (the user joining).
      * @param headerAccessor Accessor for message headers (contains session info).
      * @param roomId      The dynamic room identifier from the destination path.
-     * @return The chat message indicating the user has joined.
      */
     @MessageMapping("/chat.addUser/{roomId}") // Where clients notify joining
-    @SendTo("/topic/public/{roomId}") // Where the notification is broadcasted
-    public ChatMessageDto addUser(
+    public void addUser(
             @Payload ChatMessageDto chatMessage,
             SimpMessageHeaderAccessor headerAccessor,
             @DestinationVariable String roomId
@@ -60,14 +95,40 @@ public class ChatController {
         if (headerAccessor.getSessionAttributes() != null && chatMessage.getSender() != null) {
             headerAccessor.getSessionAttributes().put("username", chatMessage.getSender());
             headerAccessor.getSessionAttributes().put("room_id", roomId);
-            System.out.println(chatMessage.getSender() + " joined room " + roomId); // Simple logging
+            log.debug("{} joined room {}", chatMessage.getSender(), roomId);
         } else {
-             System.out.println("Could not add user to session for room " + roomId);
+            log.debug("Could not add user to session for room {}", roomId);
+        }
+
+        sendHistory(headerAccessor.getSessionId(), roomId);
+        chatHistoryService.append(roomId, chatMessage, ChatMessageType.JOIN, joined -> chatBroadcaster.publish(roomId, joined));
+        if (headerAccessor.getSessionId() != null && chatMessage.getSender() != null) {
+            chatPresenceService.join(roomId, headerAccessor.getSessionId(), chatMessage.getSender());
         }
-        // Modify message content or type if needed before broadcasting
-        // chatMessage.setContent(chatMessage.getSender() + " joined!");
-        return chatMessage; // Broadcast the joining message
     }
 
-    // TODO: Add logic/listener for user disconnect/leave events later
-}
\ No newline at end of file
+    /**
+     * Answers a subscription to '/app/presence/{roomId}' with the room's current online
+     * users, directly to the subscriber. Changes then arrive as deltas on
+     * '/topic/presence/{roomId}'.
+     *
+     * @param roomId The dynamic room identifier from the destination path.
+     * @return The room's presence snapshot.
+     */
+    @SubscribeMapping("/presence/{roomId}")
+    public RoomPresenceDto presence(@DestinationVariable String roomId) {
+        return chatPresenceService.snapshot(roomId);
+    }
+
+    // Addresses the history to the joining session only (no authenticated user on this socket)
+    private void sendHistory(String sessionId, String roomId) {
+        if (sessionId == null) {
+            return;
+        }
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(sessionId, "/queue/history",
+                chatHistoryService.recent(roomId), headers.getMessageHeaders());
+    }
+}
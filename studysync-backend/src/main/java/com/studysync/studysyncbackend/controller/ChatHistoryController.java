@@ -0,0 +1,33 @@
+package com.studysync.studysyncbackend.controller;
+
+import com.studysync.studysyncbackend.dto.ChatMessageDto;
+import com.studysync.studysyncbackend.service.ChatHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/chat")
+@RequiredArgsConstructor
+public class ChatHistoryController {
+
+    private final ChatHistoryService chatHistoryService;
+
+    /**
+     * GET /api/chat/rooms/{roomId}/messages : Messages after a sequence number, oldest first.
+     * Clients call this on reconnect with the last seq they saw (0 for everything).
+     */
+    @GetMapping("/rooms/{roomId}/messages")
+    public ResponseEntity<List<ChatMessageDto>> getMessages(
+            @PathVariable String roomId,
+            @RequestParam(defaultValue = "0") long afterSeq,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(chatHistoryService.since(roomId, afterSeq, limit));
+    }
+}
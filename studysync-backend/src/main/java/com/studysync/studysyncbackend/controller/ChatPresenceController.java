@@ -0,0 +1,36 @@
+package com.studysync.studysyncbackend.controller;
+
+import com.studysync.studysyncbackend.dto.RoomPresenceDto;
+import com.studysync.studysyncbackend.service.ChatPresenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/chat")
+@RequiredArgsConstructor
+public class ChatPresenceController {
+
+    private final ChatPresenceService chatPresenceService;
+
+    /**
+     * GET /api/chat/rooms/{roomId}/presence : The room's online users and the presence version.
+     */
+    @GetMapping("/rooms/{roomId}/presence")
+    public ResponseEntity<RoomPresenceDto> getPresence(@PathVariable String roomId) {
+        return ResponseEntity.ok(chatPresenceService.snapshot(roomId));
+    }
+
+    /**
+     * GET /api/chat/rooms/{roomId}/online : Just the number of users online in the room.
+     */
+    @GetMapping("/rooms/{roomId}/online")
+    public ResponseEntity<Map<String, Integer>> getOnlineCount(@PathVariable String roomId) {
+        return ResponseEntity.ok(Map.of("online", chatPresenceService.onlineCount(roomId)));
+    }
+}
@@ -4,18 +4,26 @@ package com.studysync.studysyncbackend.controller;
 import com.studysync.studysyncbackend.dto.CourseComparisonDto;
 import com.studysync.studysyncbackend.dto.CourseRequestDto;
 import com.studysync.studysyncbackend.dto.CourseResponseDto;
+import com.studysync.studysyncbackend.dto.CourseSummaryPageDto;
 import com.studysync.studysyncbackend.dto.ModuleRequestDto;
 import com.studysync.studysyncbackend.dto.ModuleResponseDto; // Added import
 import com.studysync.studysyncbackend.model.Course;
 import com.studysync.studysyncbackend.model.Module;
+import com.studysync.studysyncbackend.service.CourseCatalogService;
+import com.studysync.studysyncbackend.service.CourseFeedSnapshot;
 import com.studysync.studysyncbackend.service.CourseService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 // import lombok.extern.slf4j.Slf4j; // Optional: for logging
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.math.BigDecimal;
@@ -29,6 +37,8 @@ import java.util.List;
 public class CourseController {
 
     private final CourseService courseService;
+    private final CourseCatalogService courseCatalogService;
+    private final CourseFeedSnapshot courseFeedSnapshot;
 
     /**
      * POST /api/courses : Creates a new course. (TUTOR only)
@@ -54,7 +64,8 @@ public class CourseController {
     }
 
     /**
-     * GET /api/courses : Retrieves all available courses. (Authenticated users)
+     * GET /api/courses/search : Searches published courses. (Authenticated users)
+     * sortBy accepts price_asc, price_desc, rating, views or relevance (keyword rank).
      */
     @GetMapping("/search")
     public ResponseEntity<List<CourseResponseDto>> searchCourses(
@@ -69,11 +80,55 @@ public class CourseController {
                 .ok(courseService.searchCourses(keyword, minPrice, maxPrice, isFree, sortBy, category, level));
     }
 
+    /**
+     * GET /api/courses : The public feed of published courses.
+     * Served from a pre-encoded snapshot; clients revalidate with If-None-Match and get 304s.
+     */
     @GetMapping
-    public ResponseEntity<List<CourseResponseDto>> getAllCourses() {
-        // Secure: Only return published courses for the public feed
-        List<CourseResponseDto> courses = courseService.findAllCourses(true);
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<byte[]> getAllCourses(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Secure: The snapshot only contains published courses
+        CourseFeedSnapshot.Snapshot feed = courseFeedSnapshot.get();
+        boolean gzip = CourseFeedSnapshot.acceptsGzip(acceptEncoding);
+        boolean notModified = feed.matches(ifNoneMatch);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .eTag(gzip ? feed.gzipEtag() : feed.etag());
+
+        if (notModified) {
+            return response.build();
+        }
+        if (gzip) {
+            return response.contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(feed.gzip());
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).body(feed.json());
+    }
+
+    /**
+     * GET /api/courses/catalog : One keyset page of published course summaries (no module bodies).
+     * sortBy accepts id (newest first), rating or views; pass nextCursor back as cursor.
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<CourseSummaryPageDto> getCatalogPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CourseCatalogService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = "id") String sortBy) {
+        return ResponseEntity.ok(courseCatalogService.getCatalogPage(sortBy, cursor, size));
+    }
+
+    /**
+     * GET /api/courses/catalog/stream : All published course summaries as NDJSON, one per line.
+     */
+    @GetMapping(value = "/catalog/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamCatalog() {
+        StreamingResponseBody body = courseCatalogService::streamCatalog;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     /**
@@ -1,13 +1,16 @@
 package com.studysync.studysyncbackend.controller;
 
-import com.studysync.studysyncbackend.model.Discussion;
+import com.studysync.studysyncbackend.dto.DiscussionDto;
+import com.studysync.studysyncbackend.dto.DiscussionPageDto;
+import com.studysync.studysyncbackend.dto.DiscussionRequestDto;
+import com.studysync.studysyncbackend.dto.DiscussionUpvoteDto;
 import com.studysync.studysyncbackend.model.User;
-import com.studysync.studysyncbackend.repository.DiscussionRepository;
-import com.studysync.studysyncbackend.repository.UserRepository;
+import com.studysync.studysyncbackend.service.DiscussionService;
+import com.studysync.studysyncbackend.service.DiscussionUpvoteService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -17,98 +20,71 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DiscussionController {
 
-        private final DiscussionRepository discussionRepository;
-        private final UserRepository userRepository;
-        private final com.studysync.studysyncbackend.repository.ModuleRepository moduleRepository;
-        private final com.studysync.studysyncbackend.repository.EnrollmentRepository enrollmentRepository;
+        private final DiscussionService discussionService;
+        private final DiscussionUpvoteService discussionUpvoteService;
 
+        /**
+         * GET /api/discussions/module/{moduleId} : All threads of a module, newest first, each
+         * with its first replies. Kept as a full plain list for existing clients; use /threads to page.
+         */
         @GetMapping("/module/{moduleId}")
-        public ResponseEntity<List<Discussion>> getModuleDiscussions(@PathVariable Long moduleId) {
-                return ResponseEntity.ok(
-                                discussionRepository.findByModuleIdAndParentIsNullOrderByCreatedAtDesc(moduleId));
+        public ResponseEntity<List<DiscussionDto>> getModuleDiscussions(
+                        @PathVariable Long moduleId,
+                        @RequestParam(defaultValue = "" + DiscussionService.DEFAULT_REPLIES_PER_THREAD) int replies) {
+                return ResponseEntity.ok(discussionService.getAllModuleThreads(moduleId, replies));
         }
 
-        @PostMapping
-        public ResponseEntity<Discussion> createDiscussion(
-                        @AuthenticationPrincipal UserDetails userDetails,
-                        @RequestBody Discussion request) {
-                User user = userRepository.findByEmail(userDetails.getUsername())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
-                // Validate Module and Access
-                com.studysync.studysyncbackend.model.Module module = moduleRepository.findById(request.getModuleId())
-                                .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Module not found"));
-
-                if (module.getCourse() == null) {
-                        throw new jakarta.persistence.EntityNotFoundException("Course not found for this module.");
-                }
+        /**
+         * GET /api/discussions/module/{moduleId}/threads : One page of a module's threads,
+         * newest first. Pass nextCursor back as ?cursor= for the next page.
+         */
+        @GetMapping("/module/{moduleId}/threads")
+        public ResponseEntity<DiscussionPageDto> getModuleThreads(
+                        @PathVariable Long moduleId,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "" + DiscussionService.DEFAULT_PAGE_SIZE) int size,
+                        @RequestParam(defaultValue = "" + DiscussionService.DEFAULT_REPLIES_PER_THREAD) int replies) {
+                return ResponseEntity.ok(discussionService.getModuleThreads(moduleId, cursor, size, replies));
+        }
 
-                Long courseId = module.getCourse().getId();
-                boolean isOwner = module.getCourse().getTutor().getId().equals(user.getId());
-                boolean isEnrolled = enrollmentRepository.existsByUserIdAndCourseId(user.getId(), courseId);
+        /**
+         * GET /api/discussions/{id}/replies : More replies of a thread, in thread order.
+         * Start from the thread's moreRepliesCursor.
+         */
+        @GetMapping("/{id}/replies")
+        public ResponseEntity<DiscussionPageDto> getReplies(
+                        @PathVariable Long id,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "" + DiscussionService.DEFAULT_PAGE_SIZE) int size) {
+                return ResponseEntity.ok(discussionService.getReplies(id, cursor, size));
+        }
 
-                if (!isOwner && !isEnrolled) {
-                        throw new org.springframework.security.access.AccessDeniedException(
-                                        "You must be enrolled to post in this discussion.");
+        @PostMapping
+        public ResponseEntity<DiscussionDto> createDiscussion(
+                        @AuthenticationPrincipal User user,
+                        @Valid @RequestBody DiscussionRequestDto request) {
+                if (request.getModuleId() == null) {
+                        throw new IllegalArgumentException("moduleId is required.");
                 }
-
-                request.setUser(user);
-                request.setCourseId(courseId); // Ensure consistency
-                return ResponseEntity.ok(discussionRepository.save(request));
+                return ResponseEntity.ok(discussionService.createDiscussion(user, request.getModuleId(), request.getContent()));
         }
 
         @PostMapping("/{id}/reply")
-        public ResponseEntity<Discussion> replyToDiscussion(
-                        @AuthenticationPrincipal UserDetails userDetails,
+        public ResponseEntity<DiscussionDto> replyToDiscussion(
+                        @AuthenticationPrincipal User user,
                         @PathVariable Long id,
-                        @RequestBody Discussion replyRequest) {
-                User user = userRepository.findByEmail(userDetails.getUsername())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
-                Discussion parent = discussionRepository.findById(id)
-                                .orElseThrow(() -> new RuntimeException("Discussion not found"));
-
-                Long courseId = parent.getCourseId();
-                // We assume fetching the course is safe via repository if needed, but
-                // discussion has courseId.
-                // To be strictly safe, we should check if user can access that courseId.
-                // For optimization, we trust the parent's courseId, but valid access check
-                // requires querying course owner or enrollment.
-                boolean isEnrolled = enrollmentRepository.existsByUserIdAndCourseId(user.getId(), courseId);
-                // Note: Checking owner is harder here without fetching Course entity.
-                // For now, we assume if enrolled, it's okay. If Tutor replies, they should be
-                // enrolled?
-                // Or we fetch course. Let's be robust.
-                boolean isOwner = false;
-                // Optimization: Lazy check. If enrolled, pass. If not, fetch course to check
-                // owner.
-                if (!isEnrolled) {
-                        com.studysync.studysyncbackend.model.Course c = moduleRepository.findById(parent.getModuleId())
-                                        .get().getCourse();
-                        if (c.getTutor().getId().equals(user.getId())) {
-                                isOwner = true;
-                        }
-                }
-
-                if (!isOwner && !isEnrolled) {
-                        throw new org.springframework.security.access.AccessDeniedException(
-                                        "You must be enrolled to reply.");
-                }
-
-                replyRequest.setUser(user);
-                replyRequest.setParent(parent);
-                replyRequest.setCourseId(parent.getCourseId());
-                replyRequest.setModuleId(parent.getModuleId());
-
-                return ResponseEntity.ok(discussionRepository.save(replyRequest));
+                        @Valid @RequestBody DiscussionRequestDto replyRequest) {
+                return ResponseEntity.ok(discussionService.reply(user, id, replyRequest.getContent()));
         }
 
+        /**
+         * PUT /api/discussions/{id}/upvote : Votes for a discussion, at most once per user.
+         * Votes are counted immediately and persisted in batches by DiscussionUpvoteService.
+         */
         @PutMapping("/{id}/upvote")
-        public ResponseEntity<Discussion> upvoteDiscussion(@PathVariable Long id) {
-                Discussion discussion = discussionRepository.findById(id)
-                                .orElseThrow(() -> new RuntimeException("Discussion not found"));
-
-                discussion.setUpvotes(discussion.getUpvotes() + 1);
-                return ResponseEntity.ok(discussionRepository.save(discussion));
+        public ResponseEntity<DiscussionUpvoteDto> upvoteDiscussion(
+                        @AuthenticationPrincipal User user,
+                        @PathVariable Long id) {
+                return ResponseEntity.ok(discussionUpvoteService.upvote(id, user.getId()));
         }
 }
@@ -1,21 +1,20 @@
 package com.studysync.studysyncbackend.controller;
 
 import com.studysync.studysyncbackend.service.FileStorageService;
+import com.studysync.studysyncbackend.service.ImageDerivativeService;
+import com.studysync.studysyncbackend.service.MediaFileService;
+import com.studysync.studysyncbackend.service.MediaFileService.MediaFile;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,6 +24,9 @@ import java.util.Map;
 public class FileController {
 
     private final FileStorageService fileStorageService;
+    private final MediaFileService mediaFileService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final MediaResponseWriter mediaResponseWriter;
 
     @PostMapping("/upload")
     public ResponseEntity<Map<String, String>> uploadFile(@RequestParam("file") MultipartFile file) {
@@ -42,34 +44,26 @@ public class FileController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * GET /api/files/download/{fileName}[?w=320] : Same as /uploads/{fileName}, with an
+     * inline Content-Disposition carrying the file name.
+     */
     @GetMapping("/download/{fileName:.+}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable String fileName, HttpServletRequest request) {
-        Path path = Paths.get("uploads").resolve(fileName).toAbsolutePath().normalize();
-        Resource resource;
-        try {
-            resource = new UrlResource(path.toUri());
-        } catch (MalformedURLException e) {
-            throw new jakarta.persistence.EntityNotFoundException("File not found " + fileName);
+    public void downloadFile(@PathVariable String fileName,
+            @RequestParam(name = "w", required = false) Integer width,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        ImageDerivativeService.Variant variant = width == null
+                ? new ImageDerivativeService.Variant(fileName, true)
+                : imageDerivativeService.resolve(fileName, width);
+        String disposition = ContentDisposition.inline()
+                .filename(variant.fileName(), StandardCharsets.UTF_8)
+                .build()
+                .toString();
+        if (mediaResponseWriter.redirect(variant.fileName(), disposition, response)) {
+            return;
         }
-
-        if (!resource.exists()) {
-            throw new jakarta.persistence.EntityNotFoundException("File not found " + fileName);
-        }
-
-        String contentType = null;
-        try {
-            contentType = request.getServletContext().getMimeType(resource.getFile().getAbsolutePath());
-        } catch (IOException ex) {
-            // Fallback to default content type
-        }
-
-        if (contentType == null) {
-            contentType = "application/octet-stream";
-        }
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+        MediaFile file = mediaFileService.open(variant.fileName());
+        mediaResponseWriter.write(file, disposition, variant.exact(), request, response);
     }
 }
@@ -0,0 +1,64 @@
+package com.studysync.studysyncbackend.controller;
+
+import com.studysync.studysyncbackend.dto.LeaderboardEntryDto;
+import com.studysync.studysyncbackend.model.User;
+import com.studysync.studysyncbackend.service.LeaderboardService;
+import com.studysync.studysyncbackend.service.LeaderboardService.Period;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/gamification")
+@RequiredArgsConstructor
+public class GamificationController {
+
+    private final LeaderboardService leaderboardService;
+
+    /**
+     * GET /api/gamification/leaderboard : The top users by points, all time or this week.
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<LeaderboardEntryDto>> getLeaderboard(
+            @RequestParam(defaultValue = "ALL_TIME") Period period,
+            @RequestParam(defaultValue = "" + LeaderboardService.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(leaderboardService.top(period, limit));
+    }
+
+    /**
+     * GET /api/gamification/leaderboard/me : The current user and the users ranked
+     * right above and below them.
+     */
+    @GetMapping("/leaderboard/me")
+    public ResponseEntity<List<LeaderboardEntryDto>> getLeaderboardAroundMe(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "ALL_TIME") Period period,
+            @RequestParam(defaultValue = "" + LeaderboardService.DEFAULT_RADIUS) int radius) {
+        return ResponseEntity.ok(leaderboardService.around(period, user.getId(), radius));
+    }
+
+    /**
+     * GET /api/gamification/leaderboard/courses/{courseId} : The top students of a course.
+     */
+    @GetMapping("/leaderboard/courses/{courseId}")
+    public ResponseEntity<List<LeaderboardEntryDto>> getCourseLeaderboard(
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "" + LeaderboardService.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(leaderboardService.courseTop(courseId, limit));
+    }
+
+    /**
+     * GET /api/gamification/leaderboard/courses/{courseId}/me : The current user among
+     * the course's students.
+     */
+    @GetMapping("/leaderboard/courses/{courseId}/me")
+    public ResponseEntity<List<LeaderboardEntryDto>> getCourseLeaderboardAroundMe(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "" + LeaderboardService.DEFAULT_RADIUS) int radius) {
+        return ResponseEntity.ok(leaderboardService.courseAround(courseId, user.getId(), radius));
+    }
+}
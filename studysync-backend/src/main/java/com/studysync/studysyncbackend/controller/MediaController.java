@@ -0,0 +1,46 @@
+package com.studysync.studysyncbackend.controller;
+
+import com.studysync.studysyncbackend.service.ImageDerivativeService;
+import com.studysync.studysyncbackend.service.MediaFileService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+
+/**
+ * Public URLs of uploaded files, as returned by the upload endpoint.
+ */
+@Controller
+@RequestMapping("/uploads")
+@RequiredArgsConstructor
+public class MediaController {
+
+    private final MediaFileService mediaFileService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final MediaResponseWriter mediaResponseWriter;
+
+    /**
+     * GET /uploads/{fileName}[?w=320] : The file, or the requested ranges of it, cacheable
+     * for a year, or a redirect to it in remote storage. For images, w selects a resized
+     * variant at least that wide.
+     */
+    @GetMapping("/{fileName:.+}")
+    public void serve(@PathVariable String fileName,
+            @RequestParam(name = "w", required = false) Integer width,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        ImageDerivativeService.Variant variant = width == null
+                ? new ImageDerivativeService.Variant(fileName, true)
+                : imageDerivativeService.resolve(fileName, width);
+        if (mediaResponseWriter.redirect(variant.fileName(), null, response)) {
+            return;
+        }
+        mediaResponseWriter.write(mediaFileService.open(variant.fileName()), null, variant.exact(), request, response);
+    }
+}
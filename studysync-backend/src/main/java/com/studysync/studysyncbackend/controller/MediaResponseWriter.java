@@ -0,0 +1,177 @@
+package com.studysync.studysyncbackend.controller;
+
+import com.studysync.studysyncbackend.service.MediaFileService;
+import com.studysync.studysyncbackend.service.MediaFileService.ByteRange;
+import com.studysync.studysyncbackend.service.MediaFileService.MediaFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes an uploaded file to the response with conditional requests, single and
+ * multi-range (206) responses and long-lived caching: uploads are stored under unique
+ * names and never change.
+ * <p>
+ * A whole file or a single range is handed to Tomcat's sendfile when the connector
+ * offers it, so the bytes go from the page cache to the socket without passing
+ * through the JVM; otherwise, and for multipart/byteranges bodies, regions are copied
+ * with {@link java.nio.channels.FileChannel#transferTo}.
+ */
+@Component
+@RequiredArgsConstructor
+public class MediaResponseWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final MediaFileService mediaFileService;
+
+    /**
+     * Redirects to a signed URL of the file if its store hands those out, so that this
+     * node does not proxy the bytes. The redirect is not cached, as the URL expires.
+     *
+     * @param disposition Content-Disposition the signed response should carry, or null.
+     * @return false if the file must be written by this node instead.
+     */
+    public boolean redirect(String fileName, String disposition, HttpServletResponse response) {
+        Optional<URI> signed = mediaFileService.signedUrl(fileName, disposition);
+        if (signed.isEmpty()) {
+            return false;
+        }
+        response.setStatus(HttpServletResponse.SC_FOUND);
+        response.setHeader(HttpHeaders.LOCATION, signed.get().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        return true;
+    }
+
+    /**
+     * Writes the file, or the requested ranges of it, honouring the conditional headers.
+     *
+     * @param disposition Content-Disposition to send, or null for none.
+     */
+    public void write(MediaFile file, String disposition, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        write(file, disposition, true, request, response);
+    }
+
+    /**
+     * As {@link #write(MediaFile, String, HttpServletRequest, HttpServletResponse)}; a
+     * response that is not {@code immutable} (a stand-in until the requested variant
+     * exists) must be revalidated instead of cached for a year.
+     */
+    public void write(MediaFile file, String disposition, boolean immutable,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, file.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.lastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                (immutable ? IMMUTABLE : CacheControl.noCache()).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (mediaFileService.isNotModified(file, request.getHeader(HttpHeaders.IF_NONE_MATCH),
+                dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        if (disposition != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition);
+        }
+
+        List<ByteRange> ranges = null;
+        if (mediaFileService.isRangeApplicable(file, request.getHeader(HttpHeaders.IF_RANGE),
+                dateHeader(request, HttpHeaders.IF_RANGE))) {
+            ranges = mediaFileService.parseRanges(request.getHeader(HttpHeaders.RANGE), file.size());
+        }
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(file.contentType().toString());
+            writeRegion(file, new ByteRange(0, file.size() - 1), head, request, response);
+        } else if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+        } else if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(file.contentType().toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, file.size()));
+            writeRegion(file, range, head, request, response);
+        } else {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            writeMultipart(file, ranges, head, response);
+        }
+    }
+
+    private void writeRegion(MediaFile file, ByteRange range, boolean head,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(Math.max(range.length(), 0));
+        if (head || range.length() <= 0) {
+            return;
+        }
+        if (file.path() != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            return;
+        }
+        mediaFileService.transfer(file, range, response.getOutputStream());
+    }
+
+    // multipart/byteranges: one part per range, each with its own Content-Range
+    private void writeMultipart(MediaFile file, List<ByteRange> ranges, boolean head, HttpServletResponse response)
+            throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        byte[][] partHeaders = new byte[ranges.size()][];
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        long length = closing.length;
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            partHeaders[i] = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + file.contentType() + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, file.size()) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            length += partHeaders[i].length + range.length();
+        }
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(length);
+        if (head) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        for (int i = 0; i < ranges.size(); i++) {
+            out.write(partHeaders[i]);
+            mediaFileService.transfer(file, ranges.get(i), out);
+        }
+        out.write(closing);
+    }
+
+    private static String contentRange(ByteRange range, long size) {
+        return "bytes " + range.start() + "-" + range.end() + "/" + size;
+    }
+
+    // -1 when the header is absent or not a date
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException ex) {
+            return -1;
+        }
+    }
+}
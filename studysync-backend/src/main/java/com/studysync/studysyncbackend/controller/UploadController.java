@@ -0,0 +1,79 @@
+package com.studysync.studysyncbackend.controller;
+
+import com.studysync.studysyncbackend.dto.UploadInitRequestDto;
+import com.studysync.studysyncbackend.dto.UploadSessionDto;
+import com.studysync.studysyncbackend.model.User;
+import com.studysync.studysyncbackend.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resumable uploads: POST to start, PUT each chunk with its byte offset, GET to see
+ * what has arrived after a dropped connection, then POST .../complete.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionDto> initUpload(@AuthenticationPrincipal User user,
+            @Valid @RequestBody UploadInitRequestDto request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(chunkedUploadService.init(user.getId(), request));
+    }
+
+    /**
+     * PUT /api/uploads/{uploadId}?offset=N : Writes the raw request body at byte N.
+     */
+    @PutMapping(value = "/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionDto> uploadChunk(@AuthenticationPrincipal User user,
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(chunkedUploadService.writeChunk(user.getId(), uploadId, offset, request.getInputStream()));
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionDto> getUpload(@AuthenticationPrincipal User user, @PathVariable String uploadId) {
+        return ResponseEntity.ok(chunkedUploadService.status(user.getId(), uploadId));
+    }
+
+    /**
+     * POST /api/uploads/{uploadId}/complete : Verifies the checksum and stores the file.
+     * Responds like POST /api/files/upload.
+     */
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<Map<String, String>> completeUpload(@AuthenticationPrincipal User user,
+            @PathVariable String uploadId) throws IOException {
+        String fileName = chunkedUploadService.complete(user.getId(), uploadId);
+
+        String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/uploads/")
+                .path(fileName)
+                .toUriString();
+
+        Map<String, String> response = new HashMap<>();
+        response.put("fileName", fileName);
+        response.put("fileUrl", fileDownloadUri);
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@AuthenticationPrincipal User user, @PathVariable String uploadId) {
+        chunkedUploadService.abort(user.getId(), uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,11 +1,15 @@
 package com.studysync.studysyncbackend.controller;
 
+import com.studysync.studysyncbackend.event.UserProfileChangedEvent;
 import com.studysync.studysyncbackend.model.User;
 import com.studysync.studysyncbackend.repository.UserRepository;
 import com.studysync.studysyncbackend.service.FileStorageService;
+import com.studysync.studysyncbackend.service.StoredBlobService;
+import com.studysync.studysyncbackend.service.UserPrincipalCache;
 import com.studysync.studysyncbackend.repository.UserActivityRepository;
 import com.studysync.studysyncbackend.model.UserActivity;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import java.util.List;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -27,6 +31,9 @@ public class UserController {
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
     private final UserActivityRepository userActivityRepository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final StoredBlobService storedBlobService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @GetMapping("/me")
     public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
@@ -59,6 +66,8 @@ public class UserController {
             user.setBio(updatedData.getBio());
 
         User savedUser = userRepository.save(user);
+        userPrincipalCache.invalidate(savedUser.getEmail()); // Next request picks up the new profile
+        eventPublisher.publishEvent(new UserProfileChangedEvent(savedUser.getId())); // Courses showing them as tutor
         return ResponseEntity.ok(savedUser);
     }
 
@@ -77,8 +86,11 @@ public class UserController {
                 .path(fileName)
                 .toUriString();
 
+        String previousAvatarUrl = user.getAvatarUrl();
         user.setAvatarUrl(fileDownloadUri);
         userRepository.save(user);
+        storedBlobService.swap(previousAvatarUrl, fileDownloadUri);
+        userPrincipalCache.invalidate(user.getEmail());
 
         Map<String, String> response = new HashMap<>();
         response.put("avatarUrl", fileDownloadUri);
@@ -1,16 +1,22 @@
 package com.studysync.studysyncbackend.dto;
 
+import com.studysync.studysyncbackend.model.ChatMessageType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class ChatMessageDto {
     private String content;
     private String sender; // Could be username, user ID, etc.
-    // You might add message type (CHAT, JOIN, LEAVE), timestamp, etc. later
-}
\ No newline at end of file
+    private ChatMessageType type;
+    // Set by the server; clients reconnect with "messages since seq X"
+    private Long seq;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,31 @@
+package com.studysync.studysyncbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Lightweight catalog row: course card fields only, no module bodies.
+ * Field order matches the JPQL constructor expressions in CourseRepository.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CourseSummaryDto {
+    private Long id;
+    private String title;
+    private String description;
+    private BigDecimal price;
+    private String thumbnail;
+    private String category;
+    private String level;
+    private Double averageRating;
+    private Long viewCount;
+    private Long tutorId;
+    private String tutorFirstName;
+    private String tutorLastName;
+}
@@ -0,0 +1,18 @@
+package com.studysync.studysyncbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DiscussionAuthorDto {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String role;
+    private String avatarUrl;
+}
@@ -0,0 +1,28 @@
+package com.studysync.studysyncbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DiscussionDto {
+    private Long id;
+    private String content;
+    private DiscussionAuthorDto user;
+    private Long parentId;
+    private int depth;
+    private long upvotes; // Including votes not yet flushed to the database
+    private LocalDateTime createdAt;
+    @Builder.Default
+    private List<DiscussionDto> replies = new ArrayList<>(); // Only the loaded part of the thread
+    private long replyCount; // Top-level posts: total replies in the thread
+    private String moreRepliesCursor; // Top-level posts: pass to GET /{id}/replies?cursor= for the rest; null if all loaded
+}
@@ -0,0 +1,18 @@
+package com.studysync.studysyncbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DiscussionPageDto {
+    private List<DiscussionDto> items;
+    private String nextCursor; // Pass back as ?cursor= to get the next page; null on the last page
+    private boolean hasMore;
+}
@@ -0,0 +1,21 @@
+package com.studysync.studysyncbackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DiscussionRequestDto {
+
+    @NotBlank(message = "Content cannot be empty")
+    @Size(max = 1000, message = "Content cannot exceed 1000 characters") // Matches the column length
+    private String content;
+
+    private Long moduleId; // Required for new threads; ignored for replies
+}
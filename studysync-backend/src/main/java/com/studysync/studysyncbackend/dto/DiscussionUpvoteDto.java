@@ -0,0 +1,16 @@
+package com.studysync.studysyncbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DiscussionUpvoteDto {
+    private Long discussionId;
+    private long upvotes; // Including votes not yet flushed to the database
+    private boolean voted; // False if the user had already voted
+}
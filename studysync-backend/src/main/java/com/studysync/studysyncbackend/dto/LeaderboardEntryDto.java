@@ -0,0 +1,19 @@
+package com.studysync.studysyncbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LeaderboardEntryDto {
+    private int rank; // 1-based
+    private Long userId;
+    private String firstName;
+    private String lastName;
+    private String avatarUrl;
+    private long points;
+}
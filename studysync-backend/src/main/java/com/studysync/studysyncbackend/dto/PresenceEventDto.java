@@ -0,0 +1,21 @@
+package com.studysync.studysyncbackend.dto;
+
+import com.studysync.studysyncbackend.model.ChatMessageType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One user coming online (JOIN) or going offline (LEAVE) in a room
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PresenceEventDto {
+    private String roomId;
+    private ChatMessageType type;
+    private String username;
+    private int online;
+    // Increases by one per event; a gap means the client missed one and should reload the snapshot
+    private long version;
+}
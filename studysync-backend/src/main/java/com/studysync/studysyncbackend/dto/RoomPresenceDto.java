@@ -0,0 +1,20 @@
+package com.studysync.studysyncbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomPresenceDto {
+    private String roomId;
+    private int online;
+    private List<String> users;
+    // Version of the last presence event included; later events have higher versions
+    private long version;
+}
@@ -0,0 +1,26 @@
+package com.studysync.studysyncbackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadInitRequestDto {
+    @NotBlank
+    private String fileName;
+    @NotBlank
+    private String contentType;
+    @Positive
+    private long size;
+    // Hex SHA-256 of the whole file, checked when the upload is completed
+    @NotBlank
+    @Pattern(regexp = "[0-9a-fA-F]{64}", message = "must be a hex SHA-256 digest")
+    private String sha256;
+}
@@ -0,0 +1,25 @@
+package com.studysync.studysyncbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionDto {
+    private String uploadId;
+    private String fileName;
+    private long size;
+    // Largest chunk the server accepts in one PUT
+    private long maxChunkSize;
+    private long receivedBytes;
+    // First byte not received yet; a client resuming sequentially continues here
+    private long nextOffset;
+    // Received [start, end) intervals, for clients that send chunks in parallel
+    private List<long[]> receivedRanges;
+}
@@ -0,0 +1,11 @@
+package com.studysync.studysyncbackend.event;
+
+/**
+ * Published by CourseService through DomainEventBus whenever a course or one of its
+ * modules is created, updated or deleted. Listeners re-read the course by id, so a
+ * missing course means it was deleted.
+ *
+ * @param courseId The ID of the course that changed.
+ */
+public record CourseChangedEvent(Long courseId) implements DomainEvent {
+}
@@ -0,0 +1,10 @@
+package com.studysync.studysyncbackend.event;
+
+/**
+ * Published by DiscussionService when a thread or a reply is posted.
+ *
+ * @param userId       The ID of the author.
+ * @param discussionId The ID of the new post.
+ */
+public record DiscussionPostedEvent(Long userId, Long discussionId) implements DomainEvent {
+}
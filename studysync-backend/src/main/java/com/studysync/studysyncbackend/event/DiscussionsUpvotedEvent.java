@@ -0,0 +1,11 @@
+package com.studysync.studysyncbackend.event;
+
+import java.util.Map;
+
+/**
+ * Published by DiscussionUpvoteService after a flush has written new upvotes.
+ *
+ * @param upvotes Discussion ID -> number of upvotes just written.
+ */
+public record DiscussionsUpvotedEvent(Map<Long, Long> upvotes) implements DomainEvent {
+}
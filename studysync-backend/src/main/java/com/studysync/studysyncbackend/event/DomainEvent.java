@@ -0,0 +1,13 @@
+package com.studysync.studysyncbackend.event;
+
+/**
+ * Something that happened in the domain, published after the change is committed.
+ * <p>
+ * Every event is delivered to in-process listeners ({@code @TransactionalEventListener}
+ * methods). Events published through DomainEventBus are also delivered, at least once,
+ * to each {@link DomainEventConsumer} that accepts them, so they must serialize to JSON.
+ */
+public sealed interface DomainEvent permits CourseChangedEvent, DiscussionPostedEvent, DiscussionsUpvotedEvent,
+        EnrolledInCourseEvent, PointsAwardedEvent, ProgressUpdatedEvent, StreakUpdatedEvent, UserLoggedInEvent,
+        UserProfileChangedEvent {
+}
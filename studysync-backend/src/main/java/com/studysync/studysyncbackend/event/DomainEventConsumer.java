@@ -0,0 +1,24 @@
+package com.studysync.studysyncbackend.event;
+
+/**
+ * A durable consumer of domain events. DomainEventBus records a delivery for every
+ * event the consumer accepts in the publishing transaction, and calls
+ * {@link #consume} asynchronously after commit, retrying with backoff until it
+ * returns normally. Deliveries are at least once and in no particular order, so
+ * consuming must be idempotent.
+ */
+public interface DomainEventConsumer {
+
+    /**
+     * Stored with each pending delivery; renaming a consumer orphans its pending deliveries.
+     */
+    String name();
+
+    /**
+     * Whether the event needs a delivery. Called on the publishing thread, so it should
+     * not touch the database.
+     */
+    boolean accepts(DomainEvent event);
+
+    void consume(DomainEvent event);
+}
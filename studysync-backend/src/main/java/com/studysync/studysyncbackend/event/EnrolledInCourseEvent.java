@@ -0,0 +1,10 @@
+package com.studysync.studysyncbackend.event;
+
+/**
+ * Published by EnrollmentService when a user enrolls in a course.
+ *
+ * @param userId   The ID of the enrolled user.
+ * @param courseId The ID of the course.
+ */
+public record EnrolledInCourseEvent(Long userId, Long courseId) implements DomainEvent {
+}
@@ -0,0 +1,13 @@
+package com.studysync.studysyncbackend.event;
+
+/**
+ * Published by GamificationService through DomainEventBus when points are added to
+ * (or taken from) a user. PointsLedgerService consumes it once the publishing
+ * transaction commits.
+ *
+ * @param userId The ID of the user whose points changed.
+ * @param points The change, negative for a deduction.
+ * @param reason What the points are for, or null.
+ */
+public record PointsAwardedEvent(Long userId, long points, String reason) implements DomainEvent {
+}
@@ -0,0 +1,16 @@
+package com.studysync.studysyncbackend.event;
+
+/**
+ * Published by EnrollmentService when a student's progress in a course changes.
+ *
+ * @param userId           The ID of the student.
+ * @param courseId         The ID of the course.
+ * @param previousProgress The progress before the update, in percent.
+ * @param progress         The new progress, in percent.
+ */
+public record ProgressUpdatedEvent(Long userId, Long courseId, int previousProgress, int progress) implements DomainEvent {
+
+    public boolean completed() {
+        return previousProgress < 100 && progress >= 100;
+    }
+}
@@ -0,0 +1,11 @@
+package com.studysync.studysyncbackend.event;
+
+/**
+ * Published by UserActivityService when a flush has written a user's first login of
+ * the day, which extends or restarts their streak.
+ *
+ * @param userId The ID of the user.
+ * @param streak The user's current streak, in days.
+ */
+public record StreakUpdatedEvent(Long userId, int streak) implements DomainEvent {
+}
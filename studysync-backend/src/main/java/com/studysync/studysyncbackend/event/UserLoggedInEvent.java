@@ -0,0 +1,9 @@
+package com.studysync.studysyncbackend.event;
+
+/**
+ * Published by AuthenticationService when a user registers or logs in.
+ *
+ * @param userId The ID of the user.
+ */
+public record UserLoggedInEvent(Long userId) implements DomainEvent {
+}
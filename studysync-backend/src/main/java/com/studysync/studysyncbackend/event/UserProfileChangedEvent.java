@@ -0,0 +1,10 @@
+package com.studysync.studysyncbackend.event;
+
+/**
+ * Published by UserController when a user edits their profile. Caches that copy a
+ * user's name (as the tutor of a course, for instance) drop those copies.
+ *
+ * @param userId The ID of the user.
+ */
+public record UserProfileChangedEvent(Long userId) implements DomainEvent {
+}
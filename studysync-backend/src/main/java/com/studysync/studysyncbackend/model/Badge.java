@@ -34,5 +34,9 @@ public class Badge {
     @Column(nullable = false, length = 10) // STUDENT, TUTOR, or ALL
     private Role targetRole; // Use the existing Role enum or create a new one if needed
 
-    // Add criteria fields later if needed (e.g., points required, specific action count)
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30) // null for badges that are only awarded explicitly
+    private BadgeRule rule;
+
+    private Integer threshold; // e.g., 7 for a 7-day LOGIN_STREAK
 }
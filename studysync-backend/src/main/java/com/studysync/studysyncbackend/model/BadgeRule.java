@@ -0,0 +1,11 @@
+package com.studysync.studysyncbackend.model;
+
+/**
+ * What a badge's threshold counts. Badges without a rule are only awarded explicitly.
+ */
+public enum BadgeRule {
+    COURSES_COMPLETED, // enrollments at 100% progress
+    LOGIN_STREAK, // consecutive days with a login
+    UPVOTES_RECEIVED, // upvotes across all of the user's discussion posts
+    DISCUSSIONS_POSTED // threads started plus replies
+}
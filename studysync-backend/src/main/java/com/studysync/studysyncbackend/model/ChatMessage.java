@@ -0,0 +1,47 @@
+package com.studysync.studysyncbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A chat room message. Rows are append-only and written in batches by
+ * ChatHistoryService; seq is assigned by the server and increases by one per room.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "chat_messages", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "room_id", "seq" })
+})
+public class ChatMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String roomId;
+
+    @Column(nullable = false)
+    private long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChatMessageType type;
+
+    @Column(length = 100)
+    private String sender;
+
+    @Column(length = 2000)
+    private String content;
+
+    @Column(nullable = false)
+    private LocalDateTime sentAt;
+}
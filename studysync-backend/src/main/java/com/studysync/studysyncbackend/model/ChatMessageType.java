@@ -0,0 +1,10 @@
+package com.studysync.studysyncbackend.model;
+
+// Kinds of chat room messages
+public enum ChatMessageType {
+    CHAT,
+    JOIN,
+    LEAVE,
+    // Broadcast only, never stored
+    TYPING
+}
@@ -0,0 +1,28 @@
+package com.studysync.studysyncbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The last chat message sequence number handed out for a room. With the broker relay
+ * every node allocates from this row (ChatHistoryService), so seqs stay unique and
+ * increasing across nodes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "chat_room_sequences")
+public class ChatRoomSequence {
+
+    @Id
+    @Column(length = 100)
+    private String roomId;
+
+    @Column(nullable = false)
+    private long lastSeq;
+}
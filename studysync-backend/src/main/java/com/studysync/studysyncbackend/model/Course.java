@@ -18,7 +18,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "courses")
+// Keyset pages of the published catalog by rating and by views (see CourseRepository)
+@Table(name = "courses", indexes = {
+        @Index(columnList = "is_published, average_rating, id"),
+        @Index(columnList = "is_published, view_count, id")
+})
 @EqualsAndHashCode(exclude = { "modules" })
 @ToString(exclude = { "modules" })
 public class Course {
@@ -36,11 +40,11 @@ public class Course {
     @Column(precision = 10, scale = 2)
     private BigDecimal price;
 
-    @Column(name = "average_rating")
+    @Column(name = "average_rating", nullable = false)
     @Builder.Default
     private Double averageRating = 0.0;
 
-    @Column(name = "view_count")
+    @Column(name = "view_count", nullable = false)
     @Builder.Default
     private Long viewCount = 0L;
 
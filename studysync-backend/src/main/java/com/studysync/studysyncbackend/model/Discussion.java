@@ -14,7 +14,10 @@ import java.util.ArrayList;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "discussions")
+@Table(name = "discussions", indexes = {
+        @Index(columnList = "module_id, parent_id, id"),
+        @Index(columnList = "root_id, path")
+})
 public class Discussion {
 
     @Id
@@ -39,6 +42,15 @@ public class Discussion {
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Discussion> replies = new ArrayList<>();
 
+    // Materialized path of zero-padded ids from the root post down to this one, e.g.
+    // "0000000012/0000000034". Ordering a thread by path gives depth-first order.
+    @Column(length = 255)
+    private String path;
+
+    private Long rootId; // Id of the top-level post of this thread (own id for top-level posts)
+
+    private Integer depth; // 0 for top-level posts
+
     private int upvotes = 0;
 
     private LocalDateTime createdAt;
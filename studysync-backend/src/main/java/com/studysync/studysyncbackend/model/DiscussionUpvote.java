@@ -0,0 +1,39 @@
+package com.studysync.studysyncbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user's vote on a discussion. The unique constraint is what guarantees a user
+ * votes at most once; rows are written in batches by DiscussionUpvoteService.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "discussion_upvotes", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "discussion_id", "user_id" })
+})
+public class DiscussionUpvote {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "discussion_id", nullable = false)
+    private Discussion discussion;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
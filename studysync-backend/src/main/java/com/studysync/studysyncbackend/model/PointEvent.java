@@ -0,0 +1,43 @@
+package com.studysync.studysyncbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One award (or deduction) of points. The table is append-only: users.points is
+ * the running sum of a user's events, so the totals can be audited and replayed.
+ * Rows are written in batches by PointsLedgerService.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "point_events", indexes = {
+        @Index(name = "idx_point_events_created_at", columnList = "created_at")
+})
+public class PointEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false, updatable = false)
+    private long points;
+
+    // What the points were for, e.g. "BADGE:COURSE_FINISHER"; optional
+    @Column(updatable = false)
+    private String reason;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,48 @@
+package com.studysync.studysyncbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An uploaded file stored once under its SHA-256, as "{digest}.{extension}".
+ * <p>
+ * refCount is the number of profile, course and module fields pointing at it. A blob
+ * nothing points at is orphaned since orphanedAt and is deleted by
+ * StoredBlobService once the grace period has passed; fresh uploads start orphaned
+ * so that ones never attached to anything are collected too.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stored_blobs", indexes = {
+        @Index(name = "idx_stored_blobs_orphaned", columnList = "ref_count, orphaned_at")
+})
+public class StoredBlob {
+
+    @Id
+    @Column(length = 64)
+    private String digest;
+
+    @Column(nullable = false, length = 10)
+    private String extension;
+
+    private long size;
+
+    private String contentType;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "orphaned_at")
+    private LocalDateTime orphanedAt;
+}
@@ -40,14 +40,17 @@ public class User implements UserDetails { // Implement UserDetails for Spring S
     @Column(nullable = false)
     private Role role;
 
-    @Column(nullable = false)
+    // Only ever changed by the write-behind flushes in SQL: a profile save must not write back a stale copy
+    @Column(nullable = false, updatable = false)
     private long points = 0; // User points for gamification
 
     private String avatarUrl;
     private String profession;
     private String bio;
 
+    @Column(updatable = false)
     private int currentStreak = 0;
+    @Column(updatable = false)
     private java.time.LocalDate lastLoginDate;
 
     // --- UserDetails Methods (Required by Spring Security) ---
@@ -0,0 +1,15 @@
+package com.studysync.studysyncbackend.repository;
+
+import com.studysync.studysyncbackend.model.ChatMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
+
+    // Newest first; used to warm a room's ring buffer and sequence
+    List<ChatMessage> findByRoomIdOrderBySeqDesc(String roomId, Limit limit);
+
+    List<ChatMessage> findByRoomIdAndSeqGreaterThanOrderBySeqAsc(String roomId, long seq, Limit limit);
+}
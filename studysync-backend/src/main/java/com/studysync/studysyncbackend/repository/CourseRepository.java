@@ -1,15 +1,69 @@
 package com.studysync.studysyncbackend.repository;
 
+import com.studysync.studysyncbackend.dto.CourseSummaryDto;
 import com.studysync.studysyncbackend.model.Course;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecificationExecutor<Course> {
+    @EntityGraph(attributePaths = "tutor")
     List<Course> findByTutorId(Long tutorId);
 
+    @EntityGraph(attributePaths = "tutor")
     List<Course> findByIsPublished(boolean isPublished);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = { "tutor", "modules" })
+    Optional<Course> findWithTutorAndModulesById(Long id);
+
+    // Batch loaders used by CourseFetchPlan to initialize lazy associations of managed courses
+    @Query("select c from Course c join fetch c.tutor where c.id in :ids")
+    List<Course> fetchTutorsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct c from Course c left join fetch c.modules where c.id in :ids")
+    List<Course> fetchModulesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // --- Published catalog summaries (no module bodies), keyset-paginated newest/top first ---
+    // Rating and views are NOT NULL and indexed with (is_published, ..., id), so each page is an index range
+
+    String SUMMARY_SELECT = "select new com.studysync.studysyncbackend.dto.CourseSummaryDto("
+            + "c.id, c.title, c.description, c.price, c.thumbnail, c.category, c.level, "
+            + "c.averageRating, c.viewCount, t.id, t.firstName, t.lastName) "
+            + "from Course c join c.tutor t where c.isPublished = true ";
+
+    @Query(SUMMARY_SELECT + "and c.id < :afterId order by c.id desc")
+    List<CourseSummaryDto> findSummariesAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "and (c.averageRating < :afterRating "
+            + "or (c.averageRating = :afterRating and c.id < :afterId)) "
+            + "order by c.averageRating desc, c.id desc")
+    List<CourseSummaryDto> findSummariesAfterRating(@Param("afterRating") Double afterRating,
+            @Param("afterId") Long afterId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "and (c.viewCount < :afterViews "
+            + "or (c.viewCount = :afterViews and c.id < :afterId)) "
+            + "order by c.viewCount desc, c.id desc")
+    List<CourseSummaryDto> findSummariesAfterViews(@Param("afterViews") Long afterViews,
+            @Param("afterId") Long afterId, Limit limit);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result set
+    @Query(SUMMARY_SELECT + "order by c.id desc")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CourseSummaryDto> streamPublishedSummaries();
+}
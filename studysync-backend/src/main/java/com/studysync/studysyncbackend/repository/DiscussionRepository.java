@@ -1,8 +1,16 @@
 package com.studysync.studysyncbackend.repository;
 
 import com.studysync.studysyncbackend.model.Discussion;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface DiscussionRepository extends JpaRepository<Discussion, Long> {
     // Find top-level discussions for a module (ordered by newest)
@@ -10,4 +18,89 @@ public interface DiscussionRepository extends JpaRepository<Discussion, Long> {
 
     // Find top-level discussions for a course (ordered by newest)
     List<Discussion> findByCourseIdAndParentIsNullOrderByCreatedAtDesc(Long courseId);
+
+    // Persisted vote count only; DiscussionUpvoteService adds the votes not yet flushed
+    @Query("select d.upvotes from Discussion d where d.id = :id")
+    Optional<Integer> findUpvotesById(@Param("id") Long id);
+
+    /**
+     * Flat row of a discussion and its author, used to assemble thread DTOs without
+     * loading entities. replyCount is only populated by {@link #findFirstReplies}.
+     */
+    interface ThreadRow {
+        Long getId();
+        String getContent();
+        Long getParentId();
+        Long getRootId();
+        Integer getDepth();
+        String getPath();
+        Integer getUpvotes();
+        LocalDateTime getCreatedAt();
+        Long getUserId();
+        String getUserFirstName();
+        String getUserLastName();
+        String getUserRole();
+        String getUserAvatarUrl();
+        Long getReplyCount();
+    }
+
+    // Top-level posts of a module, newest first, keyset-paginated on id
+    @Query("select d.id as id, d.content as content, d.rootId as rootId, d.depth as depth, d.path as path, "
+            + "d.upvotes as upvotes, d.createdAt as createdAt, u.id as userId, u.firstName as userFirstName, "
+            + "u.lastName as userLastName, str(u.role) as userRole, u.avatarUrl as userAvatarUrl "
+            + "from Discussion d join d.user u "
+            + "where d.moduleId = :moduleId and d.parent is null and d.id < :beforeId "
+            + "order by d.id desc")
+    List<ThreadRow> findTopLevelRows(@Param("moduleId") Long moduleId, @Param("beforeId") Long beforeId, Limit limit);
+
+    // The first :perThread replies (in thread order) of each given thread, with each thread's total reply count
+    @Query(value = "select t.* from ("
+            + "select d.id as id, d.content as content, d.parent_id as parentId, d.root_id as rootId, "
+            + "d.depth as depth, d.path as path, d.upvotes as upvotes, d.created_at as createdAt, "
+            + "u.id as userId, u.first_name as userFirstName, u.last_name as userLastName, "
+            + "u.role as userRole, u.avatar_url as userAvatarUrl, "
+            + "count(*) over (partition by d.root_id) as replyCount, "
+            + "row_number() over (partition by d.root_id order by d.path) as rn "
+            + "from discussions d join users u on u.id = d.user_id "
+            + "where d.root_id in (:rootIds) and d.depth > 0"
+            + ") t where t.rn <= :perThread order by t.rootId, t.path", nativeQuery = true)
+    List<ThreadRow> findFirstReplies(@Param("rootIds") Collection<Long> rootIds, @Param("perThread") int perThread);
+
+    // Replies of one thread after the given path, in thread order
+    @Query("select d.id as id, d.content as content, d.parent.id as parentId, d.rootId as rootId, "
+            + "d.depth as depth, d.path as path, d.upvotes as upvotes, d.createdAt as createdAt, "
+            + "u.id as userId, u.firstName as userFirstName, u.lastName as userLastName, "
+            + "str(u.role) as userRole, u.avatarUrl as userAvatarUrl "
+            + "from Discussion d join d.user u "
+            + "where d.rootId = :rootId and d.depth > 0 and d.path > :afterPath "
+            + "order by d.path")
+    List<ThreadRow> findRepliesAfter(@Param("rootId") Long rootId, @Param("afterPath") String afterPath, Limit limit);
+
+    // Threads started plus replies; evaluated by BadgeEngine
+    long countByUserId(Long userId);
+
+    interface AuthorUpvotesRow {
+        Long getUserId();
+        long getUpvotes();
+    }
+
+    // Total persisted upvotes of every author of the given discussions, across all their posts
+    @Query("select d.user.id as userId, sum(d.upvotes) as upvotes from Discussion d "
+            + "where d.user.id in (select x.user.id from Discussion x where x.id in :ids) group by d.user.id")
+    List<AuthorUpvotesRow> sumUpvotesOfAuthors(@Param("ids") Collection<Long> discussionIds);
+
+    boolean existsByPathIsNull();
+
+    // Path backfill for rows written before paths existed: top-level posts first...
+    @Modifying
+    @Query(value = "update discussions set path = lpad(id, 10, '0'), root_id = id, depth = 0 "
+            + "where parent_id is null and path is null", nativeQuery = true)
+    int backfillTopLevelPaths();
+
+    // ...then one level of replies per call, until it returns 0
+    @Modifying
+    @Query(value = "update discussions c join discussions p on c.parent_id = p.id "
+            + "set c.path = concat(p.path, '/', lpad(c.id, 10, '0')), c.root_id = p.root_id, c.depth = p.depth + 1 "
+            + "where c.path is null and p.path is not null", nativeQuery = true)
+    int backfillReplyPaths();
 }
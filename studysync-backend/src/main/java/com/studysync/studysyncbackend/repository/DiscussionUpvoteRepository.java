@@ -0,0 +1,9 @@
+package com.studysync.studysyncbackend.repository;
+
+import com.studysync.studysyncbackend.model.DiscussionUpvote;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DiscussionUpvoteRepository extends JpaRepository<DiscussionUpvote, Long> {
+
+    boolean existsByDiscussionIdAndUserId(Long discussionId, Long userId);
+}
@@ -2,6 +2,8 @@
 
     import com.studysync.studysyncbackend.model.EarnedBadge;
     import org.springframework.data.jpa.repository.JpaRepository;
+    import org.springframework.data.jpa.repository.Query;
+    import org.springframework.data.repository.query.Param;
     import java.util.List;
 
     // Repository for EarnedBadge records (linking users and badges)
@@ -13,6 +15,10 @@
         // Check if a user has already earned a specific badge (by badge code)
         boolean existsByUser_IdAndBadge_BadgeCode(Long userId, String badgeCode);
 
+        // IDs of the badges a user has earned; loaded once per user by BadgeCatalog
+        @Query("select e.badge.id from EarnedBadge e where e.user.id = :userId")
+        List<Long> findBadgeIdsByUserId(@Param("userId") Long userId);
+
         // Find a specific earned badge record
         // Optional<EarnedBadge> findByUser_IdAndBadge_BadgeCode(Long userId, String badgeCode); // If needed later
     }
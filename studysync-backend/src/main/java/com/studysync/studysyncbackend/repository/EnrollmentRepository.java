@@ -1,7 +1,10 @@
 package com.studysync.studysyncbackend.repository;
 
 import com.studysync.studysyncbackend.model.Enrollment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,6 +13,23 @@ import java.util.Optional;
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     boolean existsByUserIdAndCourseId(Long userId, Long courseId);
+
+    @EntityGraph(attributePaths = { "course", "course.tutor" })
     List<Enrollment> findByUserId(Long userId);
+
     Optional<Enrollment> findByUserIdAndCourseId(Long userId, Long courseId);
+
+    @Query("select e.progress from Enrollment e where e.user.id = :userId and e.course.id = :courseId")
+    Optional<Integer> findProgress(@Param("userId") Long userId, @Param("courseId") Long courseId);
+
+    long countByUserIdAndProgressGreaterThanEqual(Long userId, int progress);
+
+    interface MembershipRow {
+        Long getUserId();
+        Long getCourseId();
+    }
+
+    // Every (user, course) enrollment pair, without loading the entities
+    @Query("select e.user.id as userId, e.course.id as courseId from Enrollment e")
+    List<MembershipRow> findAllMemberships();
 }
@@ -0,0 +1,22 @@
+package com.studysync.studysyncbackend.repository;
+
+import com.studysync.studysyncbackend.model.PointEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PointEventRepository extends JpaRepository<PointEvent, Long> {
+
+    interface UserTotalRow {
+        Long getUserId();
+        long getPoints();
+    }
+
+    // Points each user earned since the given time; seeds the weekly leaderboard
+    @Query("select e.user.id as userId, sum(e.points) as points from PointEvent e "
+            + "where e.createdAt >= :since group by e.user.id")
+    List<UserTotalRow> sumPointsSince(@Param("since") LocalDateTime since);
+}
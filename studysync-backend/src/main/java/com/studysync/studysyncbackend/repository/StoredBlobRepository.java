@@ -0,0 +1,14 @@
+package com.studysync.studysyncbackend.repository;
+
+import com.studysync.studysyncbackend.model.StoredBlob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    List<StoredBlob> findByRefCountAndOrphanedAtBeforeAndDigestGreaterThanOrderByDigest(int refCount,
+            LocalDateTime cutoff, String after, Limit limit);
+}
@@ -2,6 +2,9 @@ package com.studysync.studysyncbackend.repository;
 
 import com.studysync.studysyncbackend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 import java.util.Optional;
 
 // JpaRepository<EntityType, PrimaryKeyType>
@@ -10,4 +13,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Spring Data JPA automatically creates the implementation for this method
     // based on the method name. It knows to look for a user by the 'email' field.
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+
+    interface PointsRow {
+        Long getId();
+        long getPoints();
+    }
+
+    // Every user's points, without loading the entities; seeds LeaderboardService
+    @Query("select u.id as id, u.points as points from User u")
+    List<PointsRow> findAllPoints();
+}
@@ -1,6 +1,7 @@
 package com.studysync.studysyncbackend.repository;
 
 import com.studysync.studysyncbackend.model.WishlistItem;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 import java.util.Optional; // Import Optional
@@ -9,6 +10,8 @@ import java.util.Optional; // Import Optional
 public interface WishlistItemRepository extends JpaRepository<WishlistItem, Long> {
 
     // Find all wishlist items for a specific user, ordered by when they were added
+    // (course and tutor are fetched in the same query for mapping)
+    @EntityGraph(attributePaths = { "course", "course.tutor" })
     List<WishlistItem> findByUserIdOrderByAddedAtDesc(Long userId);
 
     // Find a specific wishlist item by user and course
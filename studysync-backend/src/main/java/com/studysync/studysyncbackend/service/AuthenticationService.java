@@ -3,6 +3,7 @@ package com.studysync.studysyncbackend.service;
 import com.studysync.studysyncbackend.dto.AuthenticationRequest;
 import com.studysync.studysyncbackend.dto.AuthenticationResponse;
 import com.studysync.studysyncbackend.dto.RegisterRequest;
+import com.studysync.studysyncbackend.event.UserLoggedInEvent;
 import com.studysync.studysyncbackend.model.Role;
 import com.studysync.studysyncbackend.model.User;
 import com.studysync.studysyncbackend.repository.UserRepository;
@@ -21,7 +22,7 @@ public class AuthenticationService {
         private final PasswordEncoder passwordEncoder;
         private final JwtService jwtService;
         private final AuthenticationManager authenticationManager;
-        private final UserActivityService userActivityService;
+        private final DomainEventBus domainEventBus;
 
         public AuthenticationResponse register(RegisterRequest request) {
                 if (userRepository.findByEmail(request.getEmail()).isPresent()) {
@@ -37,7 +38,7 @@ public class AuthenticationService {
                                 .build();
 
                 userRepository.save(user);
-                userActivityService.logActivity(user.getId()); // Log initial activity
+                domainEventBus.publish(new UserLoggedInEvent(user.getId())); // Counts as the first login
 
                 var jwtToken = jwtService.generateToken(user);
 
@@ -59,7 +60,7 @@ public class AuthenticationService {
                                 .orElseThrow(() -> new UsernameNotFoundException(
                                                 "User not found after authentication"));
 
-                userActivityService.logActivity(user.getId()); // Log daily login
+                domainEventBus.publish(new UserLoggedInEvent(user.getId()));
 
                 var jwtToken = jwtService.generateToken(user);
 
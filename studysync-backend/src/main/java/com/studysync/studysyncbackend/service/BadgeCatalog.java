@@ -0,0 +1,149 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.model.Badge;
+import com.studysync.studysyncbackend.model.BadgeRule;
+import com.studysync.studysyncbackend.repository.BadgeRepository;
+import com.studysync.studysyncbackend.repository.EarnedBadgeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Badge definitions and who has earned them, kept in memory.
+ * <p>
+ * Definitions are loaded from the database once the application is ready and
+ * reloaded periodically. A user's earned badges are loaded once, on first use, into a
+ * {@link BitSet} indexed by badge id; after that "already earned?" is a bit test.
+ * Users idle for a while are evicted, and loaded again on their next use.
+ */
+@Component
+@Slf4j
+public class BadgeCatalog {
+
+    private final BadgeRepository badgeRepository;
+    private final EarnedBadgeRepository earnedBadgeRepository;
+
+    private volatile Map<String, Badge> badgesByCode = Collections.emptyMap();
+    // Rule-based badges per rule, lowest threshold first
+    private volatile Map<BadgeRule, List<Badge>> badgesByRule = Collections.emptyMap();
+    private final Cache<Long, BitSet> earnedByUser;
+
+    public BadgeCatalog(BadgeRepository badgeRepository,
+            EarnedBadgeRepository earnedBadgeRepository,
+            @Value("${gamification.badges.earned-cache.max-users:100000}") long maxUsers,
+            @Value("${gamification.badges.earned-cache.idle-ttl:30m}") Duration idleTtl) {
+        this.badgeRepository = badgeRepository;
+        this.earnedBadgeRepository = earnedBadgeRepository;
+        this.earnedByUser = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleTtl)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${gamification.badges.reload-interval-ms:600000}",
+            fixedDelayString = "${gamification.badges.reload-interval-ms:600000}")
+    public void reload() {
+        Map<String, Badge> byCode = new HashMap<>();
+        Map<BadgeRule, List<Badge>> byRule = new EnumMap<>(BadgeRule.class);
+        for (Badge badge : badgeRepository.findAll()) {
+            byCode.put(badge.getBadgeCode(), badge);
+            if (badge.getRule() != null && badge.getThreshold() != null) {
+                byRule.computeIfAbsent(badge.getRule(), rule -> new ArrayList<>()).add(badge);
+            }
+        }
+        byRule.values().forEach(badges -> badges.sort(Comparator.comparing(Badge::getThreshold)));
+        badgesByCode = byCode;
+        badgesByRule = byRule;
+        log.debug("Badge catalog loaded with {} badges", byCode.size());
+    }
+
+    /**
+     * The badge with this code. A code not in the catalog yet is looked up in the
+     * database, and reloads the catalog if found.
+     */
+    public Optional<Badge> find(String badgeCode) {
+        Badge badge = badgesByCode.get(badgeCode);
+        if (badge != null) {
+            return Optional.of(badge);
+        }
+        Optional<Badge> stored = badgeRepository.findByBadgeCode(badgeCode);
+        stored.ifPresent(found -> reload());
+        return stored;
+    }
+
+    /**
+     * True if any badge is awarded by the rule.
+     */
+    public boolean hasRule(BadgeRule rule) {
+        return badgesByRule.containsKey(rule);
+    }
+
+    /**
+     * The rule's badges the user has not earned yet, lowest threshold first. Does not
+     * touch the database unless the rule has badges and the user's are not loaded yet.
+     */
+    public List<Badge> unearned(Long userId, BadgeRule rule) {
+        List<Badge> badges = badgesByRule.getOrDefault(rule, Collections.emptyList());
+        if (badges.isEmpty()) {
+            return badges;
+        }
+        BitSet earned = earned(userId);
+        List<Badge> unearned = new ArrayList<>(badges.size());
+        synchronized (earned) {
+            for (Badge badge : badges) {
+                if (!earned.get(badge.getId().intValue())) {
+                    unearned.add(badge);
+                }
+            }
+        }
+        return unearned;
+    }
+
+    public boolean hasEarned(Long userId, Badge badge) {
+        BitSet earned = earned(userId);
+        synchronized (earned) {
+            return earned.get(badge.getId().intValue());
+        }
+    }
+
+    /**
+     * Records an award that has been committed to the database.
+     */
+    public void markEarned(Long userId, Badge badge) {
+        BitSet earned = earned(userId);
+        synchronized (earned) {
+            earned.set(badge.getId().intValue());
+        }
+    }
+
+    // Loaded outside the cache's compute so the query does not block other users' entries
+    private BitSet earned(Long userId) {
+        BitSet earned = earnedByUser.getIfPresent(userId);
+        if (earned != null) {
+            return earned;
+        }
+        BitSet loaded = new BitSet();
+        for (Long badgeId : earnedBadgeRepository.findBadgeIdsByUserId(userId)) {
+            loaded.set(badgeId.intValue());
+        }
+        BitSet raced = earnedByUser.asMap().putIfAbsent(userId, loaded);
+        return raced != null ? raced : loaded;
+    }
+}
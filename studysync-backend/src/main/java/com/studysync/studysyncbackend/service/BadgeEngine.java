@@ -0,0 +1,112 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.event.DiscussionPostedEvent;
+import com.studysync.studysyncbackend.event.DiscussionsUpvotedEvent;
+import com.studysync.studysyncbackend.event.DomainEvent;
+import com.studysync.studysyncbackend.event.DomainEventConsumer;
+import com.studysync.studysyncbackend.event.ProgressUpdatedEvent;
+import com.studysync.studysyncbackend.event.StreakUpdatedEvent;
+import com.studysync.studysyncbackend.model.Badge;
+import com.studysync.studysyncbackend.model.BadgeRule;
+import com.studysync.studysyncbackend.repository.DiscussionRepository;
+import com.studysync.studysyncbackend.repository.EnrollmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Awards rule-based badges (see {@link BadgeRule}) as domain events come in.
+ * <p>
+ * An event only evaluates the one rule it can move, and only while the user still has
+ * badges of that rule to earn according to {@link BadgeCatalog}; the count behind the
+ * rule is read from the database only then.
+ * <p>
+ * Course completions and new posts come from requests, so they are consumed through
+ * {@link DomainEventBus}, off the request thread and with retry; streak and upvote
+ * events come from write-behind flushes and are plain listeners. Either way the
+ * evaluation runs after the publishing transaction commits, in a transaction of its
+ * own, and awarding an earned badge again is a no-op.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BadgeEngine implements DomainEventConsumer {
+
+    private final BadgeCatalog badgeCatalog;
+    private final GamificationService gamificationService;
+    private final EnrollmentRepository enrollmentRepository;
+    private final DiscussionRepository discussionRepository;
+
+    @Override
+    public String name() {
+        return "badges";
+    }
+
+    @Override
+    public boolean accepts(DomainEvent event) {
+        return switch (event) {
+            case ProgressUpdatedEvent progress -> progress.completed() && badgeCatalog.hasRule(BadgeRule.COURSES_COMPLETED);
+            case DiscussionPostedEvent posted -> badgeCatalog.hasRule(BadgeRule.DISCUSSIONS_POSTED);
+            default -> false;
+        };
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void consume(DomainEvent event) {
+        switch (event) {
+            case ProgressUpdatedEvent progress -> onProgressUpdated(progress);
+            case DiscussionPostedEvent posted -> onDiscussionPosted(posted);
+            default -> throw new IllegalArgumentException("Unexpected event: " + event);
+        }
+    }
+
+    void onProgressUpdated(ProgressUpdatedEvent event) {
+        if (event.completed()) {
+            evaluate(event.userId(), BadgeRule.COURSES_COMPLETED,
+                    () -> enrollmentRepository.countByUserIdAndProgressGreaterThanEqual(event.userId(), 100));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onStreakUpdated(StreakUpdatedEvent event) {
+        evaluate(event.userId(), BadgeRule.LOGIN_STREAK, event::streak);
+    }
+
+    void onDiscussionPosted(DiscussionPostedEvent event) {
+        evaluate(event.userId(), BadgeRule.DISCUSSIONS_POSTED, () -> discussionRepository.countByUserId(event.userId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onDiscussionsUpvoted(DiscussionsUpvotedEvent event) {
+        if (!badgeCatalog.hasRule(BadgeRule.UPVOTES_RECEIVED) || event.upvotes().isEmpty()) {
+            return;
+        }
+        // One query for every author touched by the flush
+        for (DiscussionRepository.AuthorUpvotesRow row : discussionRepository.sumUpvotesOfAuthors(event.upvotes().keySet())) {
+            evaluate(row.getUserId(), BadgeRule.UPVOTES_RECEIVED, row::getUpvotes);
+        }
+    }
+
+    private void evaluate(Long userId, BadgeRule rule, LongSupplier count) {
+        List<Badge> candidates = badgeCatalog.unearned(userId, rule);
+        if (candidates.isEmpty()) {
+            return;
+        }
+        long value = count.getAsLong();
+        for (Badge badge : candidates) {
+            if (value < badge.getThreshold()) {
+                break; // Sorted by threshold
+            }
+            gamificationService.awardBadge(userId, badge.getBadgeCode());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.studysync.studysyncbackend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Where uploaded files live. Keys are flat file names such as
+ * "{sha256}.{extension}"; see {@link #isValidKey}.
+ * <p>
+ * {@link LocalBlobStore} keeps them in the upload directory of this node, which
+ * serves them itself. {@link S3BlobStore} keeps them in an S3-compatible bucket
+ * shared by all nodes, which hand clients short-lived signed URLs instead of
+ * proxying the bytes.
+ */
+public interface BlobStore {
+
+    /**
+     * Metadata of a stored object.
+     *
+     * @param lastModified Epoch millis.
+     */
+    record BlobStat(long size, long lastModified, String contentType) {
+    }
+
+    /**
+     * Stores the content of a local file under the key, replacing any object with that
+     * key. The source file is consumed: it is moved or deleted once stored.
+     */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    /**
+     * Stores the object's content under a second key.
+     */
+    void copy(String sourceKey, String targetKey) throws IOException;
+
+    /**
+     * @throws java.nio.file.NoSuchFileException if there is no such object.
+     */
+    InputStream get(String key) throws IOException;
+
+    /**
+     * {@code length} bytes of the object from byte {@code start}.
+     *
+     * @throws java.nio.file.NoSuchFileException if there is no such object.
+     */
+    InputStream getRange(String key, long start, long length) throws IOException;
+
+    /**
+     * @return empty if there is no such object or the key is not valid.
+     */
+    Optional<BlobStat> stat(String key) throws IOException;
+
+    /**
+     * Deletes the object if it exists.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * The object as a file on this node, for serving with sendfile; empty for remote stores.
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * A URL clients can fetch the object from directly, or empty if this node serves
+     * it.
+     *
+     * @param contentDisposition Content-Disposition the URL's response should carry, or null.
+     */
+    default Optional<URI> signedUrl(String key, String contentDisposition) {
+        return Optional.empty();
+    }
+
+    /**
+     * A key is one non-hidden file name: no separators, not starting with a dot.
+     */
+    static boolean isValidKey(String key) {
+        return key != null && !key.isEmpty() && !key.startsWith(".")
+                && key.indexOf('/') < 0 && key.indexOf('\\') < 0 && key.indexOf('\0') < 0;
+    }
+
+    static String checkKey(String key) {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,173 @@
+package com.studysync.studysyncbackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.studysync.studysyncbackend.config.ChatBrokerProperties;
+import com.studysync.studysyncbackend.dto.ChatMessageDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broadcasts chat room messages to '/topic/public/{roomId}'.
+ * <p>
+ * With batching off every message is its own frame. With batching on
+ * ({@code chat.broker.batching.enabled}) every frame carries an array of messages:
+ * a room's messages are collected over a short window and sent together, which cuts
+ * the number of frames (and socket writes) per subscriber in busy rooms. The window
+ * adapts to the room's traffic: it aims for about {@code target-size} messages per
+ * frame, stays between {@code min-window-ms} and {@code max-window-ms}, and a quiet
+ * room, whose next message is not expected within the maximum window, sends
+ * immediately.
+ * <p>
+ * Frames leave in sequence order only if {@link #publish} is called in sequence
+ * order, which {@link ChatHistoryService#append(String, ChatMessageDto,
+ * com.studysync.studysyncbackend.model.ChatMessageType, java.util.function.Consumer)}
+ * guarantees by publishing under its room lock. Rooms idle for {@value #ROOM_IDLE_MINUTES}
+ * minutes are forgotten, together with their traffic estimate.
+ */
+@Service
+@Slf4j
+public class ChatBroadcaster {
+
+    public static final String ROOM_TOPIC = "/topic/public/";
+    // Weight of the latest gap in the moving average of a room's message gaps
+    private static final double GAP_SMOOTHING = 0.2;
+    static final long ROOM_IDLE_MINUTES = 10;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatBrokerProperties.Batching batching;
+    private final ScheduledExecutorService scheduler;
+    private final DistributionSummary batchSize;
+    private final Cache<String, RoomBatch> rooms = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(ROOM_IDLE_MINUTES))
+            .build();
+
+    @Autowired
+    public ChatBroadcaster(SimpMessagingTemplate messagingTemplate,
+            ChatBrokerProperties brokerProperties,
+            MeterRegistry meterRegistry) {
+        this(messagingTemplate, brokerProperties, meterRegistry, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-batch-flush");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    ChatBroadcaster(SimpMessagingTemplate messagingTemplate,
+            ChatBrokerProperties brokerProperties,
+            MeterRegistry meterRegistry,
+            ScheduledExecutorService scheduler) {
+        this.messagingTemplate = messagingTemplate;
+        this.batching = brokerProperties.getBatching();
+        if (batching.getMinWindowMs() < 1 || batching.getMaxWindowMs() < batching.getMinWindowMs()) {
+            throw new IllegalArgumentException("chat.broker.batching windows must satisfy 1 <= min-window-ms <= max-window-ms.");
+        }
+        this.scheduler = scheduler;
+        this.batchSize = DistributionSummary.builder("chat.broadcast.batch.size")
+                .description("Chat messages per broadcast frame")
+                .register(meterRegistry);
+    }
+
+    // Messages waiting for the room's window to close; guarded by the instance's monitor
+    private static final class RoomBatch {
+        private List<ChatMessageDto> pending = new ArrayList<>();
+        private long lastArrivalNanos;
+        private double averageGapNanos = Double.MAX_VALUE;
+    }
+
+    /**
+     * Sends the message to the room's subscribers, now or with the room's next batch.
+     */
+    public void publish(String roomId, ChatMessageDto message) {
+        if (!batching.isEnabled()) {
+            messagingTemplate.convertAndSend(ROOM_TOPIC + roomId, message);
+            batchSize.record(1);
+            return;
+        }
+
+        RoomBatch room = rooms.get(roomId, id -> new RoomBatch());
+        // Batching and sending under the room lock keep the frames in publish order; the send only hands off to the broker
+        synchronized (room) {
+            long now = System.nanoTime();
+            if (room.lastArrivalNanos != 0) {
+                double gap = now - room.lastArrivalNanos;
+                room.averageGapNanos = room.averageGapNanos == Double.MAX_VALUE
+                        ? gap
+                        : GAP_SMOOTHING * gap + (1 - GAP_SMOOTHING) * room.averageGapNanos;
+            }
+            room.lastArrivalNanos = now;
+
+            boolean idle = room.pending.isEmpty();
+            room.pending.add(message);
+            if (!idle) {
+                return; // Already scheduled
+            }
+            long windowMs = windowMs(room.averageGapNanos);
+            if (windowMs == 0) {
+                send(roomId, room);
+            } else {
+                // Holds on to the batch itself, which may be evicted from rooms before the window closes
+                scheduler.schedule(() -> flush(roomId, room), windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Sends whatever the room has collected.
+     */
+    void flush(String roomId) {
+        RoomBatch room = rooms.getIfPresent(roomId);
+        if (room != null) {
+            flush(roomId, room);
+        }
+    }
+
+    private void flush(String roomId, RoomBatch room) {
+        synchronized (room) {
+            send(roomId, room);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        rooms.asMap().forEach(this::flush);
+    }
+
+    // 0 for a quiet room, otherwise long enough to collect about target-size messages
+    long windowMs(double averageGapNanos) {
+        double gapMs = averageGapNanos / 1_000_000d;
+        if (gapMs >= batching.getMaxWindowMs()) {
+            return 0;
+        }
+        long window = Math.round(gapMs * batching.getTargetSize());
+        return Math.max(batching.getMinWindowMs(), Math.min(batching.getMaxWindowMs(), window));
+    }
+
+    private void send(String roomId, RoomBatch room) {
+        if (room.pending.isEmpty()) {
+            return;
+        }
+        List<ChatMessageDto> frame = room.pending;
+        room.pending = new ArrayList<>();
+        try {
+            messagingTemplate.convertAndSend(ROOM_TOPIC + roomId, frame);
+            batchSize.record(frame.size());
+        } catch (RuntimeException ex) {
+            // The messages are in the room history, so clients still get them on catch-up
+            log.warn("Could not broadcast {} messages to room {}", frame.size(), roomId, ex);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.studysync.studysyncbackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.studysync.studysyncbackend.config.ChatBrokerProperties;
+import com.studysync.studysyncbackend.dto.ChatMessageDto;
+import com.studysync.studysyncbackend.model.ChatMessage;
+import com.studysync.studysyncbackend.model.ChatMessageType;
+import com.studysync.studysyncbackend.repository.ChatMessageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Chat history per room.
+ * <p>
+ * Every message gets a server timestamp and the room's next sequence number, lands
+ * in a fixed-size ring buffer of the room's latest messages and is queued for an
+ * append-only batch insert. Recent history and reconnect catch-up ("since seq X")
+ * are answered from the ring; older history falls back to the database.
+ * <p>
+ * Rings are cached for at most {@code chat.history.max-rooms} rooms and dropped after
+ * {@code chat.history.room-idle-ttl} without use; a dropped room is reloaded from the
+ * database (plus its not yet flushed messages) on next use. A room's next seq is kept
+ * apart from its ring and never dropped, so a reload cannot hand out a seq again.
+ * Reading a room that has no messages does not create it.
+ * <p>
+ * With the in-memory broker a room lives on one node, so sequence numbers come from
+ * the ring. With the broker relay ({@code chat.broker.mode=relay}) any node may send
+ * to any room: every seq is then allocated from the room's row in chat_room_sequences,
+ * so seqs stay unique and increasing across nodes, and history is read from the
+ * database because one node's ring misses the other nodes' messages. Relay-mode
+ * history lags sends by up to one flush interval.
+ */
+@Service
+@Slf4j
+public class ChatHistoryService {
+
+    public static final int MAX_HISTORY_PAGE = 500;
+    public static final int MAX_ROOM_ID_LENGTH = 100;
+    public static final int MAX_SENDER_LENGTH = 100;
+    public static final int MAX_CONTENT_LENGTH = 2000;
+
+    // Seqs are never reused, so IGNORE only skips rows a failed batch had already written
+    private static final String INSERT_MESSAGE =
+            "INSERT IGNORE INTO chat_messages (room_id, seq, type, sender, content, sent_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int JDBC_BATCH_SIZE = 500;
+    // One statement allocates the next seq (or seeds the row), LAST_INSERT_ID() returns it on this connection
+    private static final String ALLOCATE_SEQ =
+            "INSERT INTO chat_room_sequences (room_id, last_seq) VALUES (?, LAST_INSERT_ID(?)) "
+                    + "ON DUPLICATE KEY UPDATE last_seq = LAST_INSERT_ID(GREATEST(last_seq + 1, ?))";
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int bufferSize;
+    private final boolean sharedSequence;
+
+    private final Cache<String, RoomHistory> rooms;
+    // Never evicted: one entry per room with messages seen by this node. Also the room's lock
+    private final Map<String, RoomSequence> sequences = new ConcurrentHashMap<>();
+    private final Queue<PendingMessage> unflushed = new ConcurrentLinkedQueue<>();
+    // The batch being written by flush(): neither queued nor in the database yet
+    private volatile List<PendingMessage> flushing = List.of();
+
+    public ChatHistoryService(ChatMessageRepository chatMessageRepository,
+            JdbcTemplate jdbcTemplate,
+            ChatBrokerProperties brokerProperties,
+            @Value("${chat.history.buffer-size:200}") int bufferSize,
+            @Value("${chat.history.max-rooms:10000}") long maxRooms,
+            @Value("${chat.history.room-idle-ttl:30m}") Duration roomIdleTtl) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("chat.history.buffer-size must be at least 1.");
+        }
+        this.chatMessageRepository = chatMessageRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bufferSize = bufferSize;
+        this.sharedSequence = brokerProperties.getMode() == ChatBrokerProperties.Mode.RELAY;
+        this.rooms = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterAccess(roomIdleTtl)
+                .build();
+    }
+
+    private record PendingMessage(String roomId, ChatMessageDto message) {
+    }
+
+    // A room's next seq, 0 until seeded from the room's first load; guarded by the instance's monitor
+    private static final class RoomSequence {
+        private long nextSeq;
+    }
+
+    /**
+     * Stamps the message with the server time and the room's next sequence number,
+     * and records it. Returns the stamped copy.
+     */
+    public ChatMessageDto append(String roomId, ChatMessageDto message, ChatMessageType type) {
+        return append(roomId, message, type, stamped -> {
+        });
+    }
+
+    /**
+     * Like {@link #append(String, ChatMessageDto, ChatMessageType)}, and hands the stamped
+     * copy to {@code publisher} while still holding the room lock, so a room's messages
+     * reach the publisher in sequence order.
+     */
+    public ChatMessageDto append(String roomId, ChatMessageDto message, ChatMessageType type,
+            Consumer<ChatMessageDto> publisher) {
+        // Rejected up front so that a bad row can never wedge the write-behind queue
+        if (roomId.length() > MAX_ROOM_ID_LENGTH) {
+            throw new IllegalArgumentException("Room id cannot exceed " + MAX_ROOM_ID_LENGTH + " characters.");
+        }
+        if (message.getSender() != null && message.getSender().length() > MAX_SENDER_LENGTH) {
+            throw new IllegalArgumentException("Sender cannot exceed " + MAX_SENDER_LENGTH + " characters.");
+        }
+        if (message.getContent() != null && message.getContent().length() > MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("Message cannot exceed " + MAX_CONTENT_LENGTH + " characters.");
+        }
+        RoomSequence sequence = sequences.computeIfAbsent(roomId, id -> new RoomSequence());
+        ChatMessageDto stamped;
+        // Sequence order, ring order, queue order and publish order must agree, so all happen under the room lock
+        synchronized (sequence) {
+            RoomHistory room = room(roomId, sequence);
+            long seq = sharedSequence ? allocateSeq(roomId, sequence.nextSeq) : sequence.nextSeq;
+            sequence.nextSeq = seq + 1;
+            stamped = message.toBuilder()
+                    .type(type)
+                    .seq(seq)
+                    .timestamp(LocalDateTime.now())
+                    .build();
+            room.add(stamped);
+            unflushed.add(new PendingMessage(roomId, stamped));
+            publisher.accept(stamped);
+        }
+        return stamped;
+    }
+
+    /**
+     * The room's latest messages, oldest first.
+     */
+    public List<ChatMessageDto> recent(String roomId) {
+        if (sharedSequence) {
+            List<ChatMessageDto> latest = new ArrayList<>();
+            for (ChatMessage row : chatMessageRepository.findByRoomIdOrderBySeqDesc(roomId, Limit.of(bufferSize))) {
+                latest.add(0, toDto(row));
+            }
+            return latest;
+        }
+        return buffered(roomId);
+    }
+
+    /**
+     * Messages with a sequence number greater than {@code afterSeq}, oldest first.
+     */
+    public List<ChatMessageDto> since(String roomId, long afterSeq, int limit) {
+        int max = Math.min(Math.max(limit, 1), MAX_HISTORY_PAGE);
+        if (sharedSequence) {
+            return chatMessageRepository.findByRoomIdAndSeqGreaterThanOrderBySeqAsc(roomId, afterSeq, Limit.of(max))
+                    .stream().map(ChatHistoryService::toDto).toList();
+        }
+        List<ChatMessageDto> buffered = buffered(roomId);
+        if (buffered.isEmpty() || afterSeq + 1 >= buffered.get(0).getSeq()) {
+            return buffered.stream().filter(m -> m.getSeq() > afterSeq).limit(max).toList();
+        }
+
+        // The client is further behind than the ring reaches: read the older part from the database
+        List<ChatMessageDto> result = new ArrayList<>();
+        for (ChatMessage row : chatMessageRepository.findByRoomIdAndSeqGreaterThanOrderBySeqAsc(
+                roomId, afterSeq, Limit.of(max))) {
+            result.add(toDto(row));
+        }
+        long last = result.isEmpty() ? afterSeq : result.get(result.size() - 1).getSeq();
+        for (ChatMessageDto message : buffered) {
+            if (result.size() >= max) {
+                break;
+            }
+            if (message.getSeq() > last) {
+                result.add(message);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Appends queued messages to the database in batches. Runs on a fixed delay and once
+     * more on shutdown; a failed batch is retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${chat.history.flush-interval-ms:500}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<PendingMessage> batch = new ArrayList<>(unflushed);
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Published before the messages leave the queue, so a room load always finds them in one of the two
+        flushing = batch;
+        for (int i = 0; i < batch.size(); i++) {
+            unflushed.poll(); // The queue's head is the batch: only flush() takes from it
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_MESSAGE, batch, JDBC_BATCH_SIZE, (ps, pending) -> {
+                ChatMessageDto message = pending.message();
+                ps.setString(1, pending.roomId());
+                ps.setLong(2, message.getSeq());
+                ps.setString(3, message.getType().name());
+                ps.setString(4, message.getSender());
+                ps.setString(5, message.getContent());
+                ps.setTimestamp(6, Timestamp.valueOf(message.getTimestamp()));
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Could not persist {} chat messages, will retry", batch.size(), ex);
+            unflushed.addAll(batch);
+        } finally {
+            flushing = List.of();
+        }
+    }
+
+    /*
+     * Takes the room's next seq from chat_room_sequences. floor is the lowest seq this
+     * node may hand out (one past the highest it has seen), which also seeds the row
+     * for rooms that had messages before the row existed.
+     */
+    private long allocateSeq(String roomId, long floor) {
+        Long seq = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (PreparedStatement allocate = connection.prepareStatement(ALLOCATE_SEQ)) {
+                allocate.setString(1, roomId);
+                allocate.setLong(2, floor);
+                allocate.setLong(3, floor);
+                allocate.executeUpdate();
+            }
+            try (PreparedStatement select = connection.prepareStatement("SELECT LAST_INSERT_ID()");
+                    ResultSet rs = select.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        });
+        if (seq == null || seq < floor) {
+            throw new IllegalStateException("Could not allocate a message sequence for room " + roomId + ".");
+        }
+        return seq;
+    }
+
+    /*
+     * The room's ring, oldest first. A room that is not cached and has no messages is
+     * not created, so reading arbitrary room ids does not fill the caches.
+     */
+    private List<ChatMessageDto> buffered(String roomId) {
+        RoomSequence sequence = sequences.get(roomId);
+        if (sequence == null) {
+            if (load(roomId).size == 0) {
+                return List.of();
+            }
+            sequence = sequences.computeIfAbsent(roomId, id -> new RoomSequence());
+        }
+        synchronized (sequence) {
+            return room(roomId, sequence).snapshot();
+        }
+    }
+
+    /*
+     * The cached room, or one loaded from the database and its unflushed messages. The
+     * caller holds the room lock, so no message of the room is appended during a load and
+     * two loads of a room never race; other rooms are not blocked by a slow query.
+     */
+    private RoomHistory room(String roomId, RoomSequence sequence) {
+        RoomHistory room = rooms.getIfPresent(roomId);
+        if (room == null) {
+            room = load(roomId);
+            rooms.put(roomId, room);
+        }
+        if (sequence.nextSeq == 0) {
+            sequence.nextSeq = room.lastSeq() + 1;
+        }
+        return room;
+    }
+
+    // Reads against the direction messages move (queue, batch being written, table) so none is missed
+    private RoomHistory load(String roomId) {
+        NavigableMap<Long, ChatMessageDto> messages = new TreeMap<>();
+        for (PendingMessage pending : unflushed) {
+            if (pending.roomId().equals(roomId)) {
+                messages.put(pending.message().getSeq(), pending.message());
+            }
+        }
+        for (PendingMessage pending : flushing) {
+            if (pending.roomId().equals(roomId)) {
+                messages.put(pending.message().getSeq(), pending.message());
+            }
+        }
+        for (ChatMessage row : chatMessageRepository.findByRoomIdOrderBySeqDesc(roomId, Limit.of(bufferSize))) {
+            messages.putIfAbsent(row.getSeq(), toDto(row));
+        }
+        RoomHistory loaded = new RoomHistory(bufferSize);
+        messages.values().forEach(loaded::add); // The ring keeps the latest
+        return loaded;
+    }
+
+    private static ChatMessageDto toDto(ChatMessage row) {
+        return ChatMessageDto.builder()
+                .content(row.getContent())
+                .sender(row.getSender())
+                .type(row.getType())
+                .seq(row.getSeq())
+                .timestamp(row.getSentAt())
+                .build();
+    }
+
+    // Fixed-capacity ring of a room's latest messages; guarded by the instance's monitor
+    private static final class RoomHistory {
+        private final ChatMessageDto[] ring;
+        private int start;
+        private int size;
+
+        RoomHistory(int capacity) {
+            this.ring = new ChatMessageDto[capacity];
+        }
+
+        void add(ChatMessageDto message) {
+            ring[(start + size) % ring.length] = message;
+            if (size < ring.length) {
+                size++;
+            } else {
+                start = (start + 1) % ring.length;
+            }
+        }
+
+        long lastSeq() {
+            return size == 0 ? 0 : ring[(start + size - 1) % ring.length].getSeq();
+        }
+
+        List<ChatMessageDto> snapshot() {
+            List<ChatMessageDto> messages = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                messages.add(ring[(start + i) % ring.length]);
+            }
+            return messages;
+        }
+    }
+}
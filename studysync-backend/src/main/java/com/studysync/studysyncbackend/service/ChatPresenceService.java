@@ -0,0 +1,174 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.dto.ChatMessageDto;
+import com.studysync.studysyncbackend.dto.PresenceEventDto;
+import com.studysync.studysyncbackend.dto.RoomPresenceDto;
+import com.studysync.studysyncbackend.model.ChatMessageType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who is online in each chat room, keyed by WebSocket session.
+ * <p>
+ * A user counts once per room however many sessions (tabs) they have open. Changes
+ * are broadcast to '/topic/presence/{roomId}' as single JOIN/LEAVE deltas carrying
+ * the new online count and a per-room version; clients load the full snapshot once
+ * and reload it only if they see a gap in the versions. Presence is kept per node.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatPresenceService {
+
+    public static final String PRESENCE_TOPIC = "/topic/presence/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatHistoryService chatHistoryService;
+    private final ChatBroadcaster chatBroadcaster;
+
+    private final Map<String, RoomPresence> rooms = new ConcurrentHashMap<>();
+    // sessionId -> rooms it joined, so a disconnect does not scan every room
+    private final Map<String, Set<String>> sessionRooms = new ConcurrentHashMap<>();
+
+    // A room's sessions and per-user session counts; guarded by the instance's monitor
+    private static final class RoomPresence {
+        private final Map<String, String> sessions = new HashMap<>();
+        private final Map<String, Integer> users = new LinkedHashMap<>();
+        private long version;
+        // Set once the room is unlinked from the map; joiners holding it must start over
+        private boolean closed;
+    }
+
+    /**
+     * Registers the session in the room. Broadcasts a JOIN delta if this is the user's
+     * first session there.
+     */
+    public void join(String roomId, String sessionId, String username) {
+        sessionRooms.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(roomId);
+        while (true) {
+            RoomPresence room = rooms.computeIfAbsent(roomId, id -> new RoomPresence());
+            synchronized (room) {
+                if (room.closed) {
+                    continue;
+                }
+                String previous = room.sessions.put(sessionId, username);
+                if (username.equals(previous)) {
+                    return;
+                }
+                if (previous != null) {
+                    removeUser(roomId, room, previous);
+                }
+                if (room.users.merge(username, 1, Integer::sum) == 1) {
+                    publish(roomId, room, ChatMessageType.JOIN, username);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes the session from every room it joined. Broadcasts a LEAVE delta, and
+     * records a LEAVE chat message, for each room where it was the user's last session.
+     */
+    public void leave(String sessionId) {
+        Set<String> joined = sessionRooms.remove(sessionId);
+        if (joined == null) {
+            return;
+        }
+        for (String roomId : joined) {
+            RoomPresence room = rooms.get(roomId);
+            if (room == null) {
+                continue;
+            }
+            String username;
+            boolean wentOffline;
+            synchronized (room) {
+                username = room.sessions.remove(sessionId);
+                if (username == null) {
+                    continue;
+                }
+                wentOffline = removeUser(roomId, room, username);
+                if (room.sessions.isEmpty()) {
+                    room.closed = true;
+                    rooms.remove(roomId, room);
+                }
+            }
+            if (wentOffline) {
+                ChatMessageDto message = ChatMessageDto.builder().sender(username).build();
+                chatHistoryService.append(roomId, message, ChatMessageType.LEAVE, left -> chatBroadcaster.publish(roomId, left));
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        leave(event.getSessionId());
+    }
+
+    /**
+     * The room's online users in join order.
+     */
+    public RoomPresenceDto snapshot(String roomId) {
+        RoomPresence room = rooms.get(roomId);
+        if (room == null) {
+            return RoomPresenceDto.builder().roomId(roomId).users(List.of()).build();
+        }
+        synchronized (room) {
+            return RoomPresenceDto.builder()
+                    .roomId(roomId)
+                    .online(room.users.size())
+                    .users(new ArrayList<>(room.users.keySet()))
+                    .version(room.version)
+                    .build();
+        }
+    }
+
+    public int onlineCount(String roomId) {
+        RoomPresence room = rooms.get(roomId);
+        if (room == null) {
+            return 0;
+        }
+        synchronized (room) {
+            return room.users.size();
+        }
+    }
+
+    // Drops one of the user's sessions; true (and a LEAVE delta) when it was the last one
+    private boolean removeUser(String roomId, RoomPresence room, String username) {
+        if (room.users.merge(username, -1, Integer::sum) > 0) {
+            return false;
+        }
+        room.users.remove(username);
+        publish(roomId, room, ChatMessageType.LEAVE, username);
+        return true;
+    }
+
+    // Sent under the room lock so that deltas leave in version order
+    private void publish(String roomId, RoomPresence room, ChatMessageType type, String username) {
+        room.version++;
+        PresenceEventDto event = PresenceEventDto.builder()
+                .roomId(roomId)
+                .type(type)
+                .username(username)
+                .online(room.users.size())
+                .version(room.version)
+                .build();
+        try {
+            messagingTemplate.convertAndSend(PRESENCE_TOPIC + roomId, event);
+        } catch (RuntimeException ex) {
+            log.warn("Could not broadcast presence change in room {}", roomId, ex);
+        }
+    }
+}
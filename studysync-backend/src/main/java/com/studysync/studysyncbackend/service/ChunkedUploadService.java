@@ -0,0 +1,327 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.dto.UploadInitRequestDto;
+import com.studysync.studysyncbackend.dto.UploadSessionDto;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads for large files: init, then PUT chunks at byte offsets, then
+ * complete.
+ * <p>
+ * Each chunk is streamed from the request straight into its place in the target file
+ * with positional {@link FileChannel} writes, so nothing is spooled to a temp file or
+ * held in memory beyond a small copy buffer. Chunks may arrive in any order, in
+ * parallel or more than once; the service tracks which byte intervals have been
+ * written, so after a dropped connection the client asks for the status and sends
+ * only what is missing. Completing checks that every byte is there and that the
+ * SHA-256 matches the one declared at init, then moves the file into place.
+ * <p>
+ * Sessions are kept in memory on the node that created them and expire after
+ * {@code uploads.session-ttl} without activity. Their part files live in that node's
+ * incoming directory, so with several nodes every request of an upload must be routed
+ * to the node that answered its init (for example by a sticky route on the upload
+ * id); any other node answers 404. Only the completed file goes to the shared store.
+ */
+@Service
+@Slf4j
+public class ChunkedUploadService {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final FileStorageService fileStorageService;
+    private final Path incomingDir;
+    private final long maxFileSize;
+    private final long maxChunkSize;
+    private final Duration sessionTtl;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public ChunkedUploadService(FileStorageService fileStorageService,
+            @Value("${uploads.max-file-size:500MB}") DataSize maxFileSize,
+            @Value("${uploads.max-chunk-size:16MB}") DataSize maxChunkSize,
+            @Value("${uploads.session-ttl:24h}") Duration sessionTtl) {
+        this.fileStorageService = fileStorageService;
+        this.incomingDir = fileStorageService.getIncomingLocation();
+        this.maxFileSize = maxFileSize.toBytes();
+        this.maxChunkSize = maxChunkSize.toBytes();
+        this.sessionTtl = sessionTtl;
+    }
+
+    // One upload in progress; received, writers and closed are guarded by the instance's monitor
+    private static final class UploadSession {
+        private final String id;
+        private final Long userId;
+        private final String fileName;
+        private final String contentType;
+        private final long size;
+        private final String sha256;
+        private final Path partFile;
+        // start -> end (exclusive) of the written intervals, merged and non-overlapping
+        private final TreeMap<Long, Long> received = new TreeMap<>();
+        private long receivedBytes;
+        // Chunks being written right now; complete() may only close a session without any
+        private int writers;
+        private boolean closed;
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        private UploadSession(String id, Long userId, String fileName, String contentType, long size, String sha256,
+                Path partFile) {
+            this.id = id;
+            this.userId = userId;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.size = size;
+            this.sha256 = sha256;
+            this.partFile = partFile;
+        }
+
+        private void record(long start, long end) {
+            if (end <= start) {
+                return;
+            }
+            // Absorb every interval that overlaps or touches [start, end)
+            Map.Entry<Long, Long> before = received.floorEntry(start);
+            if (before != null && before.getValue() >= start) {
+                start = before.getKey();
+                end = Math.max(end, before.getValue());
+                receivedBytes -= before.getValue() - before.getKey();
+                received.remove(before.getKey());
+            }
+            for (Map.Entry<Long, Long> next; (next = received.ceilingEntry(start)) != null && next.getKey() <= end; ) {
+                end = Math.max(end, next.getValue());
+                receivedBytes -= next.getValue() - next.getKey();
+                received.remove(next.getKey());
+            }
+            received.put(start, end);
+            receivedBytes += end - start;
+        }
+    }
+
+    /**
+     * Starts an upload. The file type is checked against the same whitelist as
+     * single-request uploads.
+     */
+    public UploadSessionDto init(Long userId, UploadInitRequestDto request) {
+        String fileName = fileStorageService.validateFile(request.getFileName(), request.getContentType());
+        if (request.getSize() <= 0 || request.getSize() > maxFileSize) {
+            throw new IllegalArgumentException("File size must be between 1 byte and " + DataSize.ofBytes(maxFileSize).toMegabytes() + "MB.");
+        }
+        String id = UUID.randomUUID().toString();
+        Path partFile = incomingDir.resolve(id + ".part");
+        try {
+            Files.createFile(partFile);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not start upload of " + fileName, ex);
+        }
+        UploadSession session = new UploadSession(id, userId, fileName, request.getContentType(), request.getSize(),
+                request.getSha256().toLowerCase(), partFile);
+        sessions.put(id, session);
+        return toDto(session);
+    }
+
+    /**
+     * Writes the request body at the given offset of the file. Bytes written before a
+     * dropped connection still count as received.
+     */
+    public UploadSessionDto writeChunk(Long userId, String uploadId, long offset, InputStream body) throws IOException {
+        UploadSession session = session(userId, uploadId);
+        if (offset < 0 || offset >= session.size) {
+            throw new IllegalArgumentException("Offset must be between 0 and " + (session.size - 1) + ".");
+        }
+        long limit = Math.min(session.size - offset, maxChunkSize);
+        synchronized (session) {
+            // complete() may have closed the session since it was looked up
+            if (session.closed) {
+                throw new IllegalStateException("Upload is already being completed or was aborted.");
+            }
+            session.writers++;
+        }
+
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(session.partFile, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+            for (int read; (read = body.read(buffer, 0, (int) Math.min(buffer.length, limit - written + 1))) != -1; ) {
+                if (written + read > limit) {
+                    throw new IllegalArgumentException("Chunk exceeds the file size or the "
+                            + DataSize.ofBytes(maxChunkSize).toMegabytes() + "MB chunk limit.");
+                }
+                wrapped.clear().limit(read);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped, offset + written + wrapped.position());
+                }
+                written += read;
+            }
+        } finally {
+            synchronized (session) {
+                session.record(offset, offset + written);
+                session.writers--;
+            }
+            session.lastActivity = System.currentTimeMillis();
+        }
+        return toDto(session);
+    }
+
+    public UploadSessionDto status(Long userId, String uploadId) {
+        return toDto(session(userId, uploadId));
+    }
+
+    /**
+     * Verifies the upload and moves it into the content-addressed store.
+     *
+     * @return The stored file name, as returned by single-request uploads.
+     * @throws IllegalStateException if chunks are still being written, bytes are missing
+     *                               or the checksum does not match; after a mismatch the
+     *                               received ranges are reset.
+     */
+    public String complete(Long userId, String uploadId) throws IOException {
+        UploadSession session = session(userId, uploadId);
+        synchronized (session) {
+            // A chunk still in flight would write into the file after it was hashed (or moved)
+            if (session.writers > 0) {
+                throw new IllegalStateException("Chunks are still being written; complete the upload once they finish.");
+            }
+            if (session.receivedBytes != session.size) {
+                throw new IllegalStateException("Upload is missing " + (session.size - session.receivedBytes) + " bytes.");
+            }
+            session.closed = true;
+        }
+
+        String actual;
+        try (FileChannel channel = FileChannel.open(session.partFile, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            channel.force(false);
+            actual = sha256(channel);
+        } catch (IOException | RuntimeException ex) {
+            reopen(session, false);
+            throw ex;
+        }
+        if (!actual.equals(session.sha256)) {
+            reopen(session, true);
+            throw new IllegalStateException("Checksum mismatch: the file must be uploaded again.");
+        }
+
+        String storedName;
+        try {
+            storedName = fileStorageService.storeVerified(session.partFile, actual, session.fileName, session.contentType);
+        } catch (IOException ex) {
+            reopen(session, false);
+            throw ex;
+        }
+        sessions.remove(uploadId);
+        log.info("Completed chunked upload {} ({} bytes) as {}", uploadId, session.size, storedName);
+        return storedName;
+    }
+
+    public void abort(Long userId, String uploadId) {
+        UploadSession session = session(userId, uploadId);
+        synchronized (session) {
+            session.closed = true;
+        }
+        discard(session);
+    }
+
+    /**
+     * Drops sessions without activity for longer than the TTL, with their partial files.
+     */
+    @Scheduled(fixedDelayString = "${uploads.cleanup-interval-ms:600000}")
+    public void expireSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTtl.toMillis();
+        for (UploadSession session : sessions.values()) {
+            if (session.lastActivity < cutoff) {
+                log.info("Expiring abandoned upload {} of {}", session.id, session.fileName);
+                discard(session);
+            }
+        }
+    }
+
+    private UploadSession session(Long userId, String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new EntityNotFoundException("Upload not found with id: " + uploadId);
+        }
+        if (!session.userId.equals(userId)) {
+            throw new AccessDeniedException("This upload belongs to another user.");
+        }
+        synchronized (session) {
+            if (session.closed) {
+                throw new IllegalStateException("Upload is already being completed or was aborted.");
+            }
+        }
+        session.lastActivity = System.currentTimeMillis();
+        return session;
+    }
+
+    private void reopen(UploadSession session, boolean resetRanges) {
+        synchronized (session) {
+            if (resetRanges) {
+                session.received.clear();
+                session.receivedBytes = 0;
+            }
+            session.closed = false;
+        }
+    }
+
+    private void discard(UploadSession session) {
+        sessions.remove(session.id);
+        try {
+            Files.deleteIfExists(session.partFile);
+        } catch (IOException ex) {
+            log.warn("Could not delete partial upload {}", session.partFile, ex);
+        }
+    }
+
+    private static String sha256(FileChannel channel) throws IOException {
+        MessageDigest digest = FileStorageService.sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+        long position = 0;
+        for (int read; (read = channel.read(buffer, position)) != -1; ) {
+            position += read;
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private UploadSessionDto toDto(UploadSession session) {
+        synchronized (session) {
+            List<long[]> ranges = new ArrayList<>(session.received.size());
+            session.received.forEach((start, end) -> ranges.add(new long[] {start, end}));
+            Map.Entry<Long, Long> first = session.received.firstEntry();
+            long nextOffset = first == null || first.getKey() > 0 ? 0 : first.getValue();
+            return UploadSessionDto.builder()
+                    .uploadId(session.id)
+                    .fileName(session.fileName)
+                    .size(session.size)
+                    .maxChunkSize(maxChunkSize)
+                    .receivedBytes(session.receivedBytes)
+                    .nextOffset(nextOffset)
+                    .receivedRanges(ranges)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.studysync.studysyncbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studysync.studysyncbackend.dto.CourseSummaryDto;
+import com.studysync.studysyncbackend.dto.CourseSummaryPageDto;
+import com.studysync.studysyncbackend.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Serves the published catalog as lightweight summaries, either one keyset page
+ * at a time or streamed as NDJSON straight off the JDBC cursor.
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseCatalogService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Flush the response every this many streamed rows
+    private static final int STREAM_FLUSH_INTERVAL = 100;
+
+    private final CourseRepository courseRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Returns one page of the published catalog.
+     *
+     * @param sortBy One of "id" (newest first), "rating" or "views".
+     * @param cursor Opaque cursor from the previous page, or null for the first page.
+     * @param size   Requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     */
+    @Transactional(readOnly = true)
+    public CourseSummaryPageDto getCatalogPage(String sortBy, String cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        SortKey sortKey = SortKey.parse(sortBy);
+        String[] position = decodeCursor(cursor, sortKey);
+        // Fetch one extra row to know whether another page exists
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<CourseSummaryDto> rows;
+        try {
+            rows = switch (sortKey) {
+                case ID -> courseRepository.findSummariesAfterId(
+                        position == null ? Long.MAX_VALUE : Long.parseLong(position[0]), limit);
+                case RATING -> courseRepository.findSummariesAfterRating(
+                        position == null ? Double.MAX_VALUE : Double.parseDouble(position[0]),
+                        position == null ? Long.MAX_VALUE : Long.parseLong(position[1]), limit);
+                case VIEWS -> courseRepository.findSummariesAfterViews(
+                        position == null ? Long.MAX_VALUE : Long.parseLong(position[0]),
+                        position == null ? Long.MAX_VALUE : Long.parseLong(position[1]), limit);
+            };
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<CourseSummaryDto> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? encodeCursor(sortKey, items.get(items.size() - 1)) : null;
+        return CourseSummaryPageDto.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Writes every published course summary to the stream as newline-delimited JSON.
+     * Rows are serialized as they are read, so memory use does not grow with the catalog.
+     */
+    @Transactional(readOnly = true)
+    public void streamCatalog(OutputStream out) throws IOException {
+        try (Stream<CourseSummaryDto> rows = courseRepository.streamPublishedSummaries()) {
+            Iterator<CourseSummaryDto> iterator = rows.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+                if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        }
+    }
+
+    private static String encodeCursor(SortKey sortKey, CourseSummaryDto last) {
+        String raw = switch (sortKey) {
+            case ID -> String.valueOf(last.getId());
+            case RATING -> last.getAverageRating() + ":" + last.getId();
+            case VIEWS -> last.getViewCount() + ":" + last.getId();
+        };
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor, SortKey sortKey) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        if (parts.length != (sortKey == SortKey.ID ? 1 : 2)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order.");
+        }
+        return parts;
+    }
+
+    private enum SortKey {
+        ID, RATING, VIEWS;
+
+        static SortKey parse(String value) {
+            if (value == null || value.isBlank() || value.equals("id")) {
+                return ID;
+            }
+            return switch (value) {
+                case "rating" -> RATING;
+                case "views" -> VIEWS;
+                default -> throw new IllegalArgumentException("sortBy must be one of: id, rating, views.");
+            };
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.studysync.studysyncbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.studysync.studysyncbackend.dto.CourseResponseDto;
+import com.studysync.studysyncbackend.event.CourseChangedEvent;
+import com.studysync.studysyncbackend.event.UserProfileChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of course detail DTOs for GET /api/courses/{id}.
+ * <p>
+ * Bounded by the total serialized size of the cached DTOs and expired after a TTL.
+ * Entries are dropped as soon as a course or one of its modules changes, or its
+ * tutor edits their profile.
+ * Hit/miss/eviction counters are published as the "courseDetails" cache metrics
+ * (see /actuator/metrics/cache.gets).
+ */
+@Component
+@Slf4j
+public class CourseDetailsCache {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, CourseResponseDto> cache;
+
+    public CourseDetailsCache(ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${courses.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${courses.cache.ttl:10m}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long courseId, CourseResponseDto course) -> weigh(course))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "courseDetails");
+    }
+
+    /**
+     * Returns the cached course, loading it on a miss. Concurrent misses for the
+     * same course share a single load.
+     */
+    public CourseResponseDto get(Long courseId, Function<Long, CourseResponseDto> loader) {
+        return cache.get(courseId, loader);
+    }
+
+    public void invalidate(Long courseId) {
+        cache.invalidate(courseId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        invalidate(event.courseId());
+    }
+
+    /**
+     * Drops the courses of a tutor whose profile changed. Profile edits are rare, so the
+     * cached entries are scanned rather than indexed by tutor.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        cache.asMap().values().removeIf(course -> course.getTutor() != null
+                && event.userId().equals(course.getTutor().getId()));
+    }
+
+    private int weigh(CourseResponseDto course) {
+        try {
+            return objectMapper.writeValueAsBytes(course).length;
+        } catch (JsonProcessingException ex) {
+            log.warn("Could not weigh cached course {}", course.getId(), ex);
+            return Integer.MAX_VALUE; // Never worth keeping
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.studysync.studysyncbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studysync.studysyncbackend.dto.CourseResponseDto;
+import com.studysync.studysyncbackend.event.CourseChangedEvent;
+import com.studysync.studysyncbackend.event.UserProfileChangedEvent;
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-encoded copy of the public course feed (GET /api/courses).
+ * <p>
+ * Every published course is kept as its own JSON fragment. When a course changes,
+ * only that fragment is re-encoded; the feed array, its gzip encoding and a strong
+ * ETag are then reassembled once, so serving the feed is a plain byte copy.
+ * <p>
+ * Change events only reach the node that committed them, so the whole feed is also
+ * re-encoded on a fixed delay; other nodes pick up edits (and tutor profile changes)
+ * within that interval, and an unchanged catalog keeps its ETag.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseFeedSnapshot {
+
+    private final CourseService courseService;
+    private final CourseRepository courseRepository;
+    private final ObjectMapper objectMapper;
+
+    // courseId -> encoded CourseResponseDto, in feed order
+    private final NavigableMap<Long, byte[]> fragments = new ConcurrentSkipListMap<>();
+    // courseId -> tutor id of every course in the feed
+    private final Map<Long, Long> tutors = new ConcurrentHashMap<>();
+    private volatile Snapshot current;
+
+    /**
+     * An immutable encoded feed. The arrays must not be modified by callers.
+     *
+     * @param json The feed as a JSON array.
+     * @param gzip The same bytes, gzip-compressed.
+     * @param etag Strong entity tag of the JSON representation (quoted).
+     */
+    public record Snapshot(byte[] json, byte[] gzip, String etag) {
+
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+
+        /**
+         * True if an If-None-Match header value matches either representation.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.equals("*") || candidate.equals(etag) || candidate.equals(gzipEtag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * True if an Accept-Encoding header value allows gzip: listed (or matched by
+     * {@code *}) with a non-zero quality. {@code gzip;q=0} is a refusal.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = quality(parts);
+            } else if (name.equals("*")) {
+                wildcard = quality(parts);
+            }
+        }
+        Double q = gzip != null ? gzip : wildcard;
+        return q != null && q > 0;
+    }
+
+    // The q parameter of a coding, 1 if absent and 0 if malformed
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Returns the current feed, building it on first use.
+     */
+    public Snapshot get() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            rebuild();
+            snapshot = current;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Re-encodes the whole published catalog. Runs at startup and on a fixed delay, so
+     * changes committed on other nodes show up here too.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${courses.feed.rebuild-interval-ms:60000}",
+            fixedDelayString = "${courses.feed.rebuild-interval-ms:60000}")
+    public synchronized void rebuild() {
+        List<CourseResponseDto> courses = courseService.findAllCourses(true);
+        Snapshot previous = current;
+        fragments.clear();
+        tutors.clear();
+        for (CourseResponseDto course : courses) {
+            put(course);
+        }
+        publish();
+        if (previous == null || !previous.etag().equals(current.etag())) {
+            log.info("Course feed snapshot built with {} courses ({} bytes, {} gzipped)",
+                    fragments.size(), current.json().length, current.gzip().length);
+        }
+    }
+
+    /**
+     * Tutor names are part of every course they teach, so a profile change re-encodes
+     * the tutor's published courses once it is committed. Anyone else's profile change
+     * costs a scan of the feed's courses and nothing more.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserProfileChanged(UserProfileChangedEvent event) {
+        List<Long> taught = tutors.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(event.userId()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (taught.isEmpty()) {
+            return;
+        }
+        taught.forEach(this::reencode);
+        publish();
+    }
+
+    /**
+     * Re-encodes a single course once its change is committed, dropping it from the
+     * feed if it was deleted or unpublished. Runs in a fresh transaction so it never
+     * sees the committing transaction's persistence context.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onCourseChanged(CourseChangedEvent event) {
+        if (reencode(event.courseId())) {
+            publish();
+        }
+    }
+
+    // Re-reads one course into its fragment; false if it neither is nor was in the feed
+    private boolean reencode(Long courseId) {
+        Course course = courseRepository.findWithTutorAndModulesById(courseId)
+                .filter(Course::isPublished)
+                .orElse(null);
+        if (course != null) {
+            put(courseService.mapCourseToDto(course));
+            return true;
+        }
+        tutors.remove(courseId);
+        return fragments.remove(courseId) != null;
+    }
+
+    private void put(CourseResponseDto course) {
+        fragments.put(course.getId(), encode(course));
+        if (course.getTutor() != null && course.getTutor().getId() != null) {
+            tutors.put(course.getId(), course.getTutor().getId());
+        } else {
+            tutors.remove(course.getId());
+        }
+    }
+
+    // Concatenates the fragments into a JSON array and swaps in the new snapshot
+    private void publish() {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        json.write('[');
+        boolean first = true;
+        for (Map.Entry<Long, byte[]> entry : fragments.entrySet()) {
+            if (!first) {
+                json.write(',');
+            }
+            json.writeBytes(entry.getValue());
+            first = false;
+        }
+        json.write(']');
+        byte[] jsonBytes = json.toByteArray();
+        current = new Snapshot(jsonBytes, gzip(jsonBytes), etag(jsonBytes));
+    }
+
+    private byte[] encode(CourseResponseDto course) {
+        try {
+            return objectMapper.writeValueAsBytes(course);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not encode course " + course.getId() + " for the feed.", ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads the associations that CourseService.mapCourseToDto walks (tutor and modules)
+ * for a whole batch of managed courses at once.
+ * <p>
+ * Each association that is still lazy is initialized with one {@code IN (...)} query
+ * per chunk of course IDs, so mapping N courses costs a constant number of round-trips
+ * instead of 1 + 2N. Must be called inside the transaction that loaded the courses.
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseFetchPlan {
+
+    // Keeps IN lists at a size every database handles comfortably
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final CourseRepository courseRepository;
+
+    /**
+     * Initializes tutor and modules of the given courses.
+     *
+     * @param courses Courses attached to the current persistence context.
+     * @return The same list, for chaining.
+     */
+    public <C extends Collection<Course>> C withTutorAndModules(C courses) {
+        Set<Long> missingTutors = new LinkedHashSet<>();
+        Set<Long> missingModules = new LinkedHashSet<>();
+        for (Course course : courses) {
+            if (!Hibernate.isInitialized(course.getTutor())) {
+                missingTutors.add(course.getId());
+            }
+            if (!Hibernate.isInitialized(course.getModules())) {
+                missingModules.add(course.getId());
+            }
+        }
+
+        // The fetch joins populate the already-managed instances in the persistence context
+        for (List<Long> chunk : chunks(missingTutors)) {
+            courseRepository.fetchTutorsByIdIn(chunk);
+        }
+        for (List<Long> chunk : chunks(missingModules)) {
+            courseRepository.fetchModulesByIdIn(chunk);
+        }
+        return courses;
+    }
+
+    private static List<List<Long>> chunks(Set<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> current = new ArrayList<>();
+        for (Long id : ids) {
+            current.add(id);
+            if (current.size() == MAX_IDS_PER_QUERY) {
+                chunks.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,308 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.event.CourseChangedEvent;
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the published course catalog.
+ * <p>
+ * Title, description, category and level are tokenized into a single weighted
+ * posting list per term. Queries expand each token to exact, prefix and fuzzy
+ * (bounded edit distance) vocabulary matches and rank documents with BM25, so
+ * lookup cost depends on the query and vocabulary rather than on the number of
+ * courses.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseSearchIndex {
+
+    private static final Pattern TOKEN_SPLITTER = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Field weights: a hit in the title matters more than one in the description
+    private static final double TITLE_WEIGHT = 3.0;
+    private static final double CATEGORY_WEIGHT = 2.0;
+    private static final double LEVEL_WEIGHT = 1.5;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    // Standard BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Boosts applied to expanded query terms
+    private static final double PREFIX_BOOST = 0.8;
+    private static final double FUZZY_BOOST = 0.5;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+
+    private final CourseRepository courseRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (courseId -> weighted term frequency)
+    private NavigableMap<String, Map<Long, Double>> postings = new TreeMap<>();
+    // courseId -> analyzed course (needed for length normalization and to un-index it)
+    private Map<Long, IndexedCourse> documents = new HashMap<>();
+    private double totalLength;
+
+    /**
+     * Builds the index from the database once the application is ready.
+     * <p>
+     * Writers ({@code rebuild}, {@link #index}, {@link #remove}) are serialized on this
+     * object's monitor, so a change applied while a rebuild reads the database is applied
+     * after the rebuilt index is swapped in rather than lost with the old one. Searches
+     * only take the read lock and are blocked for the swap alone.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Course> courses = courseRepository.findByIsPublished(true);
+        NavigableMap<String, Map<Long, Double>> newPostings = new TreeMap<>();
+        Map<Long, IndexedCourse> newDocuments = new HashMap<>();
+        double newTotalLength = 0;
+        for (Course course : courses) {
+            IndexedCourse document = analyze(course);
+            newDocuments.put(course.getId(), document);
+            newTotalLength += document.length();
+            document.terms().forEach((term, tf) ->
+                    newPostings.computeIfAbsent(term, t -> new HashMap<>()).put(course.getId(), tf));
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            documents = newDocuments;
+            totalLength = newTotalLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Course search index built with {} courses and {} terms", newDocuments.size(), newPostings.size());
+    }
+
+    /**
+     * Keeps the index in sync with course changes once the surrounding transaction commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        courseRepository.findById(event.courseId())
+                .filter(Course::isPublished)
+                .ifPresentOrElse(this::index, () -> remove(event.courseId()));
+    }
+
+    /**
+     * Adds or replaces a course in the index.
+     */
+    public synchronized void index(Course course) {
+        IndexedCourse document = analyze(course);
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(course.getId());
+            documents.put(course.getId(), document);
+            totalLength += document.length();
+            document.terms().forEach((term, tf) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(course.getId(), tf));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a course from the index, if present.
+     */
+    public synchronized void remove(Long courseId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(courseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the index.
+     *
+     * @param query The raw user query.
+     * @param limit Maximum number of course IDs to return.
+     * @return Matching course IDs, best match first.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return Collections.emptyList();
+            }
+            double averageLength = totalLength / documents.size();
+            for (String token : queryTokens) {
+                // Best contribution of this query token per document, over all its expansions
+                Map<Long, Double> tokenScores = new HashMap<>();
+                expand(token).forEach((term, boost) -> {
+                    Map<Long, Double> docs = postings.get(term);
+                    double idf = idf(docs.size());
+                    docs.forEach((courseId, tf) -> {
+                        double docLength = documents.get(courseId).length();
+                        double score = boost * idf * (tf * (K1 + 1))
+                                / (tf + K1 * (1 - B + B * docLength / averageLength));
+                        tokenScores.merge(courseId, score, Math::max);
+                    });
+                });
+                tokenScores.forEach((courseId, score) -> scores.merge(courseId, score, Double::sum));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Collections.reverseOrder())))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Maps a query token to the vocabulary terms it matches and the boost for each
+    private Map<String, Double> expand(String token) {
+        Map<String, Double> expansions = new HashMap<>();
+        if (postings.containsKey(token)) {
+            expansions.put(token, 1.0);
+        }
+
+        // Prefix matches support search-as-you-type
+        int added = 0;
+        for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+            if (added++ >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            expansions.putIfAbsent(term, PREFIX_BOOST);
+        }
+
+        // Fuzzy matches tolerate typos; only terms sharing the first character are considered
+        int maxDistance = token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+        if (maxDistance > 0) {
+            String first = token.substring(0, 1);
+            for (String term : postings.subMap(first, true, first + Character.MAX_VALUE, false).keySet()) {
+                if (Math.abs(term.length() - token.length()) <= maxDistance
+                        && !expansions.containsKey(term)
+                        && editDistance(token, term, maxDistance) <= maxDistance) {
+                    expansions.put(term, FUZZY_BOOST);
+                }
+            }
+        }
+        return expansions;
+    }
+
+    private void removeUnlocked(Long courseId) {
+        IndexedCourse previous = documents.remove(courseId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length();
+        for (String term : previous.terms().keySet()) {
+            Map<Long, Double> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(courseId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private double idf(int documentFrequency) {
+        int n = documents.size();
+        return Math.log(1 + (n - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static IndexedCourse analyze(Course course) {
+        Map<String, Double> terms = new HashMap<>();
+        addField(terms, course.getTitle(), TITLE_WEIGHT);
+        addField(terms, course.getDescription(), DESCRIPTION_WEIGHT);
+        addField(terms, course.getCategory(), CATEGORY_WEIGHT);
+        addField(terms, course.getLevel(), LEVEL_WEIGHT);
+        double length = 0;
+        for (double tf : terms.values()) {
+            length += tf;
+        }
+        return new IndexedCourse(terms, length);
+    }
+
+    private static void addField(Map<String, Double> terms, String text, double weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Double::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SPLITTER.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Levenshtein distance that gives up once every cell in a row exceeds maxDistance
+    static int editDistance(String a, String b, int maxDistance) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private record IndexedCourse(Map<String, Double> terms, double length) {
+    }
+}
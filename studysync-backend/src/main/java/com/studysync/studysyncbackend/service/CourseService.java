@@ -6,6 +6,7 @@ import com.studysync.studysyncbackend.dto.CourseResponseDto;
 import com.studysync.studysyncbackend.dto.ModuleRequestDto;
 import com.studysync.studysyncbackend.dto.ModuleResponseDto;
 import com.studysync.studysyncbackend.dto.TutorDto;
+import com.studysync.studysyncbackend.event.CourseChangedEvent;
 import com.studysync.studysyncbackend.model.Course;
 import com.studysync.studysyncbackend.model.Module;
 import com.studysync.studysyncbackend.model.User;
@@ -24,15 +25,26 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CourseService {
 
+    // Keyword hits are handed to the SQL filter query this many ids at a time
+    private static final int SEARCH_ID_SLICE = 500;
+
     private final CourseRepository courseRepository;
     private final ModuleRepository moduleRepository;
+    private final CourseSearchIndex courseSearchIndex;
+    private final CourseFetchPlan courseFetchPlan;
+    private final CourseDetailsCache courseDetailsCache;
+    private final DomainEventBus domainEventBus;
+    private final StoredBlobService storedBlobService;
 
     @Transactional
     public Course createCourse(Course course) {
@@ -43,7 +55,13 @@ public class CourseService {
         }
         User currentUser = (User) authentication.getPrincipal();
         course.setTutor(currentUser);
-        return courseRepository.save(course);
+        Course savedCourse = courseRepository.save(course);
+        storedBlobService.retain(savedCourse.getThumbnail());
+        if (savedCourse.getModules() != null) {
+            savedCourse.getModules().forEach(this::retainFiles);
+        }
+        domainEventBus.publish(new CourseChangedEvent(savedCourse.getId()));
+        return savedCourse;
     }
 
     @Transactional(readOnly = true)
@@ -54,7 +72,7 @@ public class CourseService {
         } else {
             courses = courseRepository.findAll();
         }
-        return courses.stream()
+        return courseFetchPlan.withTutorAndModules(courses).stream()
                 .map(this::mapCourseToDto)
                 .collect(Collectors.toList());
     }
@@ -62,13 +80,52 @@ public class CourseService {
     @Transactional(readOnly = true)
     public List<CourseResponseDto> searchCourses(String keyword, BigDecimal minPrice, BigDecimal maxPrice,
             Boolean isFree, String sortBy, String category, String level) {
-        Specification<Course> spec = (root, query, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
+        Specification<Course> filters = searchFilters(minPrice, maxPrice, isFree, category, level);
+        List<Course> courses;
+        if (keyword != null && !keyword.isBlank()) {
+            courses = searchByKeyword(keyword, filters, sortBy);
+        } else {
+            courses = courseRepository.findAll(filters, searchSort(sortBy));
+        }
+        return courseFetchPlan.withTutorAndModules(courses).stream()
+                .map(this::mapCourseToDto)
+                .collect(Collectors.toList());
+    }
+
+    // Keyword matching is answered by the in-memory index; SQL applies the remaining filters to
+    // every ranked hit, a slice at a time, so no match is dropped however low it ranks
+    private List<Course> searchByKeyword(String keyword, Specification<Course> filters, String sortBy) {
+        List<Long> rankedIds = courseSearchIndex.search(keyword, Integer.MAX_VALUE);
+        List<Course> courses = new ArrayList<>();
+        for (int from = 0; from < rankedIds.size(); from += SEARCH_ID_SLICE) {
+            List<Long> slice = rankedIds.subList(from, Math.min(from + SEARCH_ID_SLICE, rankedIds.size()));
+            Specification<Course> inSlice = (root, query, criteriaBuilder) -> root.get("id").in(slice);
+            courses.addAll(courseRepository.findAll(filters.and(inSlice)));
+        }
 
-            if (keyword != null && !keyword.isEmpty()) {
-                String likePattern = "%" + keyword.toLowerCase() + "%";
-                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("title")), likePattern));
+        // Slices are queried separately, so the requested order is applied here
+        Comparator<Course> order = switch (sortBy == null ? "relevance" : sortBy) {
+            case "price_asc" -> Comparator.comparing(Course::getPrice, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "price_desc" -> Comparator.comparing(Course::getPrice, Comparator.nullsLast(Comparator.reverseOrder()));
+            case "rating" -> Comparator.comparing(Course::getAverageRating, Comparator.nullsLast(Comparator.reverseOrder()));
+            case "views" -> Comparator.comparing(Course::getViewCount, Comparator.nullsLast(Comparator.reverseOrder()));
+            case "relevance" -> {
+                Map<Long, Integer> rank = new HashMap<>();
+                for (int i = 0; i < rankedIds.size(); i++) {
+                    rank.put(rankedIds.get(i), i);
+                }
+                yield Comparator.comparing(course -> rank.get(course.getId()));
             }
+            default -> Comparator.comparing(Course::getId, Comparator.reverseOrder());
+        };
+        courses.sort(order);
+        return courses;
+    }
+
+    private static Specification<Course> searchFilters(BigDecimal minPrice, BigDecimal maxPrice, Boolean isFree,
+            String category, String level) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
 
             // Only show published courses in search
             predicates.add(criteriaBuilder.isTrue(criteriaBuilder.coalesce(root.get("isPublished"), false)));
@@ -96,31 +153,20 @@ public class CourseService {
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
+    }
 
-        Sort sort = Sort.unsorted();
-        if (sortBy != null) {
-            switch (sortBy) {
-                case "price_asc":
-                    sort = Sort.by(Sort.Direction.ASC, "price");
-                    break;
-                case "price_desc":
-                    sort = Sort.by(Sort.Direction.DESC, "price");
-                    break;
-                case "rating":
-                    sort = Sort.by(Sort.Direction.DESC, "averageRating");
-                    break;
-                case "views":
-                    sort = Sort.by(Sort.Direction.DESC, "viewCount");
-                    break;
-                default:
-                    sort = Sort.by(Sort.Direction.DESC, "id");
-            }
+    private static Sort searchSort(String sortBy) {
+        if (sortBy == null) {
+            return Sort.unsorted();
         }
-
-        return courseRepository.findAll(spec, sort)
-                .stream()
-                .map(this::mapCourseToDto)
-                .collect(Collectors.toList());
+        return switch (sortBy) {
+            case "price_asc" -> Sort.by(Sort.Direction.ASC, "price");
+            case "price_desc" -> Sort.by(Sort.Direction.DESC, "price");
+            case "rating" -> Sort.by(Sort.Direction.DESC, "averageRating");
+            case "views" -> Sort.by(Sort.Direction.DESC, "viewCount");
+            // Without a keyword there is no rank: newest first
+            default -> Sort.by(Sort.Direction.DESC, "id");
+        };
     }
 
     @Transactional
@@ -132,12 +178,15 @@ public class CourseService {
             throw new AccessDeniedException("User is not authorized to add modules to this course.");
         }
         module.setCourse(course);
-        return moduleRepository.save(module);
+        Module savedModule = moduleRepository.save(module);
+        retainFiles(savedModule);
+        domainEventBus.publish(new CourseChangedEvent(courseId));
+        return savedModule;
     }
 
     @Transactional(readOnly = true)
     public List<CourseComparisonDto> findCoursesForComparison(List<Long> courseIds) {
-        return courseRepository.findAllById(courseIds)
+        return courseFetchPlan.withTutorAndModules(courseRepository.findAllById(courseIds))
                 .stream()
                 .map(this::mapCourseToComparisonDto)
                 .collect(Collectors.toList());
@@ -157,11 +206,14 @@ public class CourseService {
         existingCourse.setDescription(courseDetails.getDescription());
         existingCourse.setPrice(courseDetails.getPrice());
         existingCourse.setPublished(courseDetails.isPublished());
+        storedBlobService.swap(existingCourse.getThumbnail(), courseDetails.getThumbnail());
         existingCourse.setThumbnail(courseDetails.getThumbnail());
         existingCourse.setCategory(courseDetails.getCategory());
         existingCourse.setLevel(courseDetails.getLevel());
 
-        return courseRepository.save(existingCourse);
+        Course savedCourse = courseRepository.save(existingCourse);
+        domainEventBus.publish(new CourseChangedEvent(courseId));
+        return savedCourse;
     }
 
     @Transactional
@@ -174,7 +226,12 @@ public class CourseService {
             throw new AccessDeniedException("User is not authorized to delete this course.");
         }
 
+        storedBlobService.release(courseToDelete.getThumbnail());
+        if (courseToDelete.getModules() != null) {
+            courseToDelete.getModules().forEach(this::releaseFiles);
+        }
         courseRepository.delete(courseToDelete);
+        domainEventBus.publish(new CourseChangedEvent(courseId));
     }
 
     @Transactional(readOnly = true)
@@ -202,11 +259,13 @@ public class CourseService {
                 .build();
     }
 
-    @Transactional(readOnly = true)
+    // Not transactional: cache hits must not open a transaction or borrow a connection
     public CourseResponseDto getCourseById(Long courseId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new EntityNotFoundException("Course not found with id: " + courseId));
-        return mapCourseToDto(course);
+        return courseDetailsCache.get(courseId, id -> {
+            Course course = courseRepository.findWithTutorAndModulesById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Course not found with id: " + id));
+            return mapCourseToDto(course);
+        });
     }
 
     @Transactional
@@ -227,7 +286,10 @@ public class CourseService {
                 .course(course)
                 .build();
 
-        return moduleRepository.save(newModule);
+        Module savedModule = moduleRepository.save(newModule);
+        retainFiles(savedModule);
+        domainEventBus.publish(new CourseChangedEvent(courseId));
+        return savedModule;
     }
 
     @Transactional(readOnly = true)
@@ -266,7 +328,7 @@ public class CourseService {
     @Transactional(readOnly = true)
     public List<CourseResponseDto> findCoursesByTutor() {
         User currentUser = getCurrentUser();
-        return courseRepository.findByTutorId(currentUser.getId())
+        return courseFetchPlan.withTutorAndModules(courseRepository.findByTutorId(currentUser.getId()))
                 .stream()
                 .map(this::mapCourseToDto)
                 .collect(Collectors.toList());
@@ -286,7 +348,9 @@ public class CourseService {
             throw new AccessDeniedException("User is not authorized to delete this module.");
         }
 
+        releaseFiles(module);
         moduleRepository.delete(module);
+        domainEventBus.publish(new CourseChangedEvent(courseId));
     }
 
     @Transactional
@@ -305,10 +369,24 @@ public class CourseService {
 
         module.setTitle(moduleDto.getTitle());
         module.setContent(moduleDto.getContent());
+        storedBlobService.swap(module.getVideoUrl(), moduleDto.getVideoUrl());
+        storedBlobService.swap(module.getNotesUrl(), moduleDto.getNotesUrl());
         module.setVideoUrl(moduleDto.getVideoUrl());
         module.setNotesUrl(moduleDto.getNotesUrl());
 
-        return moduleRepository.save(module);
+        Module savedModule = moduleRepository.save(module);
+        domainEventBus.publish(new CourseChangedEvent(courseId));
+        return savedModule;
+    }
+
+    private void retainFiles(Module module) {
+        storedBlobService.retain(module.getVideoUrl());
+        storedBlobService.retain(module.getNotesUrl());
+    }
+
+    private void releaseFiles(Module module) {
+        storedBlobService.release(module.getVideoUrl());
+        storedBlobService.release(module.getNotesUrl());
     }
 
     private User getCurrentUser() {
@@ -0,0 +1,307 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.dto.DiscussionAuthorDto;
+import com.studysync.studysyncbackend.dto.DiscussionDto;
+import com.studysync.studysyncbackend.dto.DiscussionPageDto;
+import com.studysync.studysyncbackend.event.DiscussionPostedEvent;
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.model.Discussion;
+import com.studysync.studysyncbackend.model.Module;
+import com.studysync.studysyncbackend.model.User;
+import com.studysync.studysyncbackend.repository.DiscussionRepository;
+import com.studysync.studysyncbackend.repository.DiscussionRepository.ThreadRow;
+import com.studysync.studysyncbackend.repository.EnrollmentRepository;
+import com.studysync.studysyncbackend.repository.ModuleRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Discussion threads, stored with a materialized path so that a page of top-level
+ * posts plus the first few replies of each is loaded in two queries, whatever the
+ * size or depth of the threads.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiscussionService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_REPLIES_PER_THREAD = 5;
+    public static final int MAX_REPLIES_PER_THREAD = 50;
+    // Bounds the path length: 11 levels of 11 characters fit in the 255-character column
+    public static final int MAX_DEPTH = 10;
+
+    private final DiscussionRepository discussionRepository;
+    private final ModuleRepository moduleRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final DiscussionUpvoteService discussionUpvoteService;
+    private final DomainEventBus domainEventBus;
+
+    /**
+     * Returns a page of a module's top-level posts, newest first, each with the first
+     * {@code repliesPerThread} replies of its thread nested under their parents.
+     */
+    @Transactional(readOnly = true)
+    public DiscussionPageDto getModuleThreads(Long moduleId, String cursor, int size, int repliesPerThread) {
+        int pageSize = pageSize(size, MAX_PAGE_SIZE);
+        int perThread = Math.min(Math.max(repliesPerThread, 0), MAX_REPLIES_PER_THREAD);
+        long beforeId = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : parseId(decodeCursor(cursor));
+
+        List<ThreadRow> rows = discussionRepository.findTopLevelRows(moduleId, beforeId, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<ThreadRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<Long, DiscussionDto> threads = new LinkedHashMap<>();
+        for (ThreadRow row : page) {
+            threads.put(row.getId(), toDto(row, null));
+        }
+        if (perThread > 0 && !threads.isEmpty()) {
+            attachReplies(threads, discussionRepository.findFirstReplies(threads.keySet(), perThread), perThread);
+        }
+
+        String nextCursor = hasMore ? encodeCursor(String.valueOf(page.get(page.size() - 1).getId())) : null;
+        return DiscussionPageDto.builder()
+                .items(new ArrayList<>(threads.values()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Returns every top-level post of a module, newest first, read in pages of
+     * {@link #MAX_PAGE_SIZE} so no single query is unbounded.
+     */
+    @Transactional(readOnly = true)
+    public List<DiscussionDto> getAllModuleThreads(Long moduleId, int repliesPerThread) {
+        List<DiscussionDto> threads = new ArrayList<>();
+        String cursor = null;
+        do {
+            DiscussionPageDto page = getModuleThreads(moduleId, cursor, MAX_PAGE_SIZE, repliesPerThread);
+            threads.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return threads;
+    }
+
+    /**
+     * Returns the next replies of a thread in thread order, as a flat list; each item
+     * carries its parentId and depth so the client can nest it.
+     *
+     * @param cursor A thread's moreRepliesCursor or a previous page's nextCursor.
+     */
+    @Transactional(readOnly = true)
+    public DiscussionPageDto getReplies(Long discussionId, String cursor, int size) {
+        int pageSize = pageSize(size, MAX_PAGE_SIZE);
+        Discussion root = discussionRepository.findById(discussionId)
+                .orElseThrow(() -> new EntityNotFoundException("Discussion not found with id: " + discussionId));
+        if (root.getParent() != null) {
+            throw new IllegalArgumentException("Replies can only be paged from a top-level discussion.");
+        }
+        String afterPath = cursor == null || cursor.isBlank() ? root.getPath() : decodeCursor(cursor);
+
+        List<ThreadRow> rows = discussionRepository.findRepliesAfter(root.getId(), afterPath, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<ThreadRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+        return DiscussionPageDto.builder()
+                .items(page.stream().map(row -> toDto(row, row.getParentId())).toList())
+                .nextCursor(hasMore ? encodeCursor(page.get(page.size() - 1).getPath()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Starts a new thread on a module. Only the course tutor and enrolled students may post.
+     */
+    @Transactional
+    public DiscussionDto createDiscussion(User user, Long moduleId, String content) {
+        Module module = moduleRepository.findById(moduleId)
+                .orElseThrow(() -> new EntityNotFoundException("Module not found"));
+        Course course = module.getCourse();
+        if (course == null) {
+            throw new EntityNotFoundException("Course not found for this module.");
+        }
+        if (!canPost(user, course)) {
+            throw new AccessDeniedException("You must be enrolled to post in this discussion.");
+        }
+
+        Discussion discussion = new Discussion();
+        discussion.setContent(content);
+        discussion.setUser(user);
+        discussion.setModuleId(moduleId);
+        discussion.setCourseId(course.getId()); // Ensure consistency
+        return save(discussion, null);
+    }
+
+    /**
+     * Replies to a post. Only the course tutor and enrolled students may reply.
+     */
+    @Transactional
+    public DiscussionDto reply(User user, Long parentId, String content) {
+        Discussion parent = discussionRepository.findById(parentId)
+                .orElseThrow(() -> new EntityNotFoundException("Discussion not found with id: " + parentId));
+        if (parent.getDepth() != null && parent.getDepth() >= MAX_DEPTH) {
+            throw new IllegalArgumentException("This thread cannot be nested any deeper.");
+        }
+
+        // Enrollment is the common case; only fetch the course to check ownership otherwise
+        boolean isEnrolled = enrollmentRepository.existsByUserIdAndCourseId(user.getId(), parent.getCourseId());
+        if (!isEnrolled) {
+            Course course = moduleRepository.findById(parent.getModuleId())
+                    .map(Module::getCourse)
+                    .orElseThrow(() -> new EntityNotFoundException("Module not found"));
+            if (!course.getTutor().getId().equals(user.getId())) {
+                throw new AccessDeniedException("You must be enrolled to reply.");
+            }
+        }
+
+        Discussion reply = new Discussion();
+        reply.setContent(content);
+        reply.setUser(user);
+        reply.setParent(parent);
+        reply.setCourseId(parent.getCourseId());
+        reply.setModuleId(parent.getModuleId());
+        return save(reply, parent);
+    }
+
+    /**
+     * Fills in path, rootId and depth for discussions written before they existed.
+     * Replies are backfilled one level per statement, so this takes as many statements
+     * as the deepest thread is deep.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillPaths() {
+        if (!discussionRepository.existsByPathIsNull()) {
+            return;
+        }
+        int updated = discussionRepository.backfillTopLevelPaths();
+        for (int level; (level = discussionRepository.backfillReplyPaths()) > 0; ) {
+            updated += level;
+        }
+        log.info("Backfilled thread paths for {} discussions", updated);
+    }
+
+    // The path needs the generated id, so it is set right after the insert
+    private DiscussionDto save(Discussion discussion, Discussion parent) {
+        Discussion saved = discussionRepository.save(discussion);
+        String segment = String.format("%010d", saved.getId());
+        if (parent == null) {
+            saved.setPath(segment);
+            saved.setRootId(saved.getId());
+            saved.setDepth(0);
+        } else {
+            saved.setPath(parent.getPath() + "/" + segment);
+            saved.setRootId(parent.getRootId());
+            saved.setDepth(parent.getDepth() + 1);
+        }
+        domainEventBus.publish(new DiscussionPostedEvent(saved.getUser().getId(), saved.getId()));
+        return toDto(saved);
+    }
+
+    private boolean canPost(User user, Course course) {
+        return course.getTutor().getId().equals(user.getId())
+                || enrollmentRepository.existsByUserIdAndCourseId(user.getId(), course.getId());
+    }
+
+    // Replies arrive in path order, so every reply's parent has already been placed
+    private void attachReplies(Map<Long, DiscussionDto> threads, List<ThreadRow> replies, int perThread) {
+        Map<Long, DiscussionDto> byId = new LinkedHashMap<>(threads);
+        Map<Long, String> lastPath = new LinkedHashMap<>();
+        for (ThreadRow row : replies) {
+            DiscussionDto reply = toDto(row, row.getParentId());
+            DiscussionDto parent = byId.get(row.getParentId());
+            if (parent != null) {
+                parent.getReplies().add(reply);
+            }
+            byId.put(reply.getId(), reply);
+            DiscussionDto thread = threads.get(row.getRootId());
+            thread.setReplyCount(row.getReplyCount());
+            lastPath.put(row.getRootId(), row.getPath());
+        }
+        lastPath.forEach((rootId, path) -> {
+            DiscussionDto thread = threads.get(rootId);
+            if (thread.getReplyCount() > perThread) {
+                thread.setMoreRepliesCursor(encodeCursor(path));
+            }
+        });
+    }
+
+    private DiscussionDto toDto(ThreadRow row, Long parentId) {
+        return DiscussionDto.builder()
+                .id(row.getId())
+                .content(row.getContent())
+                .user(DiscussionAuthorDto.builder()
+                        .id(row.getUserId())
+                        .firstName(row.getUserFirstName())
+                        .lastName(row.getUserLastName())
+                        .role(row.getUserRole())
+                        .avatarUrl(row.getUserAvatarUrl())
+                        .build())
+                .parentId(parentId)
+                .depth(row.getDepth() == null ? 0 : row.getDepth())
+                .upvotes(row.getUpvotes() + discussionUpvoteService.pendingUpvotes(row.getId()))
+                .createdAt(row.getCreatedAt())
+                .build();
+    }
+
+    private DiscussionDto toDto(Discussion discussion) {
+        User user = discussion.getUser();
+        return DiscussionDto.builder()
+                .id(discussion.getId())
+                .content(discussion.getContent())
+                .user(DiscussionAuthorDto.builder()
+                        .id(user.getId())
+                        .firstName(user.getFirstName())
+                        .lastName(user.getLastName())
+                        .role(user.getRole() != null ? user.getRole().name() : null)
+                        .avatarUrl(user.getAvatarUrl())
+                        .build())
+                .parentId(discussion.getParent() != null ? discussion.getParent().getId() : null)
+                .depth(discussion.getDepth())
+                .upvotes(discussion.getUpvotes())
+                .createdAt(discussion.getCreatedAt())
+                .build();
+    }
+
+    private static int pageSize(int size, int max) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        return Math.min(size, max);
+    }
+
+    private static long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    private static String encodeCursor(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.dto.DiscussionUpvoteDto;
+import com.studysync.studysyncbackend.event.DiscussionsUpvotedEvent;
+import com.studysync.studysyncbackend.repository.DiscussionRepository;
+import com.studysync.studysyncbackend.repository.DiscussionUpvoteRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind pipeline for discussion upvotes.
+ * <p>
+ * A vote only claims the (discussion, user) pair in memory and bumps a striped
+ * per-discussion counter, so concurrent votes on a popular thread neither contend on
+ * a row lock nor get lost. A scheduled flush then writes the pending votes in two
+ * batches: an {@code INSERT IGNORE} into discussion_upvotes (whose unique key is the
+ * final dedupe, also across nodes) and one {@code UPDATE ... SET upvotes = upvotes + ?}
+ * per discussion for the rows that were actually inserted. Reads add the counts that
+ * have not been flushed yet.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiscussionUpvoteService {
+
+    private static final String INSERT_VOTE =
+            "INSERT IGNORE INTO discussion_upvotes (discussion_id, user_id, created_at) VALUES (?, ?, ?)";
+    private static final String INCREMENT_UPVOTES =
+            "UPDATE discussions SET upvotes = upvotes + ? WHERE id = ?";
+    private static final int JDBC_BATCH_SIZE = 500;
+
+    private final DiscussionRepository discussionRepository;
+    private final DiscussionUpvoteRepository discussionUpvoteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Votes accepted but not yet written; the set answers "already voted?" for them
+    private final Set<Vote> pendingVotes = ConcurrentHashMap.newKeySet();
+    private final Queue<Vote> unflushedVotes = new ConcurrentLinkedQueue<>();
+    // discussionId -> number of pending votes. Adders are kept once created: removing
+    // one could race with a concurrent increment and lose it.
+    private final Map<Long, LongAdder> pendingCounts = new ConcurrentHashMap<>();
+
+    record Vote(Long discussionId, Long userId, LocalDateTime createdAt) {
+
+        // Identity is the (discussion, user) pair; the timestamp is only persisted
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Vote vote
+                    && discussionId.equals(vote.discussionId) && userId.equals(vote.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * discussionId.hashCode() + userId.hashCode();
+        }
+    }
+
+    /**
+     * Records a user's vote. Voting twice is not an error; the second call just
+     * reports {@code voted = false}.
+     */
+    public DiscussionUpvoteDto upvote(Long discussionId, Long userId) {
+        int persisted = discussionRepository.findUpvotesById(discussionId)
+                .orElseThrow(() -> new EntityNotFoundException("Discussion not found with id: " + discussionId));
+
+        Vote vote = new Vote(discussionId, userId, LocalDateTime.now());
+        // Claim the pair first so two concurrent requests from the same user cannot both pass
+        boolean voted = pendingVotes.add(vote);
+        if (voted && discussionUpvoteRepository.existsByDiscussionIdAndUserId(discussionId, userId)) {
+            pendingVotes.remove(vote);
+            voted = false;
+        }
+        if (voted) {
+            pendingCounts.computeIfAbsent(discussionId, id -> new LongAdder()).increment();
+            unflushedVotes.add(vote);
+        }
+        return DiscussionUpvoteDto.builder()
+                .discussionId(discussionId)
+                .upvotes(persisted + pendingUpvotes(discussionId))
+                .voted(voted)
+                .build();
+    }
+
+    /**
+     * Votes accepted for the discussion that are not in the database yet.
+     */
+    public long pendingUpvotes(Long discussionId) {
+        LongAdder count = pendingCounts.get(discussionId);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Writes pending votes to the database. Runs on a fixed delay and once more on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${discussions.upvotes.flush-interval-ms:1000}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<Vote> batch = new ArrayList<>();
+        for (Vote vote; (vote = unflushedVotes.poll()) != null; ) {
+            batch.add(vote);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> applied;
+        try {
+            applied = transactionTemplate.execute(status -> write(batch));
+        } catch (RuntimeException ex) {
+            // Keep the votes pending and retry on the next run
+            log.warn("Could not flush {} discussion upvotes, will retry", batch.size(), ex);
+            unflushedVotes.addAll(batch);
+            return;
+        }
+
+        // The votes are durable (or were duplicates): stop counting them as pending
+        for (Vote vote : batch) {
+            pendingCounts.get(vote.discussionId()).decrement();
+            pendingVotes.remove(vote);
+        }
+        log.debug("Flushed {} discussion upvotes across {} discussions", batch.size(), applied.size());
+        if (!applied.isEmpty()) {
+            eventPublisher.publishEvent(new DiscussionsUpvotedEvent(applied));
+        }
+    }
+
+    // Inserts the votes and applies one increment per discussion for the rows actually inserted
+    private Map<Long, Long> write(List<Vote> batch) {
+        int[][] inserted = jdbcTemplate.batchUpdate(INSERT_VOTE, batch, JDBC_BATCH_SIZE, (ps, vote) -> {
+            ps.setLong(1, vote.discussionId());
+            ps.setLong(2, vote.userId());
+            ps.setTimestamp(3, Timestamp.valueOf(vote.createdAt()));
+        });
+
+        Map<Long, Long> increments = new HashMap<>();
+        int i = 0;
+        for (int[] chunk : inserted) {
+            for (int rows : chunk) {
+                // 0 means the unique key already had this vote; SUCCESS_NO_INFO counts as inserted
+                if (rows > 0 || rows == Statement.SUCCESS_NO_INFO) {
+                    increments.merge(batch.get(i).discussionId(), 1L, Long::sum);
+                }
+                i++;
+            }
+        }
+
+        if (!increments.isEmpty()) {
+            List<Map.Entry<Long, Long>> updates = new ArrayList<>(increments.entrySet());
+            jdbcTemplate.batchUpdate(INCREMENT_UPVOTES, updates, JDBC_BATCH_SIZE, (ps, update) -> {
+                ps.setLong(1, update.getValue());
+                ps.setLong(2, update.getKey());
+            });
+        }
+        return increments;
+    }
+}
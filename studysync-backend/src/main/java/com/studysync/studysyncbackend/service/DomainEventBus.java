@@ -0,0 +1,273 @@
+package com.studysync.studysyncbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studysync.studysyncbackend.event.DomainEvent;
+import com.studysync.studysyncbackend.event.DomainEventConsumer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Publishes domain events off the request path.
+ * <p>
+ * {@link #publish} writes one outbox_events row per {@link DomainEventConsumer} that
+ * accepts the event, in the caller's transaction, so a delivery exists exactly when
+ * the change it describes was committed. After commit, a virtual thread hands the
+ * event to in-process listeners and then delivers it to the consumers, deleting each
+ * row once its consumer returns. A failed delivery is rescheduled with exponential
+ * backoff; the scheduled {@link #dispatchDue} poll retries those, and deliveries
+ * whose node crashed once their lease runs out. A delivery is claimed by bumping its
+ * attempt count, so two nodes never run the same attempt.
+ * <p>
+ * Consumers are looked up once every singleton exists, so a consumer may itself depend
+ * on a service that publishes. An event published after {@link #shutdown} only gets its
+ * rows; they are delivered by the poll of the next node to start.
+ */
+@Service
+@Slf4j
+public class DomainEventBus implements SmartInitializingSingleton {
+
+    private static final String INSERT_DELIVERY =
+            "INSERT INTO outbox_events (consumer, event_type, payload, attempts, created_at, next_attempt_at) "
+                    + "VALUES (?, ?, ?, 0, ?, ?)";
+    private static final String SELECT_DUE =
+            "SELECT id, consumer, event_type, payload, attempts FROM outbox_events "
+                    + "WHERE next_attempt_at <= ? ORDER BY id LIMIT ?";
+    private static final String CLAIM_DELIVERY =
+            "UPDATE outbox_events SET attempts = attempts + 1, next_attempt_at = ? WHERE id = ? AND attempts = ?";
+    private static final String RESCHEDULE_DELIVERY =
+            "UPDATE outbox_events SET next_attempt_at = ?, last_error = ? WHERE id = ?";
+    private static final String DELETE_DELIVERY = "DELETE FROM outbox_events WHERE id = ?";
+    private static final int POLL_BATCH_SIZE = 100;
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    // Stored event_type -> event class; the sealed hierarchy lists every event
+    private static final Map<String, Class<?>> EVENT_TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> type : DomainEvent.class.getPermittedSubclasses()) {
+            EVENT_TYPES.put(type.getSimpleName(), type);
+        }
+    }
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<DomainEventConsumer> consumerProvider;
+    private volatile Map<String, DomainEventConsumer> consumers = Collections.emptyMap();
+    private final Duration lease;
+    private final Duration retryBackoff;
+    private final int maxAttempts;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    record Delivery(long id, DomainEventConsumer consumer, DomainEvent event, int attempts) {
+    }
+
+    private record Row(long id, String consumer, String eventType, String payload, int attempts) {
+    }
+
+    public DomainEventBus(
+            ApplicationEventPublisher eventPublisher,
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            ObjectProvider<DomainEventConsumer> consumerProvider,
+            @Value("${events.outbox.lease:1m}") Duration lease,
+            @Value("${events.outbox.retry-backoff:1s}") Duration retryBackoff,
+            @Value("${events.outbox.max-attempts:10}") int maxAttempts) {
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.consumerProvider = consumerProvider;
+        this.lease = lease;
+        this.retryBackoff = retryBackoff;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<String, DomainEventConsumer> byName = new LinkedHashMap<>();
+        consumerProvider.orderedStream().forEach(consumer -> {
+            if (byName.putIfAbsent(consumer.name(), consumer) != null) {
+                throw new IllegalStateException("Duplicate domain event consumer name: " + consumer.name());
+            }
+        });
+        consumers = Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * Records deliveries of the event in the current transaction, if any, and
+     * dispatches it once that transaction commits (right away without one). Nothing
+     * is dispatched if the transaction rolls back.
+     */
+    public void publish(DomainEvent event) {
+        List<Delivery> deliveries = new ArrayList<>();
+        for (DomainEventConsumer consumer : consumers.values()) {
+            if (consumer.accepts(event)) {
+                deliveries.add(new Delivery(insert(consumer, event), consumer, event, 0));
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatchLater(event, deliveries);
+                }
+            });
+        } else {
+            dispatchLater(event, deliveries);
+        }
+    }
+
+    /**
+     * Delivers rescheduled deliveries that are due, and those whose lease ran out.
+     */
+    @Scheduled(fixedDelayString = "${events.outbox.poll-interval-ms:5000}")
+    public void dispatchDue() {
+        List<Row> rows = jdbcTemplate.query(SELECT_DUE, (rs, rowNum) -> new Row(rs.getLong("id"),
+                rs.getString("consumer"), rs.getString("event_type"), rs.getString("payload"), rs.getInt("attempts")),
+                Timestamp.valueOf(LocalDateTime.now()), POLL_BATCH_SIZE);
+        for (Row row : rows) {
+            DomainEventConsumer consumer = consumers.get(row.consumer());
+            Class<?> type = EVENT_TYPES.get(row.eventType());
+            if (consumer == null || type == null) {
+                log.error("Giving up on outbox event {}: unknown consumer {} or event type {}", row.id(),
+                        row.consumer(), row.eventType());
+                giveUp(row.id(), "Unknown consumer or event type");
+                continue;
+            }
+            DomainEvent event;
+            try {
+                event = (DomainEvent) objectMapper.readValue(row.payload(), type);
+            } catch (JsonProcessingException ex) {
+                log.error("Giving up on outbox event {}: unreadable payload", row.id(), ex);
+                giveUp(row.id(), truncate(ex.toString()));
+                continue;
+            }
+            Delivery delivery = new Delivery(row.id(), consumer, event, row.attempts());
+            try {
+                executor.execute(() -> deliverQuietly(delivery));
+            } catch (RejectedExecutionException ex) {
+                return; // Shutting down; the row stays due
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Waits for running deliveries; anything unfinished is retried by the poll
+        executor.close();
+    }
+
+    // Runs after commit, where throwing would only reach the committing caller
+    private void dispatchLater(DomainEvent event, List<Delivery> deliveries) {
+        try {
+            executor.execute(() -> dispatch(event, deliveries));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Event bus is shut down; {} left to the outbox poll, listeners skipped", event);
+        }
+    }
+
+    private void dispatch(DomainEvent event, List<Delivery> deliveries) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException ex) {
+            log.warn("Listener failed for {}", event, ex);
+        }
+        deliveries.forEach(this::deliverQuietly);
+    }
+
+    private void deliverQuietly(Delivery delivery) {
+        try {
+            deliver(delivery);
+        } catch (RuntimeException ex) {
+            // The row is still there and is retried by the poll once the lease runs out
+            log.warn("Could not deliver outbox event {} to {}", delivery.id(), delivery.consumer().name(), ex);
+        }
+    }
+
+    void deliver(Delivery delivery) {
+        LocalDateTime now = LocalDateTime.now();
+        if (jdbcTemplate.update(CLAIM_DELIVERY, Timestamp.valueOf(now.plus(lease)), delivery.id(),
+                delivery.attempts()) == 0) {
+            return; // Claimed by the poll or another node, or already delivered
+        }
+        int attempt = delivery.attempts() + 1;
+        try {
+            delivery.consumer().consume(delivery.event());
+        } catch (RuntimeException ex) {
+            String error = truncate(ex.toString());
+            if (attempt >= maxAttempts) {
+                log.error("Giving up on outbox event {} for {} after {} attempts", delivery.id(),
+                        delivery.consumer().name(), attempt, ex);
+                giveUp(delivery.id(), error);
+            } else {
+                Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempt - 1, 20));
+                log.warn("Outbox event {} for {} failed (attempt {}), retrying in {}", delivery.id(),
+                        delivery.consumer().name(), attempt, delay, ex);
+                jdbcTemplate.update(RESCHEDULE_DELIVERY, Timestamp.valueOf(now.plus(delay)), error, delivery.id());
+            }
+            return;
+        }
+        jdbcTemplate.update(DELETE_DELIVERY, delivery.id());
+    }
+
+    private long insert(DomainEventConsumer consumer, DomainEvent event) {
+        String payload = encode(event);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // Not due before the lease runs out, so the poll only sees it if the dispatch after commit never ran
+        Timestamp due = Timestamp.valueOf(now.toLocalDateTime().plus(lease));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_DELIVERY, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, consumer.name());
+            ps.setString(2, event.getClass().getSimpleName());
+            ps.setString(3, payload);
+            ps.setTimestamp(4, now);
+            ps.setTimestamp(5, due);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    private void giveUp(long id, String error) {
+        jdbcTemplate.update(RESCHEDULE_DELIVERY, null, error, id);
+    }
+
+    private String encode(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not encode " + event.getClass().getSimpleName() + ".", ex);
+        }
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,160 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.event.ProgressUpdatedEvent;
+import com.studysync.studysyncbackend.repository.EnrollmentRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind pipeline for course progress.
+ * <p>
+ * The video player reports progress every few seconds. A report only updates the
+ * pending entry of its (user, course) in memory, keeping the highest progress and
+ * the latest access time, so a lecture watched by thousands costs one row update per
+ * student per flush instead of a load and save per report. Only the first report
+ * since the last flush reads the stored progress, to check the enrollment exists.
+ * A scheduled flush writes every pending entry in one transaction with
+ * {@code progress = GREATEST(progress, ?)}, so progress never goes backwards and
+ * replaying a flush is a no-op, and publishes a {@link ProgressUpdatedEvent} for
+ * every enrollment whose stored progress it raised. A crash loses at most one flush
+ * interval of progress; a failed flush keeps the entries pending.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EnrollmentProgressService {
+
+    private static final String UPDATE_PROGRESS =
+            "UPDATE enrollments SET progress = GREATEST(progress, ?), "
+                    + "last_accessed = GREATEST(COALESCE(last_accessed, ?), ?) "
+                    + "WHERE user_id = ? AND course_id = ?";
+    private static final int JDBC_BATCH_SIZE = 500;
+    private static final Comparator<Progress> BY_ENROLLMENT =
+            Comparator.comparing(Progress::userId).thenComparing(Progress::courseId);
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DomainEventBus domainEventBus;
+
+    private final Map<UserCourse, Pending> pending = new ConcurrentHashMap<>();
+
+    record UserCourse(Long userId, Long courseId) {
+    }
+
+    /**
+     * @param stored   The progress in the database when the entry was created.
+     * @param progress The highest progress reported since.
+     */
+    public record Pending(int stored, int progress, LocalDateTime lastAccessed) {
+
+        Pending merge(Pending other) {
+            return new Pending(stored, Math.max(progress, other.progress),
+                    lastAccessed.isAfter(other.lastAccessed) ? lastAccessed : other.lastAccessed);
+        }
+    }
+
+    record Progress(Long userId, Long courseId, Pending pending) {
+    }
+
+    /**
+     * Records that the user has reached {@code progress} percent of the course.
+     * Progress lower than what was already reached only counts as an access.
+     *
+     * @throws EntityNotFoundException if the user is not enrolled in the course.
+     */
+    public void record(Long userId, Long courseId, int progress) {
+        if (progress < 0 || progress > 100) {
+            throw new IllegalArgumentException("Progress must be between 0 and 100.");
+        }
+        UserCourse key = new UserCourse(userId, courseId);
+        Pending report = new Pending(0, progress, LocalDateTime.now());
+        if (pending.computeIfPresent(key, (k, current) -> current.merge(report)) != null) {
+            return;
+        }
+        int stored = enrollmentRepository.findProgress(userId, courseId)
+                .orElseThrow(() -> new EntityNotFoundException("Enrollment not found"));
+        pending.merge(key, new Pending(stored, progress, report.lastAccessed()), Pending::merge);
+    }
+
+    /**
+     * The user's not yet flushed progress in the course, if any, for reads to merge
+     * with the stored value.
+     */
+    public Optional<Pending> pending(Long userId, Long courseId) {
+        return Optional.ofNullable(pending.get(new UserCourse(userId, courseId)));
+    }
+
+    /**
+     * Writes pending progress to the database. Runs on a fixed delay and once more on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${enrollments.progress.flush-interval-ms:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Progress> batch = new ArrayList<>(pending.size());
+        pending.forEach((key, entry) -> batch.add(new Progress(key.userId(), key.courseId(), entry)));
+        // Same lock order in every flush, on every node
+        batch.sort(BY_ENROLLMENT);
+
+        try {
+            transactionTemplate.execute(status -> write(batch));
+        } catch (RuntimeException ex) {
+            // Nothing was committed: the entries stay pending for the next run
+            log.warn("Could not flush progress of {} enrollments, will retry", batch.size(), ex);
+            return;
+        }
+        for (Progress flushed : batch) {
+            UserCourse key = new UserCourse(flushed.userId(), flushed.courseId());
+            if (!pending.remove(key, flushed.pending())) {
+                // Reported again during the write: what was flushed is now stored
+                pending.computeIfPresent(key, (k, current) -> new Pending(
+                        Math.max(current.stored(), flushed.pending().progress()), current.progress(),
+                        current.lastAccessed()));
+            }
+        }
+        log.debug("Flushed progress of {} enrollments", batch.size());
+    }
+
+    private int[][] write(List<Progress> batch) {
+        int[][] rows = jdbcTemplate.batchUpdate(UPDATE_PROGRESS, batch, JDBC_BATCH_SIZE, (ps, update) -> {
+            Timestamp lastAccessed = Timestamp.valueOf(update.pending().lastAccessed());
+            ps.setInt(1, update.pending().progress());
+            ps.setTimestamp(2, lastAccessed);
+            ps.setTimestamp(3, lastAccessed);
+            ps.setLong(4, update.userId());
+            ps.setLong(5, update.courseId());
+        });
+        // Published in this transaction, so completions reach their consumers exactly when committed
+        int i = 0;
+        for (int[] chunk : rows) {
+            for (int updated : chunk) {
+                Progress update = batch.get(i++);
+                if ((updated > 0 || updated == Statement.SUCCESS_NO_INFO)
+                        && update.pending().progress() > update.pending().stored()) {
+                    domainEventBus.publish(new ProgressUpdatedEvent(update.userId(), update.courseId(),
+                            update.pending().stored(), update.pending().progress()));
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -1,6 +1,7 @@
 package com.studysync.studysyncbackend.service;
 
 import com.studysync.studysyncbackend.dto.EnrollmentResponseDto;
+import com.studysync.studysyncbackend.event.EnrolledInCourseEvent;
 import com.studysync.studysyncbackend.model.Course;
 import com.studysync.studysyncbackend.model.Enrollment;
 import com.studysync.studysyncbackend.model.User;
@@ -14,7 +15,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +28,9 @@ public class EnrollmentService {
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final CourseService courseService; // Injected
+    private final CourseFetchPlan courseFetchPlan;
+    private final DomainEventBus domainEventBus;
+    private final EnrollmentProgressService enrollmentProgressService;
 
     @Transactional
     public EnrollmentResponseDto enrollUser(Long courseId) {
@@ -47,14 +53,16 @@ public class EnrollmentService {
                 .build();
 
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        domainEventBus.publish(new EnrolledInCourseEvent(user.getId(), courseId));
         return mapToDto(savedEnrollment);
     }
 
     @Transactional(readOnly = true)
     public List<EnrollmentResponseDto> getCurrentUserEnrollments() {
         User currentUser = getCurrentUser();
-        return enrollmentRepository.findByUserId(currentUser.getId())
-                .stream()
+        List<Enrollment> enrollments = enrollmentRepository.findByUserId(currentUser.getId());
+        courseFetchPlan.withTutorAndModules(enrollments.stream().map(Enrollment::getCourse).toList());
+        return enrollments.stream()
                 .map(this::mapToDto)
                 .collect(Collectors.toList());
     }
@@ -65,26 +73,36 @@ public class EnrollmentService {
         return enrollmentRepository.existsByUserIdAndCourseId(currentUser.getId(), courseId);
     }
 
-    @Transactional
+    /**
+     * Records the current user's progress in the course. Written to the database by
+     * the next flush of {@link EnrollmentProgressService}; this node's reads include it
+     * right away.
+     */
     public void updateProgress(Long courseId, int progress) {
         User currentUser = getCurrentUser();
-        Enrollment enrollment = enrollmentRepository.findByUserIdAndCourseId(currentUser.getId(), courseId)
-                .orElseThrow(() -> new EntityNotFoundException("Enrollment not found"));
-
-        enrollment.setProgress(progress);
-        enrollment.setLastAccessed(java.time.LocalDateTime.now());
-        enrollmentRepository.save(enrollment);
+        enrollmentProgressService.record(currentUser.getId(), courseId, progress);
     }
 
     private EnrollmentResponseDto mapToDto(Enrollment enrollment) {
+        int progress = enrollment.getProgress();
+        LocalDateTime lastAccessed = enrollment.getLastAccessed();
+        // Progress reported since the last flush is not in the database yet
+        Optional<EnrollmentProgressService.Pending> pending = enrollmentProgressService.pending(
+                enrollment.getUser().getId(), enrollment.getCourse().getId());
+        if (pending.isPresent()) {
+            progress = Math.max(progress, pending.get().progress());
+            if (lastAccessed == null || pending.get().lastAccessed().isAfter(lastAccessed)) {
+                lastAccessed = pending.get().lastAccessed();
+            }
+        }
         return EnrollmentResponseDto.builder()
                 .id(enrollment.getId())
                 .userId(enrollment.getUser().getId())
                 .courseId(enrollment.getCourse().getId())
                 .courseTitle(enrollment.getCourse().getTitle())
                 .enrolledAt(enrollment.getEnrolledAt())
-                .progress(enrollment.getProgress())
-                .lastAccessed(enrollment.getLastAccessed())
+                .progress(progress)
+                .lastAccessed(lastAccessed)
                 .course(courseService.mapCourseToDto(enrollment.getCourse())) // Map full course
                 .build();
     }
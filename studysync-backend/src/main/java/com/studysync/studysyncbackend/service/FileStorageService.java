@@ -6,70 +6,159 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
 
+/**
+ * Stores uploads by content: a file is hashed while it is staged in the local
+ * incoming directory and kept once in the {@link BlobStore}, as
+ * "{sha256}.{extension}", however often it is uploaded. Reference counting and
+ * cleanup are in {@link StoredBlobService}.
+ */
 @Service
 public class FileStorageService {
 
-    private final Path fileStorageLocation;
+    public static final String INCOMING_DIR = ".incoming";
 
-    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir) {
-        this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+    private final Path incomingLocation;
+    private final BlobStore blobStore;
+    private final StoredBlobService storedBlobService;
+    private final ImageDerivativeService imageDerivativeService;
+
+    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir,
+            BlobStore blobStore,
+            StoredBlobService storedBlobService,
+            ImageDerivativeService imageDerivativeService) {
+        this.incomingLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(INCOMING_DIR);
+        this.blobStore = blobStore;
+        this.storedBlobService = storedBlobService;
+        this.imageDerivativeService = imageDerivativeService;
         try {
-            Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.incomingLocation);
         } catch (Exception ex) {
             throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
         }
     }
 
+    /**
+     * Stores an upload and returns its file name, "{sha256}.{extension}".
+     */
     public String storeFile(MultipartFile file) {
+        String fileName = validateFile(file.getOriginalFilename(), file.getContentType());
+        Path incoming = null;
+        try {
+            // Hash while copying, so the content is read only once
+            incoming = Files.createTempFile(incomingLocation, "upload-", ".tmp");
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, incoming, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return storeVerified(incoming, HexFormat.of().formatHex(digest.digest()), fileName, file.getContentType());
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
+        } finally {
+            deleteQuietly(incoming);
+        }
+    }
+
+    /**
+     * Moves a file whose SHA-256 is already known into the store, or drops it if the
+     * store already has that content. New images are queued for their resized
+     * derivatives.
+     *
+     * @param fileName The validated original name, for its extension.
+     * @return The stored file name, "{sha256}.{extension}", with the extension the
+     *         content was first stored under.
+     */
+    public String storeVerified(Path source, String sha256, String fileName, String contentType) throws IOException {
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
+        long size = Files.size(source);
+        String storedName;
+        boolean created;
+        synchronized (storedBlobService.lockFor(sha256)) {
+            // Registered before the existence check: waits out a collection of the same blob on another node
+            storedName = sha256 + "." + storedBlobService.register(sha256, extension, size, contentType);
+            created = blobStore.stat(storedName).isEmpty();
+            if (created) {
+                blobStore.put(storedName, source, contentType);
+            } else {
+                Files.delete(source);
+            }
+        }
+        if (created) {
+            imageDerivativeService.submit(storedName);
+        }
+        return storedName;
+    }
+
+    /**
+     * Checks an upload's name and declared type against the whitelist.
+     *
+     * @return The cleaned file name.
+     */
+    public String validateFile(String originalFileName, String contentType) {
         // Normalize file name
-        String originalFileName = file.getOriginalFilename();
         if (originalFileName == null) {
             originalFileName = "unnamed_file";
         }
         String fileName = StringUtils.cleanPath(originalFileName);
 
-        try {
-            // Check if the file's name contains invalid characters
-            if (fileName.contains("..")) {
-                throw new RuntimeException("Sorry! Filename contains invalid path sequence " + fileName);
-            }
+        // Check if the file's name contains invalid characters
+        if (fileName.contains("..") || fileName.contains("/")) {
+            throw new IllegalArgumentException("Sorry! Filename contains invalid path sequence " + fileName);
+        }
 
-            // Strict File Type Validation (MIME type & Extension)
-            String contentType = file.getContentType();
-            // Expanded whitelist to include common course materials
-            List<String> allowedMimeTypes = List.of("image/jpeg", "image/png", "image/jpg", "video/mp4",
-                    "application/pdf");
-            if (contentType == null || !allowedMimeTypes.contains(contentType)) {
-                throw new IllegalArgumentException("Invalid file type. Allowed: images (jpeg, png), video (mp4), pdf.");
-            }
+        // Strict File Type Validation (MIME type & Extension)
+        // Expanded whitelist to include common course materials
+        List<String> allowedMimeTypes = List.of("image/jpeg", "image/png", "image/jpg", "video/mp4",
+                "application/pdf");
+        if (contentType == null || !allowedMimeTypes.contains(contentType)) {
+            throw new IllegalArgumentException("Invalid file type. Allowed: images (jpeg, png), video (mp4), pdf.");
+        }
 
-            String fileExtension = "";
-            int i = fileName.lastIndexOf('.');
-            if (i > 0) {
-                fileExtension = fileName.substring(i + 1).toLowerCase();
-            }
-            List<String> allowedExtensions = List.of("jpg", "jpeg", "png", "mp4", "pdf");
-            if (!allowedExtensions.contains(fileExtension)) {
-                throw new IllegalArgumentException("Invalid file extension. Allowed: jpg, jpeg, png, mp4, pdf.");
-            }
+        String fileExtension = "";
+        int i = fileName.lastIndexOf('.');
+        if (i > 0) {
+            fileExtension = fileName.substring(i + 1).toLowerCase();
+        }
+        List<String> allowedExtensions = List.of("jpg", "jpeg", "png", "mp4", "pdf");
+        if (!allowedExtensions.contains(fileExtension)) {
+            throw new IllegalArgumentException("Invalid file extension. Allowed: jpg, jpeg, png, mp4, pdf.");
+        }
+        return fileName;
+    }
 
-            // Generate unique filename
-            String uniqueFileName = UUID.randomUUID().toString() + "_" + fileName;
+    /**
+     * Where partial and in-flight uploads are written before they are stored.
+     */
+    public Path getIncomingLocation() {
+        return incomingLocation;
+    }
 
-            // Copy file to the target location (Replacing existing file with the same name)
-            Path targetLocation = this.fileStorageLocation.resolve(uniqueFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
 
-            return uniqueFileName;
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // A stray temp file in the incoming directory does no harm
         }
     }
 }
@@ -0,0 +1,27 @@
+package com.studysync.studysyncbackend.service;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.TransactionException;
+
+/**
+ * Sorts the failures of write-behind flushes into the database's and the data's.
+ */
+final class FlushFailures {
+
+    private FlushFailures() {
+    }
+
+    /**
+     * True if the write may succeed as is on a later run: timeouts, deadlocks and
+     * unreachable databases. Anything else is taken to be caused by the rows written,
+     * and retrying the same batch would fail forever.
+     */
+    static boolean isRetryable(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof TransactionException;
+    }
+}
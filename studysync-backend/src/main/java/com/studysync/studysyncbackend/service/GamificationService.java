@@ -1,25 +1,34 @@
 package com.studysync.studysyncbackend.service;
 
+import com.studysync.studysyncbackend.event.PointsAwardedEvent;
 import com.studysync.studysyncbackend.model.Badge;
-import com.studysync.studysyncbackend.model.EarnedBadge;
-import com.studysync.studysyncbackend.model.User;
-import com.studysync.studysyncbackend.repository.BadgeRepository;
-import com.studysync.studysyncbackend.repository.EarnedBadgeRepository;
 import com.studysync.studysyncbackend.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j; // Import Slf4j for logging
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j // Lombok annotation for easy logging (adds a 'log' object)
 public class GamificationService {
 
+    private static final String INSERT_EARNED_BADGE =
+            "INSERT IGNORE INTO earned_badges (user_id, badge_id, earned_at) VALUES (?, ?, ?)";
+    private static final String COUNT_EARNED_BADGE =
+            "SELECT COUNT(*) FROM earned_badges WHERE user_id = ? AND badge_id = ?";
+
     private final UserRepository userRepository;
-    private final BadgeRepository badgeRepository;
-    private final EarnedBadgeRepository earnedBadgeRepository;
+    private final BadgeCatalog badgeCatalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final DomainEventBus domainEventBus;
 
     /**
      * Adds the specified number of points to a user.
@@ -27,50 +36,81 @@ public class GamificationService {
      * @param userId The ID of the user to award points to.
      * @param pointsToAdd The number of points to add (can be negative).
      */
-    @Transactional
     public void addPoints(Long userId, long pointsToAdd) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+        addPoints(userId, pointsToAdd, null);
+    }
 
-        user.setPoints(user.getPoints() + pointsToAdd);
-        userRepository.save(user); // Save the updated user
-        log.info("Awarded {} points to user ID {}. Total points: {}", pointsToAdd, userId, user.getPoints());
+    /**
+     * Adds the specified number of points to a user. The award is recorded in the points
+     * ledger once the caller's transaction (if any) commits, and reaches users.points
+     * with the ledger's next flush.
+     *
+     * @param userId The ID of the user to award points to.
+     * @param pointsToAdd The number of points to add (can be negative).
+     * @param reason What the points are for (kept in the ledger), or null.
+     */
+    public void addPoints(Long userId, long pointsToAdd, String reason) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found with id: " + userId);
+        }
+        domainEventBus.publish(new PointsAwardedEvent(userId, pointsToAdd, reason));
+        log.info("Awarded {} points to user ID {}", pointsToAdd, userId);
     }
 
     /**
-     * Awards a specific badge to a user if they haven't earned it already.
+     * Awards a specific badge to a user if they haven't earned it already. Whether they
+     * have is answered by BadgeCatalog, which learns of the award once it commits; a
+     * concurrent duplicate award is absorbed by the (user_id, badge_id) unique key.
+     * IGNORE also turns a foreign key error into a warning, so the badge is only
+     * remembered as earned once its row is known to exist.
      *
      * @param userId    The ID of the user to award the badge to.
      * @param badgeCode The unique code of the badge to award (e.g., "COURSE_FINISHER").
      */
     @Transactional
     public void awardBadge(Long userId, String badgeCode) {
-        // Check if user already has the badge
-        if (earnedBadgeRepository.existsByUser_IdAndBadge_BadgeCode(userId, badgeCode)) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found with id: " + userId);
+        }
+        Badge badge = badgeCatalog.find(badgeCode)
+                .orElseThrow(() -> new EntityNotFoundException("Badge not found with code: " + badgeCode));
+        if (badgeCatalog.hasEarned(userId, badge)) {
             log.debug("User ID {} already has badge {}", userId, badgeCode);
             return; // Already earned, do nothing
         }
 
-        // Find the user and badge definitions
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
-        Badge badge = badgeRepository.findByBadgeCode(badgeCode)
-                .orElseThrow(() -> new EntityNotFoundException("Badge not found with code: " + badgeCode));
+        int inserted = jdbcTemplate.update(INSERT_EARNED_BADGE, userId, badge.getId(), Timestamp.valueOf(LocalDateTime.now()));
+        if (inserted > 0) {
+            log.info("Awarded badge '{}' ({}) to user ID {}", badge.getName(), badgeCode, userId);
+        } else if (!hasRow(userId, badge)) {
+            // Ignored for another reason than a duplicate: the user was deleted meanwhile
+            throw new EntityNotFoundException("User not found with id: " + userId);
+        }
+        markEarnedAfterCommit(userId, badge);
+    }
 
-        // Create the EarnedBadge record
-        EarnedBadge earnedBadge = EarnedBadge.builder()
-                .user(user)
-                .badge(badge)
-                // earnedAt is set automatically by @PrePersist
-                .build();
+    private boolean hasRow(Long userId, Badge badge) {
+        Integer rows = jdbcTemplate.queryForObject(COUNT_EARNED_BADGE, Integer.class, userId, badge.getId());
+        return rows != null && rows > 0;
+    }
 
-        earnedBadgeRepository.save(earnedBadge);
-        log.info("Awarded badge '{}' ({}) to user ID {}", badge.getName(), badgeCode, userId);
+    // A rolled back award must not be remembered as earned, or it could never be awarded again
+    private void markEarnedAfterCommit(Long userId, Badge badge) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    badgeCatalog.markEarned(userId, badge);
+                }
+            });
+        } else {
+            badgeCatalog.markEarned(userId, badge);
+        }
     }
 
     // --- Methods to retrieve gamification data can be added later ---
     // public long getUserPoints(Long userId) { ... }
     // public List<EarnedBadgeDto> getUserBadges(Long userId) { ... }
-    // public List<LeaderboardEntryDto> getLeaderboard() { ... }
+    // Leaderboards are served by LeaderboardService; rule-based badges are awarded by BadgeEngine
 
 }
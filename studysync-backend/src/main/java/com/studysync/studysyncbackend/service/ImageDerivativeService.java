@@ -0,0 +1,317 @@
+package com.studysync.studysyncbackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Resized copies of uploaded images, so pages can ask for a thumbnail-sized variant
+ * instead of the full-size original.
+ * <p>
+ * Every stored JPEG or PNG gets one derivative per configured width, stored in the
+ * {@link BlobStore} as "{name}_w{width}.{ext}" and re-encoded in the same format.
+ * Widths the original does not exceed are copies of it (hard links in a local
+ * store), so every variant exists once generation has run. Generation runs on a small bounded pool: decoding and
+ * scaling are CPU-bound, and a full queue rejects the job rather than piling up
+ * decoded images in memory. A variant that is requested but missing (rejected or not
+ * done yet) is served as the original and queued again.
+ */
+@Service
+@Slf4j
+public class ImageDerivativeService {
+
+    // Refuse to decode anything bigger; a small PNG can declare an enormous canvas
+    private static final long MAX_PIXELS = 50_000_000L;
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final Pattern DERIVATIVE_NAME = Pattern.compile(".*_w\\d+\\.[A-Za-z]+$");
+    // Names that failed to decode are not retried on every request; cleared when full
+    private static final int MAX_REMEMBERED_FAILURES = 10_000;
+
+    private final BlobStore blobStore;
+    private final Path incomingDir;
+    private final int[] widths;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private final Timer latency;
+    private final Counter rejected;
+    private final Counter failures;
+
+    /**
+     * The file to serve for a requested width.
+     *
+     * @param exact false when the original is served because the variant is not ready.
+     */
+    public record Variant(String fileName, boolean exact) {
+    }
+
+    public ImageDerivativeService(BlobStore blobStore,
+            @Value("${file.upload-dir:uploads}") String uploadDir,
+            @Value("${media.derivatives.widths:160,320,640,1280}") int[] widths,
+            @Value("${media.derivatives.threads:2}") int threads,
+            @Value("${media.derivatives.queue-capacity:200}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        if (widths.length == 0 || Arrays.stream(widths).anyMatch(width -> width < 1)) {
+            throw new IllegalArgumentException("media.derivatives.widths must list positive widths.");
+        }
+        this.blobStore = blobStore;
+        this.incomingDir = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(FileStorageService.INCOMING_DIR);
+        this.widths = Arrays.stream(widths).sorted().distinct().toArray();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("media.derivatives.queue.depth", executor, e -> e.getQueue().size())
+                .description("Images waiting for their derivatives")
+                .register(meterRegistry);
+        Gauge.builder("media.derivatives.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Images whose derivatives are being generated")
+                .register(meterRegistry);
+        this.latency = Timer.builder("media.derivatives.latency")
+                .description("Time from queueing an image to all its derivatives being written")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("media.derivatives.rejected")
+                .description("Images not queued because the queue was full")
+                .register(meterRegistry);
+        this.failures = Counter.builder("media.derivatives.failed")
+                .description("Images whose derivatives could not be generated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues derivative generation for a stored file; anything but JPEG and PNG is
+     * ignored.
+     *
+     * @return false if the file is no image or the queue is full.
+     */
+    public boolean submit(String fileName) {
+        if (format(fileName) == null || failed.contains(fileName)) {
+            return false;
+        }
+        if (!inFlight.add(fileName)) {
+            return true;
+        }
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(fileName);
+                } catch (Exception ex) {
+                    failures.increment();
+                    if (failed.size() >= MAX_REMEMBERED_FAILURES) {
+                        failed.clear();
+                    }
+                    failed.add(fileName);
+                    log.warn("Could not generate derivatives of {}: {}", fileName, ex.toString());
+                } finally {
+                    inFlight.remove(fileName);
+                    latency.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(fileName);
+            rejected.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Picks the file for a page asking for an image about {@code width} pixels wide:
+     * the smallest derivative at least that wide, or the largest one.
+     *
+     * @throws IllegalArgumentException if the width is not positive.
+     */
+    public Variant resolve(String fileName, int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Width must be positive.");
+        }
+        if (format(fileName) == null) {
+            return new Variant(fileName, true);
+        }
+        int chosen = widths[widths.length - 1];
+        for (int candidate : widths) {
+            if (candidate >= width) {
+                chosen = candidate;
+                break;
+            }
+        }
+        String derivative = derivativeName(fileName, chosen);
+        try {
+            if (blobStore.stat(derivative).isPresent()) {
+                return new Variant(derivative, true);
+            }
+            if (blobStore.stat(fileName).isPresent()) {
+                submit(fileName);
+            }
+        } catch (IOException ex) {
+            log.warn("Could not look up derivatives of {}: {}", fileName, ex.toString());
+        }
+        return new Variant(fileName, false);
+    }
+
+    /**
+     * Names of all derivatives the file may have; none for files that are no image.
+     */
+    public List<String> derivativeNames(String fileName) {
+        if (format(fileName) == null) {
+            return List.of();
+        }
+        return Arrays.stream(widths).mapToObj(width -> derivativeName(fileName, width)).toList();
+    }
+
+    /**
+     * Writes every missing derivative of the file, on the calling thread.
+     */
+    void generate(String fileName) throws IOException {
+        String format = format(fileName);
+        BufferedImage image;
+        try (InputStream in = blobStore.get(fileName)) {
+            image = read(in);
+        }
+        if (image == null) {
+            throw new IOException("Unsupported image");
+        }
+        String contentType = "image/" + format;
+        // Largest first, each scaled from the one before, which is both faster and smoother
+        BufferedImage source = image;
+        for (int i = widths.length - 1; i >= 0; i--) {
+            int width = widths[i];
+            String target = derivativeName(fileName, width);
+            if (width >= image.getWidth()) {
+                if (blobStore.stat(target).isEmpty()) {
+                    blobStore.copy(fileName, target);
+                }
+                continue;
+            }
+            source = scale(source, width, format.equals("png"));
+            if (blobStore.stat(target).isEmpty()) {
+                Path temp = Files.createTempFile(incomingDir, "derivative-", ".tmp");
+                try {
+                    write(source, format, temp);
+                    blobStore.put(target, temp, contentType);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * "lecture.jpg" with width 320 is "lecture_w320.jpg".
+     */
+    public static String derivativeName(String fileName, int width) {
+        int dot = fileName.lastIndexOf('.');
+        return fileName.substring(0, dot) + "_w" + width + fileName.substring(dot);
+    }
+
+    // The ImageIO format to re-encode in, or null for files that get no derivatives
+    private static String format(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || DERIVATIVE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        return switch (fileName.substring(dot + 1).toLowerCase(Locale.ROOT)) {
+            case "jpg", "jpeg" -> "jpeg";
+            case "png" -> "png";
+            default -> null;
+        };
+    }
+
+    private static BufferedImage read(InputStream source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    throw new IOException("Image is larger than " + MAX_PIXELS + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves the image until it is within 2x of the target, then scales bilinearly, which avoids the aliasing of a single big step
+    private static BufferedImage scale(BufferedImage image, int width, boolean alpha) {
+        BufferedImage current = image;
+        do {
+            int stepWidth = Math.max(width, current.getWidth() / 2);
+            int stepHeight = Math.max(1, (int) Math.round((double) current.getHeight() * stepWidth / current.getWidth()));
+            BufferedImage next = new BufferedImage(stepWidth, stepHeight,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (current.getWidth() > width);
+        return current;
+    }
+
+    private static void write(BufferedImage image, String format, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (format.equals("jpeg")) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package com.studysync.studysyncbackend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value; // Import Value annotation
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
@@ -26,6 +36,59 @@ public class JwtService {
     @Value("${application.security.jwt.expiration}") // Read expiration time from properties
     private long jwtExpiration;
 
+    // Upper bound on the number of verified tokens remembered at once
+    @Value("${application.security.jwt.token-cache.max-size:10000}")
+    private long tokenCacheMaxSize;
+
+    private Key signingKey;
+    private JwtParser parser;
+    // SHA-256 of the token -> its verified subject, each entry expiring with its token
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    private record VerifiedToken(String username, long expiresAtMillis) {
+    }
+
+    // Decodes the key and builds the parser once instead of on every call
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long remaining = token.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Returns the username of a token whose signature and expiry have been checked.
+     * The token is parsed and verified once; later calls with the same token are
+     * answered from memory until it expires.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired.
+     */
+    public String extractVerifiedUsername(String token) {
+        return verifiedTokens.get(hash(token), key -> {
+            Claims claims = extractAllClaims(token);
+            return new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime());
+        }).username();
+    }
+
 
     // Extracts the username (email in our case) from the token
     public String extractUsername(String token) {
@@ -70,33 +133,34 @@ public class JwtService {
 
     // Validates if the token belongs to the user and is not expired
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final Claims claims = extractAllClaims(token); // Parse and verify once for both checks
+        return (claims.getSubject().equals(userDetails.getUsername())) && !isTokenExpired(claims);
     }
 
     // Checks if the token has expired
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    // Extracts the expiration date from the token
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     // Extracts all claims from the token payload
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     // Gets the signing key used for verifying the token's signature
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
+    }
+
+    // Tokens are cached by digest so the cache never holds usable credentials
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,345 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.dto.LeaderboardEntryDto;
+import com.studysync.studysyncbackend.event.EnrolledInCourseEvent;
+import com.studysync.studysyncbackend.event.PointsAwardedEvent;
+import com.studysync.studysyncbackend.model.User;
+import com.studysync.studysyncbackend.repository.EnrollmentRepository;
+import com.studysync.studysyncbackend.repository.PointEventRepository;
+import com.studysync.studysyncbackend.repository.UserRepository;
+import com.studysync.studysyncbackend.service.RankedSkipList.Entry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory leaderboards: all-time points, points earned this week (from Monday),
+ * and all-time points among each course's students.
+ * <p>
+ * Each board is a {@link RankedSkipList}, so top-K, a user's rank and the users
+ * around them cost O(log n) instead of an {@code ORDER BY points} over the users
+ * table. Boards are seeded from the database once the application is ready, follow
+ * committed {@link PointsAwardedEvent}s and {@link EnrolledInCourseEvent}s, and are
+ * periodically reconciled with the database (users.points, and point_events for the
+ * weekly board) to repair any drift, including points awarded on other nodes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+    public static final int DEFAULT_RADIUS = 5;
+    public static final int MAX_RADIUS = 50;
+
+    private static final RankedSkipList EMPTY = new RankedSkipList();
+
+    public enum Period {
+        ALL_TIME, WEEKLY
+    }
+
+    private final UserRepository userRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final PointEventRepository pointEventRepository;
+    private final PointsLedgerService pointsLedgerService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RankedSkipList allTime = new RankedSkipList();
+    private final RankedSkipList weekly = new RankedSkipList();
+    private LocalDate week = weekOf(LocalDate.now());
+    // courseId -> board of its students, userId -> courses they are enrolled in
+    private Map<Long, RankedSkipList> courses = new HashMap<>();
+    private Map<Long, Set<Long>> coursesByUser = new HashMap<>();
+    // Users changed by events while a reconciliation reads the database; it leaves them alone
+    private final Set<Long> touched = new HashSet<>();
+    private boolean reconciling;
+
+    /**
+     * The best users of the period, best first.
+     */
+    public List<LeaderboardEntryDto> top(Period period, int limit) {
+        int count = limit(limit, MAX_LIMIT);
+        return read(() -> board(period).range(1, count));
+    }
+
+    /**
+     * The user with up to {@code radius} users ranked directly above and below them;
+     * empty if the user is not on the board.
+     */
+    public List<LeaderboardEntryDto> around(Period period, Long userId, int radius) {
+        int width = radius(radius);
+        return read(() -> window(board(period), userId, width));
+    }
+
+    /**
+     * The best students of the course by all-time points; empty if nobody is enrolled.
+     */
+    public List<LeaderboardEntryDto> courseTop(Long courseId, int limit) {
+        int count = limit(limit, MAX_LIMIT);
+        return read(() -> courses.getOrDefault(courseId, EMPTY).range(1, count));
+    }
+
+    /**
+     * Like {@link #around}, among the course's students.
+     */
+    public List<LeaderboardEntryDto> courseAround(Long courseId, Long userId, int radius) {
+        int width = radius(radius);
+        return read(() -> window(courses.getOrDefault(courseId, EMPTY), userId, width));
+    }
+
+    /**
+     * The user's 1-based all-time rank, or 0 if they are not on the board.
+     */
+    public int rank(Long userId) {
+        lock.readLock().lock();
+        try {
+            return allTime.rank(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies committed points to every board the user is on.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPointsAwarded(PointsAwardedEvent event) {
+        lock.writeLock().lock();
+        try {
+            touch(event.userId());
+            long total = allTime.add(event.userId(), event.points());
+            for (Long courseId : coursesByUser.getOrDefault(event.userId(), Collections.emptySet())) {
+                courses.get(courseId).put(event.userId(), total);
+            }
+            LocalDate current = weekOf(LocalDate.now());
+            if (!current.equals(week)) {
+                weekly.clear();
+                week = current;
+            }
+            weekly.add(event.userId(), event.points());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrolled(EnrolledInCourseEvent event) {
+        lock.writeLock().lock();
+        try {
+            touch(event.userId());
+            enroll(courses, coursesByUser, event.userId(), event.courseId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads every user's points, this week's point totals and every enrollment from
+     * the database and corrects the boards. Users changed by events during the read, or
+     * with points the ledger has not flushed yet, keep their in-memory state.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${leaderboard.reconcile-interval-ms:300000}",
+            fixedDelayString = "${leaderboard.reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        lock.writeLock().lock();
+        try {
+            touched.clear();
+            reconciling = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LocalDate currentWeek = weekOf(LocalDate.now());
+        List<UserRepository.PointsRow> points = null;
+        List<PointEventRepository.UserTotalRow> weeklyPoints = null;
+        List<EnrollmentRepository.MembershipRow> memberships = null;
+        try {
+            // Awards made before tracking started must be in the database for the read
+            pointsLedgerService.flush();
+            points = userRepository.findAllPoints();
+            weeklyPoints = pointEventRepository.sumPointsSince(currentWeek.atStartOfDay());
+            memberships = enrollmentRepository.findAllMemberships();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (memberships != null) {
+                    apply(points, currentWeek, weeklyPoints, memberships);
+                }
+                reconciling = false;
+                touched.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Called with the write lock held
+    private void apply(List<UserRepository.PointsRow> points, LocalDate currentWeek,
+            List<PointEventRepository.UserTotalRow> weeklyPoints, List<EnrollmentRepository.MembershipRow> memberships) {
+        Set<Long> known = new HashSet<>();
+        int corrected = 0;
+        for (UserRepository.PointsRow row : points) {
+            known.add(row.getId());
+            if (isInFlight(row.getId())) {
+                continue;
+            }
+            Long current = allTime.score(row.getId());
+            if (current == null || current != row.getPoints()) {
+                corrected += current == null ? 0 : 1;
+                allTime.put(row.getId(), row.getPoints());
+            }
+        }
+        List<Long> gone = new ArrayList<>();
+        for (Long userId : allTime.ids()) {
+            if (!known.contains(userId) && !isInFlight(userId)) {
+                gone.add(userId);
+            }
+        }
+        gone.forEach(allTime::remove);
+
+        if (!currentWeek.equals(week)) {
+            weekly.clear();
+            week = currentWeek;
+        }
+        Set<Long> scoredThisWeek = new HashSet<>();
+        for (PointEventRepository.UserTotalRow row : weeklyPoints) {
+            scoredThisWeek.add(row.getUserId());
+            if (!isInFlight(row.getUserId())) {
+                weekly.put(row.getUserId(), row.getPoints());
+            }
+        }
+        List<Long> notThisWeek = new ArrayList<>();
+        for (Long userId : weekly.ids()) {
+            if (!scoredThisWeek.contains(userId) && !isInFlight(userId)) {
+                notThisWeek.add(userId);
+            }
+        }
+        notThisWeek.forEach(weekly::remove);
+
+        // Course boards are rebuilt; enrollments made during the read are carried over
+        Map<Long, RankedSkipList> newCourses = new HashMap<>();
+        Map<Long, Set<Long>> newCoursesByUser = new HashMap<>();
+        for (EnrollmentRepository.MembershipRow row : memberships) {
+            enroll(newCourses, newCoursesByUser, row.getUserId(), row.getCourseId());
+        }
+        for (Long userId : touched) {
+            for (Long courseId : coursesByUser.getOrDefault(userId, Collections.emptySet())) {
+                enroll(newCourses, newCoursesByUser, userId, courseId);
+            }
+        }
+        courses = newCourses;
+        coursesByUser = newCoursesByUser;
+
+        if (corrected > 0 || !gone.isEmpty()) {
+            log.warn("Leaderboard reconciliation corrected {} users and removed {}", corrected, gone.size());
+        }
+        log.debug("Leaderboard reconciled: {} users, {} course boards", allTime.size(), courses.size());
+    }
+
+    private void enroll(Map<Long, RankedSkipList> boards, Map<Long, Set<Long>> byUser, Long userId, Long courseId) {
+        Long points = allTime.score(userId);
+        boards.computeIfAbsent(courseId, id -> new RankedSkipList()).put(userId, points == null ? 0 : points);
+        byUser.computeIfAbsent(userId, id -> new HashSet<>()).add(courseId);
+    }
+
+    // True if the database read may not include the user's latest points
+    private boolean isInFlight(Long userId) {
+        return touched.contains(userId) || pointsLedgerService.pendingPoints(userId) != 0;
+    }
+
+    private void touch(Long userId) {
+        if (reconciling) {
+            touched.add(userId);
+        }
+    }
+
+    // Called with the read lock held
+    private RankedSkipList board(Period period) {
+        if (period == Period.WEEKLY) {
+            // Nobody has scored yet this week if the board still holds last week
+            return week.equals(weekOf(LocalDate.now())) ? weekly : EMPTY;
+        }
+        return allTime;
+    }
+
+    private static List<Entry> window(RankedSkipList board, Long userId, int radius) {
+        int rank = board.rank(userId);
+        if (rank == 0) {
+            return Collections.emptyList();
+        }
+        int from = Math.max(1, rank - radius);
+        return board.range(from, rank - from + radius + 1);
+    }
+
+    // Ranks under the read lock, then loads the users' names outside it
+    private List<LeaderboardEntryDto> read(Supplier<List<Entry>> ranking) {
+        List<Entry> entries;
+        lock.readLock().lock();
+        try {
+            entries = ranking.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(entries.stream().map(Entry::id).toList())) {
+            users.put(user.getId(), user);
+        }
+        List<LeaderboardEntryDto> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            User user = users.get(entry.id());
+            if (user != null) {
+                result.add(LeaderboardEntryDto.builder()
+                        .rank(entry.rank())
+                        .userId(user.getId())
+                        .firstName(user.getFirstName())
+                        .lastName(user.getLastName())
+                        .avatarUrl(user.getAvatarUrl())
+                        .points(entry.score())
+                        .build());
+            }
+        }
+        return result;
+    }
+
+    private static int limit(int requested, int max) {
+        if (requested < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1.");
+        }
+        return Math.min(requested, max);
+    }
+
+    private static int radius(int requested) {
+        if (requested < 0) {
+            throw new IllegalArgumentException("Radius cannot be negative.");
+        }
+        return Math.min(requested, MAX_RADIUS);
+    }
+
+    private static LocalDate weekOf(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,107 @@
+package com.studysync.studysyncbackend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * Objects as files in one directory, the upload directory of this node. The content
+ * type is not stored; it is derived from the extension when serving.
+ */
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not create the directory where the uploaded files will be stored.", ex);
+        }
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        Files.move(source, resolve(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * A hard link where the file system has them, else a copy.
+     */
+    @Override
+    public void copy(String sourceKey, String targetKey) throws IOException {
+        Path source = resolve(sourceKey);
+        Path target = resolve(targetKey);
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | IOException ex) {
+            if (!Files.exists(target)) {
+                Files.copy(source, target);
+            }
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(existing(key));
+    }
+
+    @Override
+    public InputStream getRange(String key, long start, long length) throws IOException {
+        FileChannel channel = FileChannel.open(existing(key), StandardOpenOption.READ);
+        channel.position(start);
+        return new BoundedInputStream(Channels.newInputStream(channel), length);
+    }
+
+    @Override
+    public Optional<BlobStat> stat(String key) {
+        if (!BlobStore.isValidKey(key)) {
+            return Optional.empty();
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(root.resolve(key), BasicFileAttributes.class,
+                    LinkOption.NOFOLLOW_LINKS);
+            if (!attributes.isRegularFile()) {
+                return Optional.empty();
+            }
+            return Optional.of(new BlobStat(attributes.size(), attributes.lastModifiedTime().toMillis(), null));
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return BlobStore.isValidKey(key) ? Optional.of(root.resolve(key)) : Optional.empty();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    private Path resolve(String key) {
+        return root.resolve(BlobStore.checkKey(key));
+    }
+
+    private Path existing(String key) throws NoSuchFileException {
+        if (stat(key).isEmpty()) {
+            throw new NoSuchFileException(key);
+        }
+        return root.resolve(key);
+    }
+}
@@ -0,0 +1,242 @@
+package com.studysync.studysyncbackend.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads uploaded files for the media endpoints: looks names up in the
+ * {@link BlobStore}, derives validators (ETag, Last-Modified), parses byte ranges and
+ * copies file regions. Files of a local store are copied with
+ * {@link FileChannel#transferTo} into the response stream; since the target is an
+ * {@link OutputStream} and not a socket channel, the JDK still copies the bytes
+ * through a buffer (only Tomcat's sendfile, see MediaResponseWriter, avoids that).
+ * A remote store is read with ranged GETs.
+ */
+@Service
+public class MediaFileService {
+
+    // More ranges than this in one request is treated as abuse and answered with the whole file
+    public static final int MAX_RANGES = 16;
+
+    private final BlobStore blobStore;
+
+    public MediaFileService(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    /**
+     * An uploaded file with the metadata needed to serve it.
+     *
+     * @param path         The file on this node, or null if the store is remote.
+     * @param lastModified Epoch millis, truncated to seconds as HTTP dates are.
+     */
+    public record MediaFile(String name, Path path, long size, long lastModified, String etag, MediaType contentType) {
+    }
+
+    /**
+     * A closed byte interval of a file.
+     */
+    public record ByteRange(long start, long end) {
+        public long length() {
+            return end - start + 1;
+        }
+    }
+
+    /**
+     * Looks up an uploaded file by name.
+     *
+     * @throws EntityNotFoundException if the store has no such file.
+     */
+    public MediaFile open(String fileName) {
+        BlobStore.BlobStat stat;
+        try {
+            stat = blobStore.stat(fileName)
+                    .orElseThrow(() -> new EntityNotFoundException("File not found " + fileName));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        long size = stat.size();
+        long lastModified = stat.lastModified() / 1000 * 1000;
+        // A content-addressed name is the strongest validator there is
+        String etag = StoredBlobService.digestOf(fileName)
+                .map(digest -> "\"" + digest + "\"")
+                .orElseGet(() -> "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"");
+        MediaType contentType = MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return new MediaFile(fileName, blobStore.localPath(fileName).orElse(null), size, lastModified, etag,
+                contentType);
+    }
+
+    /**
+     * Where to send the client for the file when this node should not serve it.
+     *
+     * @param contentDisposition Content-Disposition for the signed response, or null.
+     */
+    public Optional<URI> signedUrl(String fileName, String contentDisposition) {
+        return blobStore.signedUrl(fileName, contentDisposition);
+    }
+
+    /**
+     * Whether the client's cached copy is current, per If-None-Match or, without it,
+     * If-Modified-Since (-1 when absent).
+     */
+    public boolean isNotModified(MediaFile file, String ifNoneMatch, long ifModifiedSince) {
+        if (ifNoneMatch != null) {
+            return matchesEtag(file, ifNoneMatch, true);
+        }
+        return ifModifiedSince >= 0 && file.lastModified() <= ifModifiedSince;
+    }
+
+    /**
+     * Whether a Range request may be honoured given its If-Range validator (an ETag or
+     * an HTTP date, -1 when not a date). Ranges of a changed file must not be mixed with
+     * the client's stale copy.
+     */
+    public boolean isRangeApplicable(MediaFile file, String ifRange, long ifRangeDate) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return matchesEtag(file, ifRange, false);
+        }
+        return ifRangeDate >= 0 && file.lastModified() == ifRangeDate;
+    }
+
+    /**
+     * Parses a Range header into satisfiable ranges, ascending, with overlapping and
+     * adjacent ranges merged.
+     *
+     * @return null if the header is absent, malformed, asks for too many ranges or for
+     * more bytes in total than the file has (serve the whole file); an empty list if no
+     * range overlaps the file (416).
+     */
+    public List<ByteRange> parseRanges(String header, long size) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        String[] specs = header.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+        long requested = 0;
+        for (String spec : specs) {
+            String trimmed = spec.trim();
+            int dash = trimmed.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                String first = trimmed.substring(0, dash);
+                String last = trimmed.substring(dash + 1);
+                if (first.isEmpty()) {
+                    // Suffix range: the last N bytes
+                    long suffix = Long.parseLong(last);
+                    if (suffix > 0 && size > 0) {
+                        ByteRange range = new ByteRange(Math.max(0, size - suffix), size - 1);
+                        ranges.add(range);
+                        requested += range.length();
+                    }
+                    continue;
+                }
+                long start = Long.parseLong(first);
+                long end = last.isEmpty() ? size - 1 : Long.parseLong(last);
+                if (start < 0 || end < start) {
+                    return null;
+                }
+                if (start < size) {
+                    ByteRange range = new ByteRange(start, Math.min(end, size - 1));
+                    ranges.add(range);
+                    requested += range.length();
+                }
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+        // Overlapping ranges would make the response larger than the file
+        if (requested > size) {
+            return null;
+        }
+        return merge(ranges);
+    }
+
+    private static List<ByteRange> merge(List<ByteRange> ranges) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+        ranges.sort(Comparator.comparingLong(ByteRange::start));
+        List<ByteRange> merged = new ArrayList<>(ranges.size());
+        ByteRange current = ranges.get(0);
+        for (ByteRange next : ranges.subList(1, ranges.size())) {
+            if (next.start() <= current.end() + 1) {
+                current = new ByteRange(current.start(), Math.max(current.end(), next.end()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    /**
+     * Copies a region of the file to the output, with {@link FileChannel#transferTo}
+     * for a local file (a buffered copy, as the target is a stream).
+     */
+    public void transfer(MediaFile file, ByteRange range, OutputStream out) throws IOException {
+        if (file.path() == null) {
+            try (InputStream in = blobStore.getRange(file.name(), range.start(), range.length())) {
+                if (in.transferTo(out) != range.length()) {
+                    throw new IOException("File shrank while being served: " + file.name());
+                }
+            }
+            return;
+        }
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            long position = range.start();
+            long remaining = range.length();
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    throw new IOException("File shrank while being served: " + file.path().getFileName());
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static boolean matchesEtag(MediaFile file, String header, boolean weak) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (weak && tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(file.etag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
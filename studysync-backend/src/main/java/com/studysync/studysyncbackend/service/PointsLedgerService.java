@@ -0,0 +1,168 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.event.DomainEvent;
+import com.studysync.studysyncbackend.event.DomainEventConsumer;
+import com.studysync.studysyncbackend.event.PointsAwardedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind ledger of awarded points.
+ * <p>
+ * A committed {@link PointsAwardedEvent}, delivered through DomainEventBus with retry,
+ * is only queued and added to a striped per-user accumulator, so concurrent awards to
+ * one user neither lose updates nor contend on the user row. A scheduled flush then writes the queue in one
+ * transaction: a batch insert into the append-only point_events table, and one
+ * {@code UPDATE users SET points = points + ?} per user with the sum of their events.
+ * {@link #pendingPoints} is what has been awarded but not flushed yet.
+ * <p>
+ * A flush that fails for a reason of the database keeps the awards queued. One that
+ * fails on the data is retried one user at a time, and the awards of a user that still
+ * fail are logged and dropped so they cannot block the queue.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PointsLedgerService implements DomainEventConsumer {
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO point_events (user_id, points, reason, created_at) VALUES (?, ?, ?, ?)";
+    private static final String INCREMENT_POINTS =
+            "UPDATE users SET points = points + ? WHERE id = ?";
+    private static final int JDBC_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Queue<Award> unflushedAwards = new ConcurrentLinkedQueue<>();
+    // userId -> points not yet in users.points. Adders are kept once created: removing
+    // one could race with a concurrent award and lose it.
+    private final Map<Long, LongAdder> pendingPoints = new ConcurrentHashMap<>();
+
+    record Award(Long userId, long points, String reason, LocalDateTime createdAt) {
+    }
+
+    @Override
+    public String name() {
+        return "points-ledger";
+    }
+
+    @Override
+    public boolean accepts(DomainEvent event) {
+        return event instanceof PointsAwardedEvent;
+    }
+
+    /**
+     * Acknowledges the award once it is queued; the next flush makes it durable.
+     */
+    @Override
+    public void consume(DomainEvent event) {
+        if (!(event instanceof PointsAwardedEvent award)) {
+            throw new IllegalArgumentException("Unexpected event: " + event);
+        }
+        onPointsAwarded(award);
+    }
+
+    void onPointsAwarded(PointsAwardedEvent event) {
+        pendingPoints.computeIfAbsent(event.userId(), id -> new LongAdder()).add(event.points());
+        unflushedAwards.add(new Award(event.userId(), event.points(), event.reason(), LocalDateTime.now()));
+    }
+
+    /**
+     * Points awarded to the user that are not in the database yet.
+     */
+    public long pendingPoints(Long userId) {
+        LongAdder points = pendingPoints.get(userId);
+        return points == null ? 0 : points.sum();
+    }
+
+    /**
+     * Writes queued awards to the database. Runs on a fixed delay and once more on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${gamification.points.flush-interval-ms:1000}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<Award> batch = new ArrayList<>();
+        for (Award award; (award = unflushedAwards.poll()) != null; ) {
+            batch.add(award);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Sorted by user id so concurrent flushes on several nodes lock rows in the same order
+        Map<Long, Long> increments = new TreeMap<>();
+        for (Award award : batch) {
+            increments.merge(award.userId(), award.points(), Long::sum);
+        }
+        try {
+            transactionTemplate.execute(status -> write(batch, increments));
+        } catch (RuntimeException ex) {
+            if (FlushFailures.isRetryable(ex)) {
+                // Nothing was committed: keep the awards pending and retry on the next run
+                log.warn("Could not flush {} point awards, will retry", batch.size(), ex);
+                unflushedAwards.addAll(batch);
+                return;
+            }
+            log.warn("Could not flush {} point awards, writing them one user at a time", batch.size(), ex);
+            flushEach(batch, increments);
+            return;
+        }
+
+        increments.forEach(this::settle);
+        log.debug("Flushed {} point awards for {} users", batch.size(), increments.size());
+    }
+
+    // Isolates the users whose awards can never be written (e.g. a deleted user) and drops them
+    private void flushEach(List<Award> batch, Map<Long, Long> increments) {
+        increments.forEach((userId, points) -> {
+            List<Award> awards = batch.stream().filter(award -> award.userId().equals(userId)).toList();
+            try {
+                transactionTemplate.execute(status -> write(awards, Map.of(userId, points)));
+            } catch (RuntimeException ex) {
+                if (FlushFailures.isRetryable(ex)) {
+                    unflushedAwards.addAll(awards);
+                    return;
+                }
+                log.error("Dropping {} point awards ({} points) of user {} that cannot be written",
+                        awards.size(), points, userId, ex);
+            }
+            settle(userId, points);
+        });
+    }
+
+    // The points are in users.points now, or never will be
+    private void settle(Long userId, long points) {
+        pendingPoints.get(userId).add(-points);
+    }
+
+    private int[][] write(List<Award> batch, Map<Long, Long> increments) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT, batch, JDBC_BATCH_SIZE, (ps, award) -> {
+            ps.setLong(1, award.userId());
+            ps.setLong(2, award.points());
+            ps.setString(3, award.reason());
+            ps.setTimestamp(4, Timestamp.valueOf(award.createdAt()));
+        });
+        List<Map.Entry<Long, Long>> updates = new ArrayList<>(increments.entrySet());
+        return jdbcTemplate.batchUpdate(INCREMENT_POINTS, updates, JDBC_BATCH_SIZE, (ps, update) -> {
+            ps.setLong(1, update.getValue());
+            ps.setLong(2, update.getKey());
+        });
+    }
+}
@@ -0,0 +1,224 @@
+package com.studysync.studysyncbackend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ids ordered by score, highest first, ties broken by the lower id.
+ * <p>
+ * An indexable skip list: every forward link also stores how many entries it
+ * skips, so inserting, removing, finding an id's rank and seeking to a rank are all
+ * O(log n) expected. Not thread-safe; callers lock around it.
+ */
+final class RankedSkipList {
+
+    private static final int MAX_LEVEL = 32;
+
+    /**
+     * @param rank 1-based position.
+     */
+    record Entry(int rank, long id, long score) {
+    }
+
+    private static final class Node {
+        final long id;
+        final long score;
+        final Node[] next;
+        // span[i]: entries passed when following next[i] (to the end if next[i] is null)
+        final int[] span;
+
+        Node(long id, long score, int level) {
+            this.id = id;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final Node head = new Node(0, 0, MAX_LEVEL);
+    private final Map<Long, Long> scores = new HashMap<>();
+    private int level = 1;
+
+    int size() {
+        return scores.size();
+    }
+
+    Long score(long id) {
+        return scores.get(id);
+    }
+
+    Set<Long> ids() {
+        return Collections.unmodifiableSet(scores.keySet());
+    }
+
+    /**
+     * Sets the id's score, inserting it if absent.
+     */
+    void put(long id, long score) {
+        Long previous = scores.put(id, score);
+        if (previous != null) {
+            if (previous == score) {
+                return;
+            }
+            unlink(id, previous);
+        }
+        link(id, score);
+    }
+
+    /**
+     * Adds to the id's score, starting from zero if absent, and returns the new score.
+     */
+    long add(long id, long delta) {
+        Long previous = scores.get(id);
+        long score = previous == null ? delta : previous + delta;
+        put(id, score);
+        return score;
+    }
+
+    boolean remove(long id) {
+        Long previous = scores.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        unlink(id, previous);
+        return true;
+    }
+
+    void clear() {
+        scores.clear();
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.next[i] = null;
+            head.span[i] = 0;
+        }
+        level = 1;
+    }
+
+    /**
+     * The id's 1-based rank, or 0 if absent.
+     */
+    int rank(long id) {
+        Long score = scores.get(id);
+        if (score == null) {
+            return 0;
+        }
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && !precedes(score, id, x.next[i])) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && x.id == id) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Up to {@code count} entries starting at the 1-based {@code fromRank}.
+     */
+    List<Entry> range(int fromRank, int count) {
+        if (fromRank < 1 || fromRank > size() || count < 1) {
+            return Collections.emptyList();
+        }
+        // Seek to the entry at fromRank, then walk the bottom level
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= fromRank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        List<Entry> entries = new ArrayList<>(Math.min(count, size() - fromRank + 1));
+        for (int rank = fromRank; x != null && entries.size() < count; rank++, x = x.next[0]) {
+            entries.add(new Entry(rank, x.id, x.score));
+        }
+        return entries;
+    }
+
+    private void link(long id, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && precedes(x.next[i], score, id)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            // The entry counts are from before this insert
+            int entriesBefore = scores.size() - 1;
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = entriesBefore;
+            }
+            level = nodeLevel;
+        }
+
+        Node node = new Node(id, score, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+    }
+
+    private void unlink(long id, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && precedes(x.next[i], score, id)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node node = x.next[0];
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+    }
+
+    // True if the node sorts before (score, id)
+    private static boolean precedes(Node node, long score, long id) {
+        return node.score > score || (node.score == score && node.id < id);
+    }
+
+    // True if (score, id) sorts before the node
+    private static boolean precedes(long score, long id, Node node) {
+        return score > node.score || (score == node.score && id < node.id);
+    }
+
+    private static int randomLevel() {
+        int nodeLevel = 1;
+        // p = 1/4, as in Redis sorted sets
+        while (nodeLevel < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+}
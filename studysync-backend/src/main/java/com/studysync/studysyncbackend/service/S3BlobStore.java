@@ -0,0 +1,209 @@
+package com.studysync.studysyncbackend.service;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Objects in an S3-compatible bucket (AWS S3, MinIO, ...), shared by every node.
+ * <p>
+ * Files above the part size are sent as multipart uploads, one part at a time
+ * streamed from the staged file, so memory use does not grow with the file. Clients
+ * download through presigned GET URLs. Keys are content-addressed and never change,
+ * so objects are stored with a one-year immutable Cache-Control.
+ */
+public class S3BlobStore implements BlobStore, AutoCloseable {
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    // S3's lower bound for every part but the last
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final S3Client s3;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final long partSize;
+    private final Duration signedUrlTtl;
+    private final boolean redirect;
+
+    /**
+     * @param redirect Whether downloads are redirected to presigned URLs; if not, this
+     *                 node streams them from the bucket.
+     */
+    public S3BlobStore(S3Client s3, S3Presigner presigner, String bucket, long partSize, Duration signedUrlTtl,
+            boolean redirect) {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("storage.s3.part-size must be at least 5MB.");
+        }
+        this.s3 = s3;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.partSize = partSize;
+        this.signedUrlTtl = signedUrlTtl;
+        this.redirect = redirect;
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        BlobStore.checkKey(key);
+        long size = Files.size(source);
+        try {
+            if (size <= partSize) {
+                s3.putObject(b -> b.bucket(bucket).key(key).contentType(contentType).cacheControl(CACHE_CONTROL),
+                        RequestBody.fromFile(source));
+            } else {
+                putMultipart(key, source, size, contentType);
+            }
+        } catch (SdkException ex) {
+            throw new IOException("Could not store " + key + " in bucket " + bucket, ex);
+        }
+        Files.deleteIfExists(source);
+    }
+
+    private void putMultipart(String key, Path source, long size, String contentType) {
+        String uploadId = s3.createMultipartUpload(b -> b.bucket(bucket).key(key).contentType(contentType)
+                .cacheControl(CACHE_CONTROL)).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            for (long offset = 0; offset < size; offset += partSize) {
+                int partNumber = parts.size() + 1;
+                long position = offset;
+                long length = Math.min(partSize, size - offset);
+                // A fresh stream per attempt, so the SDK can retry a part without buffering it
+                RequestBody body = RequestBody.fromContentProvider(() -> openRange(source, position, length), length,
+                        contentType);
+                String etag = s3.uploadPart(b -> b.bucket(bucket).key(key).uploadId(uploadId)
+                        .partNumber(partNumber).contentLength(length), body).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(etag).build());
+            }
+            s3.completeMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(m -> m.parts(parts)));
+        } catch (RuntimeException ex) {
+            try {
+                s3.abortMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId));
+            } catch (SdkException abortFailure) {
+                ex.addSuppressed(abortFailure);
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public void copy(String sourceKey, String targetKey) throws IOException {
+        BlobStore.checkKey(sourceKey);
+        BlobStore.checkKey(targetKey);
+        try {
+            s3.copyObject(b -> b.sourceBucket(bucket).sourceKey(sourceKey)
+                    .destinationBucket(bucket).destinationKey(targetKey));
+        } catch (NoSuchKeyException ex) {
+            throw new NoSuchFileException(sourceKey);
+        } catch (SdkException ex) {
+            throw new IOException("Could not copy " + sourceKey + " in bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        BlobStore.checkKey(key);
+        try {
+            return s3.getObject(b -> b.bucket(bucket).key(key));
+        } catch (NoSuchKeyException ex) {
+            throw new NoSuchFileException(key);
+        } catch (SdkException ex) {
+            throw new IOException("Could not read " + key + " from bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public InputStream getRange(String key, long start, long length) throws IOException {
+        BlobStore.checkKey(key);
+        try {
+            return s3.getObject(b -> b.bucket(bucket).key(key).range("bytes=" + start + "-" + (start + length - 1)));
+        } catch (NoSuchKeyException ex) {
+            throw new NoSuchFileException(key);
+        } catch (SdkException ex) {
+            throw new IOException("Could not read " + key + " from bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public Optional<BlobStat> stat(String key) throws IOException {
+        if (!BlobStore.isValidKey(key)) {
+            return Optional.empty();
+        }
+        try {
+            HeadObjectResponse head = s3.headObject(b -> b.bucket(bucket).key(key));
+            return Optional.of(new BlobStat(head.contentLength(), head.lastModified().toEpochMilli(), head.contentType()));
+        } catch (NoSuchKeyException ex) {
+            return Optional.empty();
+        } catch (S3Exception ex) {
+            // HEAD responses have no body, so a missing key may come back as a bare 404
+            if (ex.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("Could not stat " + key + " in bucket " + bucket, ex);
+        } catch (SdkException ex) {
+            throw new IOException("Could not stat " + key + " in bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        BlobStore.checkKey(key);
+        try {
+            s3.deleteObject(b -> b.bucket(bucket).key(key));
+        } catch (SdkException ex) {
+            throw new IOException("Could not delete " + key + " from bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public Optional<URI> signedUrl(String key, String contentDisposition) {
+        if (!redirect || !BlobStore.isValidKey(key)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(presigner.presignGetObject(p -> p.signatureDuration(signedUrlTtl)
+                    .getObjectRequest(b -> b.bucket(bucket).key(key).responseContentDisposition(contentDisposition)))
+                    .url()
+                    .toURI());
+        } catch (URISyntaxException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        presigner.close();
+        s3.close();
+    }
+
+    private static InputStream openRange(Path source, long position, long length) {
+        try {
+            FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+            channel.position(position);
+            return new BoundedInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException ex) {
+            throw SdkException.create("Could not read " + source, ex);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.model.StoredBlob;
+import com.studysync.studysyncbackend.repository.StoredBlobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reference counts of content-addressed uploads, and their garbage collection.
+ * <p>
+ * Code that stores an upload URL in an entity calls {@link #retain}, code that
+ * overwrites or deletes one calls {@link #release} (or {@link #swap} for both). URLs
+ * that are not content-addressed uploads (legacy "{uuid}_{name}" files, external
+ * links) are ignored. The updates run on the caller's transaction, so a rolled back
+ * change leaves the counts alone.
+ * <p>
+ * Store and collect are serialized per digest within this JVM by {@link #lockFor}, and
+ * across nodes by the database: the collector deletes a blob's row and its object in
+ * one transaction, holding the row's lock until the object is gone, so a
+ * {@link #register} of the same content on another node waits and then finds the
+ * object missing and uploads it again. A blob that is stored and then attached later
+ * still needs the grace period to exceed that delay.
+ * <p>
+ * Collection runs on its own thread, so a slow or failing blob store cannot hold up
+ * the @Scheduled flushes on the shared scheduler.
+ */
+@Service
+@Slf4j
+public class StoredBlobService {
+
+    // "{sha256}.{extension}", alone or as the last segment of an upload URL
+    public static final Pattern BLOB_NAME = Pattern.compile("(?:^|/)([0-9a-f]{64})\\.([a-z0-9]{1,10})$");
+
+    private static final String REGISTER =
+            "INSERT INTO stored_blobs (digest, extension, size, content_type, ref_count, created_at, orphaned_at) "
+                    + "VALUES (?, ?, ?, ?, 0, ?, ?) "
+                    // Re-uploading an orphan restarts its grace period
+                    + "ON DUPLICATE KEY UPDATE orphaned_at = IF(ref_count = 0, VALUES(orphaned_at), orphaned_at)";
+    private static final String SELECT_EXTENSION = "SELECT extension FROM stored_blobs WHERE digest = ?";
+    private static final String RETAIN =
+            "UPDATE stored_blobs SET ref_count = ref_count + 1, orphaned_at = NULL WHERE digest = ?";
+    // MySQL applies assignments left to right, so orphaned_at must see the old ref_count
+    private static final String RELEASE =
+            "UPDATE stored_blobs SET orphaned_at = IF(ref_count = 1, ?, orphaned_at), ref_count = ref_count - 1 "
+                    + "WHERE digest = ? AND ref_count > 0";
+    private static final String DELETE_ORPHAN =
+            "DELETE FROM stored_blobs WHERE digest = ? AND ref_count = 0 AND orphaned_at < ?";
+    // Locks the digest (the gap it leaves behind) until the collecting transaction ends
+    private static final String LOCK_DIGEST = "SELECT digest FROM stored_blobs WHERE digest = ? FOR UPDATE";
+    private static final int GC_BATCH_SIZE = 500;
+    private static final int LOCK_STRIPES = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StoredBlobRepository storedBlobRepository;
+    private final BlobStore blobStore;
+    private final ImageDerivativeService imageDerivativeService;
+    private final Duration orphanGrace;
+    private final long gcIntervalMs;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final ScheduledExecutorService collector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "blob-gc");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StoredBlobService(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            StoredBlobRepository storedBlobRepository,
+            BlobStore blobStore,
+            ImageDerivativeService imageDerivativeService,
+            @Value("${file.blobs.orphan-grace:24h}") Duration orphanGrace,
+            @Value("${file.blobs.gc-interval-ms:3600000}") long gcIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.storedBlobRepository = storedBlobRepository;
+        this.blobStore = blobStore;
+        this.imageDerivativeService = imageDerivativeService;
+        this.orphanGrace = orphanGrace;
+        this.gcIntervalMs = gcIntervalMs;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * The monitor that serializes writing and deleting the blob's file.
+     */
+    public Object lockFor(String digest) {
+        return locks[Math.floorMod(digest.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * Records a freshly stored blob with no references yet. Storing the same content
+     * again is a no-op apart from restarting an orphan's grace period.
+     *
+     * @return The extension the content is stored under: the one it was first
+     *         registered with, so the same bytes uploaded as ".jpg" and ".jpeg" are one file.
+     */
+    public String register(String digest, String extension, long size, String contentType) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(REGISTER, digest, extension, size, contentType, Timestamp.valueOf(now), Timestamp.valueOf(now));
+        List<String> stored = jdbcTemplate.queryForList(SELECT_EXTENSION, String.class, digest);
+        return stored.isEmpty() ? extension : stored.getFirst();
+    }
+
+    public void retain(String url) {
+        digestOf(url).ifPresent(digest -> {
+            if (jdbcTemplate.update(RETAIN, digest) == 0) {
+                log.warn("Reference to unknown or collected blob {}", digest);
+            }
+        });
+    }
+
+    public void release(String url) {
+        digestOf(url).ifPresent(digest -> jdbcTemplate.update(RELEASE, Timestamp.valueOf(LocalDateTime.now()), digest));
+    }
+
+    /**
+     * Moves a reference from one URL to another; nothing happens if they are equal.
+     */
+    public void swap(String oldUrl, String newUrl) {
+        if (Objects.equals(oldUrl, newUrl)) {
+            return;
+        }
+        retain(newUrl);
+        release(oldUrl);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCollector() {
+        collector.scheduleWithFixedDelay(() -> {
+            try {
+                collectGarbage();
+            } catch (RuntimeException ex) {
+                // A task that throws is never run again
+                log.warn("Blob garbage collection failed", ex);
+            }
+        }, 0, gcIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopCollector() {
+        collector.shutdownNow();
+    }
+
+    /**
+     * Deletes blobs that have been orphaned for longer than the grace period, in one
+     * pass over them by digest. The row is deleted conditionally before the file, so a
+     * blob retained meanwhile survives, and the deletion only commits once the files
+     * are gone; a failed file delete leaves the row for the next run.
+     */
+    public int collectGarbage() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(orphanGrace);
+        int collected = 0;
+        String after = "";
+        List<StoredBlob> candidates;
+        do {
+            candidates = storedBlobRepository.findByRefCountAndOrphanedAtBeforeAndDigestGreaterThanOrderByDigest(
+                    0, cutoff, after, Limit.of(GC_BATCH_SIZE));
+            for (StoredBlob blob : candidates) {
+                synchronized (lockFor(blob.getDigest())) {
+                    try {
+                        if (Boolean.TRUE.equals(transactionTemplate.execute(status -> collect(blob, cutoff)))) {
+                            collected++;
+                        }
+                    } catch (UncheckedIOException ex) {
+                        log.warn("Could not delete orphaned blob {}", blob.getDigest(), ex);
+                    }
+                }
+            }
+            if (!candidates.isEmpty()) {
+                after = candidates.getLast().getDigest();
+            }
+        } while (candidates.size() == GC_BATCH_SIZE);
+        if (collected > 0) {
+            log.info("Collected {} orphaned upload blobs", collected);
+        }
+        return collected;
+    }
+
+    // Runs in the collecting transaction; the row lock keeps other nodes' register() waiting
+    private boolean collect(StoredBlob blob, LocalDateTime cutoff) {
+        String digest = blob.getDigest();
+        if (jdbcTemplate.update(DELETE_ORPHAN, digest, Timestamp.valueOf(cutoff)) == 0) {
+            return false;
+        }
+        if (!jdbcTemplate.queryForList(LOCK_DIGEST, String.class, digest).isEmpty()) {
+            return false;
+        }
+        String fileName = digest + "." + blob.getExtension();
+        try {
+            blobStore.delete(fileName);
+            for (String derivative : imageDerivativeService.derivativeNames(fileName)) {
+                blobStore.delete(derivative);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return true;
+    }
+
+    /**
+     * The digest of a content-addressed upload URL or file name.
+     */
+    public static Optional<String> digestOf(String url) {
+        if (url == null) {
+            return Optional.empty();
+        }
+        int query = url.indexOf('?');
+        Matcher matcher = BLOB_NAME.matcher(query < 0 ? url : url.substring(0, query));
+        return matcher.find() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+}
@@ -1,57 +1,205 @@
 package com.studysync.studysyncbackend.service;
 
-import com.studysync.studysyncbackend.model.User;
-import com.studysync.studysyncbackend.model.UserActivity;
-import com.studysync.studysyncbackend.repository.UserActivityRepository;
-import com.studysync.studysyncbackend.repository.UserRepository;
+import com.studysync.studysyncbackend.event.DomainEvent;
+import com.studysync.studysyncbackend.event.DomainEventConsumer;
+import com.studysync.studysyncbackend.event.StreakUpdatedEvent;
+import com.studysync.studysyncbackend.event.UserLoggedInEvent;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Date;
+import java.sql.Statement;
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Write-behind pipeline for login activity and streaks.
+ * <p>
+ * Logins arrive as {@link UserLoggedInEvent}s through DomainEventBus, whose delivery
+ * is acknowledged once the login is queued; a failed or lost delivery is retried.
+ * <p>
+ * A login is only queued in memory, so the morning rush neither locks the
+ * user_activities rows nor loads and saves every {@code User}. A scheduled flush sums
+ * the queued logins per (user, day) and writes them in one transaction: an
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE count = count + ?} per (user, day), and one
+ * streak update per (user, day) that only applies while last_login_date is before that
+ * day, so replaying it is a no-op. A crash loses at most the logins of one flush
+ * interval. A flush that fails for a reason of the database keeps them queued for the
+ * next run; one that fails on the data is retried one (user, day) at a time, and the
+ * ones that still fail are logged and dropped so they cannot block the queue. After a flush, a
+ * {@link StreakUpdatedEvent} is published for every user whose first login of the day
+ * it wrote.
+ */
 @Service
 @RequiredArgsConstructor
-public class UserActivityService {
+@Slf4j
+public class UserActivityService implements DomainEventConsumer {
 
-    private final UserActivityRepository activityRepository;
-    private final UserRepository userRepository;
+    private static final String UPSERT_ACTIVITY =
+            "INSERT INTO user_activities (user_id, activity_date, count) VALUES (?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE count = count + ?";
+    // current_streak is assigned first, so it still sees the old last_login_date
+    private static final String UPDATE_STREAK =
+            "UPDATE users SET current_streak = CASE WHEN last_login_date = ? THEN current_streak + 1 ELSE 1 END, "
+                    + "last_login_date = ? "
+                    + "WHERE id = ? AND (last_login_date IS NULL OR last_login_date < ?)";
+    private static final String SELECT_STREAKS = "SELECT id, current_streak FROM users WHERE id IN (%s)";
+    private static final int JDBC_BATCH_SIZE = 500;
 
-    @Transactional
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Queue<Login> unflushedLogins = new ConcurrentLinkedQueue<>();
+
+    record Login(Long userId, LocalDate day, int count) {
+    }
+
+    record UserDay(Long userId, LocalDate day) {
+    }
+
+    /**
+     * Counts a login of the user today and extends their streak. Takes effect in the
+     * database on the next flush.
+     */
     public void logActivity(Long userId) {
-        LocalDate today = LocalDate.now();
-
-        // 1. Log Activity Count
-        UserActivity activity = activityRepository.findByUserIdAndActivityDate(userId, today)
-                .orElse(UserActivity.builder()
-                        .user(userRepository.getReferenceById(userId))
-                        .activityDate(today)
-                        .count(0)
-                        .build());
-        if (activity.getId() == null) {
-            // ensure User is set correctly if using reference
+        unflushedLogins.add(new Login(userId, LocalDate.now(), 1));
+    }
+
+    @Override
+    public String name() {
+        return "activity";
+    }
+
+    @Override
+    public boolean accepts(DomainEvent event) {
+        return event instanceof UserLoggedInEvent;
+    }
+
+    /**
+     * Logins and registrations, published by AuthenticationService.
+     */
+    @Override
+    public void consume(DomainEvent event) {
+        if (!(event instanceof UserLoggedInEvent login)) {
+            throw new IllegalArgumentException("Unexpected event: " + event);
+        }
+        logActivity(login.userId());
+    }
+
+    /**
+     * Writes queued logins to the database. Runs on a fixed delay and once more on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${activity.flush-interval-ms:1000}")
+    @PreDestroy
+    public synchronized void flush() {
+        Map<UserDay, Integer> counts = new LinkedHashMap<>();
+        for (Login login; (login = unflushedLogins.poll()) != null; ) {
+            counts.merge(new UserDay(login.userId(), login.day()), login.count(), Integer::sum);
         }
+        if (counts.isEmpty()) {
+            return;
+        }
+
+        List<Login> batch = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> batch.add(new Login(key.userId(), key.day(), count)));
+        // Oldest day first, so a window spanning midnight extends the streak in order
+        batch.sort(Comparator.comparing(Login::day));
 
-        activity.setCount(activity.getCount() + 1);
-        activityRepository.save(activity);
-
-        // 2. Update Streak
-        User user = userRepository.findById(userId).orElseThrow();
-        LocalDate lastLogin = user.getLastLoginDate();
-
-        if (lastLogin == null) {
-            user.setCurrentStreak(1);
-        } else if (lastLogin.equals(today.minusDays(1))) {
-            // Consecutive day
-            user.setCurrentStreak(user.getCurrentStreak() + 1);
-        } else if (lastLogin.isBefore(today.minusDays(1))) {
-            // Broken streak
-            user.setCurrentStreak(1);
+        int[][] streakRows;
+        try {
+            streakRows = transactionTemplate.execute(status -> write(batch));
+        } catch (RuntimeException ex) {
+            if (FlushFailures.isRetryable(ex)) {
+                // Nothing was committed: keep the summed logins queued and retry on the next run
+                log.warn("Could not flush activity of {} user days, will retry", batch.size(), ex);
+                unflushedLogins.addAll(batch);
+                return;
+            }
+            log.warn("Could not flush activity of {} user days, writing them one at a time", batch.size(), ex);
+            flushEach(batch);
+            return;
         }
-        // If lastLogin equals today, do nothing to streak
+        log.debug("Flushed activity of {} user days", batch.size());
+        publishStreaks(batch, streakRows);
+    }
 
-        user.setLastLoginDate(today);
-        userRepository.save(user);
+    // Isolates the user days that can never be written (e.g. of a deleted user) and drops them
+    private void flushEach(List<Login> batch) {
+        List<Login> written = new ArrayList<>(batch.size());
+        List<int[]> streakRows = new ArrayList<>(batch.size());
+        for (Login login : batch) {
+            try {
+                int[][] rows = transactionTemplate.execute(status -> write(List.of(login)));
+                written.add(login);
+                streakRows.add(rows == null || rows.length == 0 ? new int[] { 0 } : rows[0]);
+            } catch (RuntimeException ex) {
+                if (FlushFailures.isRetryable(ex)) {
+                    unflushedLogins.add(login);
+                } else {
+                    log.error("Dropping {} logins of user {} on {} that cannot be written",
+                            login.count(), login.userId(), login.day(), ex);
+                }
+            }
+        }
+        publishStreaks(written, streakRows.toArray(int[][]::new));
+    }
+
+    private int[][] write(List<Login> batch) {
+        jdbcTemplate.batchUpdate(UPSERT_ACTIVITY, batch, JDBC_BATCH_SIZE, (ps, login) -> {
+            ps.setLong(1, login.userId());
+            ps.setDate(2, Date.valueOf(login.day()));
+            ps.setInt(3, login.count());
+            ps.setInt(4, login.count());
+        });
+        return jdbcTemplate.batchUpdate(UPDATE_STREAK, batch, JDBC_BATCH_SIZE, (ps, login) -> {
+            Date day = Date.valueOf(login.day());
+            ps.setDate(1, Date.valueOf(login.day().minusDays(1)));
+            ps.setDate(2, day);
+            ps.setLong(3, login.userId());
+            ps.setDate(4, day);
+        });
+    }
+
+    // A streak row changed only for a user's first login of the day; reads those streaks back
+    private void publishStreaks(List<Login> batch, int[][] streakRows) {
+        List<Long> userIds = new ArrayList<>();
+        int i = 0;
+        for (int[] chunk : streakRows == null ? new int[0][] : streakRows) {
+            for (int rows : chunk) {
+                if (rows > 0 || rows == Statement.SUCCESS_NO_INFO) {
+                    userIds.add(batch.get(i).userId());
+                }
+                i++;
+            }
+        }
+
+        List<StreakUpdatedEvent> events = new ArrayList<>();
+        try {
+            for (int from = 0; from < userIds.size(); from += JDBC_BATCH_SIZE) {
+                List<Long> chunk = userIds.subList(from, Math.min(from + JDBC_BATCH_SIZE, userIds.size()));
+                String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                jdbcTemplate.query(String.format(SELECT_STREAKS, placeholders), rs -> {
+                    events.add(new StreakUpdatedEvent(rs.getLong(1), rs.getInt(2)));
+                }, chunk.toArray());
+            }
+        } catch (RuntimeException ex) {
+            // The logins are written; only the streak notifications are lost
+            log.warn("Could not read back {} updated streaks", userIds.size(), ex);
+        }
+        events.forEach(eventPublisher::publishEvent);
     }
 }
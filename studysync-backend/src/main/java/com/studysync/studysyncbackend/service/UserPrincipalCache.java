@@ -0,0 +1,54 @@
+package com.studysync.studysyncbackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache of authenticated principals keyed by email, so that authenticating a request
+ * with a known JWT does not hit the database.
+ * <p>
+ * Entries must be invalidated whenever a user's profile or role changes; the TTL only
+ * bounds how long a missed invalidation can go unnoticed. Metrics are published as
+ * the "userPrincipals" cache.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final Cache<String, UserDetails> cache;
+
+    public UserPrincipalCache(UserDetailsService userDetailsService,
+            MeterRegistry meterRegistry,
+            @Value("${application.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${application.security.principal-cache.ttl:5m}") Duration ttl) {
+        this.userDetailsService = userDetailsService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userPrincipals");
+    }
+
+    /**
+     * Returns the principal for the given email, loading it through the
+     * {@link UserDetailsService} on a miss.
+     *
+     * @throws org.springframework.security.core.userdetails.UsernameNotFoundException if no such user exists.
+     */
+    public UserDetails get(String email) {
+        return cache.get(email, userDetailsService::loadUserByUsername);
+    }
+
+    public void invalidate(String email) {
+        cache.invalidate(email);
+    }
+}
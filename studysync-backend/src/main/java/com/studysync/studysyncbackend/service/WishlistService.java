@@ -24,6 +24,7 @@ public class WishlistService {
     private final WishlistItemRepository wishlistItemRepository;
     private final CourseRepository courseRepository;
     private final CourseService courseService; // To reuse course mapping
+    private final CourseFetchPlan courseFetchPlan;
 
     /**
      * Adds a course to the currently authenticated user's wishlist.
@@ -75,6 +76,7 @@ public class WishlistService {
     public List<CourseResponseDto> getWishlistForCurrentUser() {
         User currentUser = getCurrentUser();
         List<WishlistItem> items = wishlistItemRepository.findByUserIdOrderByAddedAtDesc(currentUser.getId());
+        courseFetchPlan.withTutorAndModules(items.stream().map(WishlistItem::getCourse).toList());
 
         return items.stream()
                 .map(item -> courseService.mapCourseToDto(item.getCourse())) // Reuse course mapping
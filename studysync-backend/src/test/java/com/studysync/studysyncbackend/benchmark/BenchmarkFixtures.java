@@ -0,0 +1,136 @@
+package com.studysync.studysyncbackend.benchmark;
+
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.model.Module;
+import com.studysync.studysyncbackend.model.Role;
+import com.studysync.studysyncbackend.model.User;
+import com.studysync.studysyncbackend.repository.CourseRepository;
+import com.studysync.studysyncbackend.repository.ModuleRepository;
+import com.studysync.studysyncbackend.service.CourseDetailsCache;
+import com.studysync.studysyncbackend.service.CourseFetchPlan;
+import com.studysync.studysyncbackend.service.CourseSearchIndex;
+import com.studysync.studysyncbackend.service.CourseService;
+import com.studysync.studysyncbackend.service.DomainEventBus;
+import com.studysync.studysyncbackend.service.JwtService;
+import com.studysync.studysyncbackend.service.StoredBlobService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Deterministic fixtures shared by the benchmarks. Everything is derived from a fixed
+ * seed so that runs on different machines and commits measure the same data.
+ */
+final class BenchmarkFixtures {
+
+    static final long SEED = 42L;
+
+    // 256-bit test key, Base64 encoded
+    static final String SECRET_KEY = "c3R1ZHlzeW5jLWJlbmNobWFyay1zZWNyZXQta2V5LTAxMjM0NTY3ODk=";
+
+    private static final String[] CATEGORIES = { "Programming", "Data Science", "Design", "Business", "Marketing",
+            "Music", "Photography", "Languages" };
+    private static final String[] LEVELS = { "Beginner", "Intermediate", "Advanced" };
+    private static final String[] WORDS = { "java", "spring", "boot", "python", "react", "design", "pattern",
+            "machine", "learning", "data", "analysis", "cloud", "security", "testing", "performance", "database",
+            "algorithm", "network", "docker", "kubernetes", "microservice", "frontend", "backend", "mobile",
+            "marketing", "photography", "guitar", "spanish", "statistics", "finance", "leadership", "writing" };
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtService jwtService() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", Duration.ofDays(1).toMillis());
+        ReflectionTestUtils.setField(jwtService, "tokenCacheMaxSize", 10_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    // Only for the pure mapping methods, which touch none of the collaborators
+    static CourseService courseService() {
+        return new CourseService(mock(CourseRepository.class), mock(ModuleRepository.class),
+                mock(CourseSearchIndex.class), mock(CourseFetchPlan.class), mock(CourseDetailsCache.class),
+                mock(DomainEventBus.class), mock(StoredBlobService.class));
+    }
+
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .email("user" + id + "@studysync.dev")
+                .firstName("First" + id)
+                .lastName("Last" + id)
+                .role(id % 10 == 0 ? Role.TUTOR : Role.STUDENT)
+                .password("$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchm")
+                .build();
+    }
+
+    /**
+     * Published courses with tutors and modules, sized like a realistic catalog entry:
+     * a few sentences of description and {@code modulesPerCourse} modules with notes.
+     */
+    static List<Course> courses(int count, int modulesPerCourse) {
+        Random random = new Random(SEED);
+        List<User> tutors = new ArrayList<>();
+        for (int i = 1; i <= Math.max(1, count / 20); i++) {
+            tutors.add(user(i * 10L));
+        }
+
+        List<Course> courses = new ArrayList<>(count);
+        long moduleId = 1;
+        for (int i = 1; i <= count; i++) {
+            Course course = Course.builder()
+                    .id((long) i)
+                    .title(capitalize(words(random, 3 + random.nextInt(4))))
+                    .description(capitalize(words(random, 40 + random.nextInt(60))) + ".")
+                    .price(BigDecimal.valueOf(random.nextInt(20000), 2))
+                    .averageRating(random.nextInt(50) / 10.0)
+                    .viewCount((long) random.nextInt(100_000))
+                    .isPublished(true)
+                    .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .level(LEVELS[random.nextInt(LEVELS.length)])
+                    .thumbnail("https://cdn.studysync.dev/thumbnails/" + i + ".jpg")
+                    .tutor(tutors.get(random.nextInt(tutors.size())))
+                    .build();
+            for (int m = 0; m < modulesPerCourse; m++) {
+                course.addModule(Module.builder()
+                        .id(moduleId++)
+                        .title(capitalize(words(random, 2 + random.nextInt(4))))
+                        .content(capitalize(words(random, 80 + random.nextInt(120))) + ".")
+                        .videoUrl("/api/files/download/" + moduleId + "_lecture.mp4")
+                        .notesUrl("/api/files/download/" + moduleId + "_notes.pdf")
+                        .build());
+            }
+            courses.add(course);
+        }
+        return courses;
+    }
+
+    static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(SEED).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
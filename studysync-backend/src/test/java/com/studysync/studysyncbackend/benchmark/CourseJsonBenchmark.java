@@ -0,0 +1,56 @@
+package com.studysync.studysyncbackend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studysync.studysyncbackend.dto.CourseResponseDto;
+import com.studysync.studysyncbackend.service.CourseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a {@link CourseResponseDto} list, as written by the list
+ * endpoints, using an ObjectMapper configured like Spring MVC's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CourseJsonBenchmark {
+
+    @Param({ "20", "500" })
+    private int courses;
+
+    @Param({ "12" })
+    private int modules;
+
+    private ObjectMapper objectMapper;
+    private List<CourseResponseDto> dtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        CourseService courseService = BenchmarkFixtures.courseService();
+        dtos = BenchmarkFixtures.courses(courses, modules).stream()
+                .map(courseService::mapCourseToDto)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] writeCourseList() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
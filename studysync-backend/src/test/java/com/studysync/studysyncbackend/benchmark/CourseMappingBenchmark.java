@@ -0,0 +1,57 @@
+package com.studysync.studysyncbackend.benchmark;
+
+import com.studysync.studysyncbackend.dto.CourseResponseDto;
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.service.CourseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CourseService#mapCourseToDto} over a page of courses, each with a tutor and
+ * {@code modules} modules, as done by the list endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CourseMappingBenchmark {
+
+    @Param({ "100" })
+    private int courses;
+
+    @Param({ "0", "12", "40" })
+    private int modules;
+
+    private CourseService courseService;
+    private List<Course> page;
+
+    @Setup
+    public void setUp() {
+        courseService = BenchmarkFixtures.courseService();
+        page = BenchmarkFixtures.courses(courses, modules);
+    }
+
+    @Benchmark
+    public List<CourseResponseDto> mapCourseToDto() {
+        List<CourseResponseDto> dtos = new ArrayList<>(page.size());
+        for (Course course : page) {
+            dtos.add(courseService.mapCourseToDto(course));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,57 @@
+package com.studysync.studysyncbackend.benchmark;
+
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.repository.CourseRepository;
+import com.studysync.studysyncbackend.service.CourseSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Keyword part of {@code CourseService.searchCourses}: the in-memory index lookup that
+ * produces the ranked IDs handed to the SQL filter query. The JPA predicate assembly
+ * itself needs a live EntityManager and is covered by CourseFetchPlanIT instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CourseSearchBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int catalogSize;
+
+    // Exact term, search-as-you-type prefix, typo, and a multi-word query
+    @Param({ "java", "micro", "kubernetse", "machine learning data" })
+    private String query;
+
+    private CourseSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new CourseSearchIndex(mock(CourseRepository.class));
+        for (Course course : BenchmarkFixtures.courses(catalogSize, 0)) {
+            index.index(course);
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(query, 500);
+    }
+}
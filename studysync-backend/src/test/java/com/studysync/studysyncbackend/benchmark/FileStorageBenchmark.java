@@ -0,0 +1,85 @@
+package com.studysync.studysyncbackend.benchmark;
+
+import com.studysync.studysyncbackend.repository.StoredBlobRepository;
+import com.studysync.studysyncbackend.service.BlobStore;
+import com.studysync.studysyncbackend.service.FileStorageService;
+import com.studysync.studysyncbackend.service.ImageDerivativeService;
+import com.studysync.studysyncbackend.service.LocalBlobStore;
+import com.studysync.studysyncbackend.service.StoredBlobService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * {@link FileStorageService#storeFile} writing an upload to a temporary directory.
+ * Each stored file is deleted after its invocation, so every invocation hashes and
+ * writes the content rather than finding it already stored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileStorageBenchmark {
+
+    @Param({ "65536", "4194304" })
+    private int size;
+
+    private Path directory;
+    private FileStorageService fileStorageService;
+    private MockMultipartFile file;
+    private String stored;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("studysync-bench");
+        BlobStore blobStore = new LocalBlobStore(directory);
+        ImageDerivativeService imageDerivativeService = mock(ImageDerivativeService.class);
+        StoredBlobService storedBlobService = new StoredBlobService(mock(JdbcTemplate.class), mock(TransactionTemplate.class),
+                mock(StoredBlobRepository.class), blobStore, imageDerivativeService, Duration.ofHours(24), 3_600_000);
+        fileStorageService = new FileStorageService(directory.toString(), blobStore, storedBlobService,
+                imageDerivativeService);
+        file = new MockMultipartFile("file", "lecture-notes.pdf", "application/pdf", BenchmarkFixtures.bytes(size));
+    }
+
+    @Benchmark
+    public String storeFile() {
+        stored = fileStorageService.storeFile(file);
+        return stored;
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteStored() throws IOException {
+        if (stored != null) {
+            Files.deleteIfExists(directory.resolve(stored));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+}
@@ -0,0 +1,120 @@
+package com.studysync.studysyncbackend.benchmark;
+
+import com.studysync.studysyncbackend.config.JwtAuthenticationFilter;
+import com.studysync.studysyncbackend.model.User;
+import com.studysync.studysyncbackend.service.JwtService;
+import com.studysync.studysyncbackend.service.UserPrincipalCache;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.lang.NonNull;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request with a valid bearer token.
+ * <p>
+ * {@code legacy} reproduces the previous filter: three token parses and a
+ * {@link UserDetailsService} lookup per request. {@code cached} runs the current
+ * {@link JwtAuthenticationFilter} in steady state. The legacy lookup here builds the
+ * user in memory, so the real gap is larger by one SQL round trip per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private String authorizationHeader;
+    private OncePerRequestFilter legacyFilter;
+    private JwtAuthenticationFilter cachedFilter;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = BenchmarkFixtures.jwtService();
+        User user = BenchmarkFixtures.user(1L);
+        UserDetailsService userDetailsService = email -> User.builder().id(user.getId()).email(email)
+                .firstName(user.getFirstName()).role(user.getRole()).password(user.getPassword()).build();
+
+        authorizationHeader = "Bearer " + jwtService.generateToken(user);
+        legacyFilter = new LegacyJwtAuthenticationFilter(jwtService, userDetailsService);
+        cachedFilter = new JwtAuthenticationFilter(jwtService,
+                new UserPrincipalCache(userDetailsService, new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(5)));
+    }
+
+    @Benchmark
+    public Authentication legacy() throws Exception {
+        return authenticate(legacyFilter);
+    }
+
+    @Benchmark
+    public Authentication cached() throws Exception {
+        return authenticate(cachedFilter);
+    }
+
+    private Authentication authenticate(OncePerRequestFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/courses/1");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // The filter as it was before principals and verified tokens were cached
+    private static class LegacyJwtAuthenticationFilter extends OncePerRequestFilter {
+
+        private final JwtService jwtService;
+        private final UserDetailsService userDetailsService;
+
+        LegacyJwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+            this.jwtService = jwtService;
+            this.userDetailsService = userDetailsService;
+        }
+
+        @Override
+        protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                @NonNull FilterChain filterChain) throws ServletException, IOException {
+            String jwt = request.getHeader("Authorization").substring(7);
+            String userEmail = jwtService.extractUsername(jwt);
+            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+            // The old isTokenValid parsed the token again for the subject and the expiry
+            boolean valid = jwtService.extractUsername(jwt).equals(userDetails.getUsername())
+                    && !jwtService.extractClaim(jwt, Claims::getExpiration).before(new Date());
+            if (valid) {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities()));
+            }
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.studysync.studysyncbackend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatBrokerPropertiesTest {
+
+    @Test
+    void bindsRelaySettings() {
+        ChatBrokerProperties properties = bind(Map.of(
+                "chat.broker.mode", "relay",
+                "chat.broker.relay.host", "rabbit.internal",
+                "chat.broker.relay.port", "61614",
+                "chat.broker.relay.virtual-host", "studysync",
+                "chat.broker.relay.heartbeat-send-interval-ms", "5000",
+                "chat.broker.outbound.queue-capacity", "500"));
+
+        assertThat(properties.getMode()).isEqualTo(ChatBrokerProperties.Mode.RELAY);
+        assertThat(properties.getRelay().getHost()).isEqualTo("rabbit.internal");
+        assertThat(properties.getRelay().getPort()).isEqualTo(61614);
+        assertThat(properties.getRelay().getVirtualHost()).isEqualTo("studysync");
+        assertThat(properties.getRelay().getHeartbeatSendIntervalMs()).isEqualTo(5000);
+        assertThat(properties.getOutbound().getQueueCapacity()).isEqualTo(500);
+    }
+
+    @Test
+    void defaultsToSimpleBrokerWithBoundedQueues() {
+        ChatBrokerProperties properties = bind(Map.of("chat.broker.relay.host", "ignored"));
+
+        assertThat(properties.getMode()).isEqualTo(ChatBrokerProperties.Mode.SIMPLE);
+        assertThat(properties.getInbound().getQueueCapacity()).isLessThan(Integer.MAX_VALUE);
+        assertThat(properties.getOutbound().getQueueCapacity()).isLessThan(Integer.MAX_VALUE);
+    }
+
+    private static ChatBrokerProperties bind(Map<String, String> values) {
+        return new Binder(new MapConfigurationPropertySource(values))
+                .bindOrCreate("chat.broker", ChatBrokerProperties.class);
+    }
+}
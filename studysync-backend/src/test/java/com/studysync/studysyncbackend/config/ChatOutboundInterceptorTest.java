@@ -0,0 +1,125 @@
+package com.studysync.studysyncbackend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ChatOutboundInterceptorTest {
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final MessageHandler handler = mock(MessageHandler.class);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChatOutboundInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        ChatBrokerProperties properties = new ChatBrokerProperties();
+        properties.getTransport().setEphemeralDropThreshold(100);
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new ChatOutboundInterceptor(properties, meterRegistry);
+        connect("s1");
+        connect("s2");
+    }
+
+    @Test
+    void tracksQueuedBytesUntilHandled() {
+        Message<?> sent = interceptor.preSend(frame("s1", "/topic/public/r1", 40), channel);
+        interceptor.preSend(frame("s1", "/topic/public/r1", 30), channel);
+
+        assertThat(interceptor.queuedBytes("s1")).isEqualTo(70);
+        assertThat(meterRegistry.get("chat.outbound.queued.bytes").gauge().value()).isEqualTo(70);
+
+        interceptor.afterMessageHandled(sent, channel, handler, null);
+
+        assertThat(interceptor.queuedBytes("s1")).isEqualTo(30);
+        assertThat(meterRegistry.get("chat.fanout.latency").tag("room", "r1").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void coalescesPendingTypingEventsPerDestinationAndSender() {
+        Message<?> first = interceptor.preSend(typing("s1", "r1", "alice", 10), channel);
+
+        assertThat(first).isNotNull();
+        assertThat(interceptor.preSend(typing("s1", "r1", "alice", 10), channel)).isNull();
+        // Other senders, sessions and rooms are independent
+        assertThat(interceptor.preSend(typing("s1", "r1", "bob", 10), channel)).isNotNull();
+        assertThat(interceptor.preSend(typing("s2", "r1", "alice", 10), channel)).isNotNull();
+        assertThat(interceptor.preSend(typing("s1", "r2", "alice", 10), channel)).isNotNull();
+
+        interceptor.afterMessageHandled(interceptor.beforeHandle(first, channel, handler), channel, handler, null);
+
+        assertThat(interceptor.preSend(typing("s1", "r1", "alice", 10), channel)).isNotNull();
+        assertThat(meterRegistry.get("chat.outbound.dropped").tag("reason", "coalesced").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void coalescedFrameIsReplacedByLatest() {
+        Message<?> queued = interceptor.preSend(typing("s1", "r1", "alice", 10), channel);
+        Message<byte[]> latest = typing("s1", "r1", "alice", 25);
+        interceptor.preSend(latest, channel);
+
+        assertThat(interceptor.queuedBytes("s1")).isEqualTo(25);
+        Message<?> written = interceptor.beforeHandle(queued, channel, handler);
+        assertThat(written).isSameAs(latest);
+
+        interceptor.afterMessageHandled(written, channel, handler, null);
+        assertThat(interceptor.queuedBytes("s1")).isZero();
+    }
+
+    @Test
+    void framesAfterDisconnectAreNotTracked() {
+        interceptor.preSend(frame("s1", "/topic/public/r1", 40), channel);
+        interceptor.onDisconnect(new SessionDisconnectEvent(this, frame("s1", null, 0), "s1", CloseStatus.NORMAL));
+
+        // Still queued for the closed session when the disconnect was handled
+        assertThat(interceptor.preSend(frame("s1", "/topic/public/r1", 40), channel)).isNotNull();
+
+        assertThat(interceptor.queuedBytes("s1")).isZero();
+        assertThat(meterRegistry.get("chat.outbound.queued.bytes").gauge().value()).isZero();
+    }
+
+    @Test
+    void dropsTypingButNotChatForBackloggedSession() {
+        interceptor.preSend(frame("s1", "/topic/public/r1", 150), channel);
+
+        assertThat(interceptor.preSend(frame("s1", "/topic/typing/r1", 10), channel)).isNull();
+        assertThat(interceptor.preSend(frame("s1", "/topic/public/r1", 10), channel)).isNotNull();
+        assertThat(interceptor.preSend(frame("s2", "/topic/typing/r1", 10), channel)).isNotNull();
+        assertThat(meterRegistry.get("chat.outbound.dropped").tag("reason", "backlog").counter().count())
+                .isEqualTo(1);
+    }
+
+    private void connect(String sessionId) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+        headers.setSessionId(sessionId);
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()), channel);
+    }
+
+    private static Message<byte[]> typing(String sessionId, String room, String sender, int size) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setDestination("/topic/typing/" + room);
+        headers.setNativeHeader(ChatOutboundInterceptor.SENDER_HEADER, sender);
+        return MessageBuilder.createMessage(new byte[size], headers.getMessageHeaders());
+    }
+
+    private static Message<byte[]> frame(String sessionId, String destination, int size) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[size], headers.getMessageHeaders());
+    }
+}
@@ -0,0 +1,75 @@
+package com.studysync.studysyncbackend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.messaging.simp.config.TaskExecutorRegistration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebSocketConfigTest {
+
+    private final MessageBrokerRegistry registry = mock(MessageBrokerRegistry.class);
+    private final StompBrokerRelayRegistration relayRegistration = mock(StompBrokerRelayRegistration.class, RETURNS_SELF);
+
+    @Test
+    void configureMessageBroker_relayMode_relaysToExternalBroker() {
+        ChatBrokerProperties properties = new ChatBrokerProperties();
+        properties.setMode(ChatBrokerProperties.Mode.RELAY);
+        properties.getRelay().setHost("rabbit.internal");
+        properties.getRelay().setPort(61614);
+        properties.getRelay().setLogin("chat");
+        properties.getRelay().setPasscode("secret");
+        properties.getRelay().setVirtualHost("studysync");
+        when(registry.enableStompBrokerRelay("/topic", "/queue")).thenReturn(relayRegistration);
+
+        config(properties).configureMessageBroker(registry);
+
+        verify(relayRegistration).setRelayHost("rabbit.internal");
+        verify(relayRegistration).setRelayPort(61614);
+        verify(relayRegistration).setClientLogin("chat");
+        verify(relayRegistration).setSystemPasscode("secret");
+        verify(relayRegistration).setVirtualHost("studysync");
+        // "/user/..." destinations must resolve for sessions connected to other nodes
+        verify(relayRegistration).setUserDestinationBroadcast("/topic/unresolved-user-destination");
+        verify(relayRegistration).setUserRegistryBroadcast("/topic/simp-user-registry");
+        verify(registry, never()).enableSimpleBroker(any(String[].class));
+        verify(registry).setUserDestinationPrefix("/user");
+    }
+
+    @Test
+    void configureMessageBroker_simpleMode_usesInMemoryBroker() {
+        config(new ChatBrokerProperties()).configureMessageBroker(registry);
+
+        verify(registry).enableSimpleBroker("/topic", "/queue");
+        verify(registry, never()).enableStompBrokerRelay(any(String[].class));
+    }
+
+    @Test
+    void configureClientOutboundChannel_boundsQueueAndInstallsInterceptor() {
+        ChatBrokerProperties properties = new ChatBrokerProperties();
+        properties.getOutbound().setCorePoolSize(4);
+        properties.getOutbound().setMaxPoolSize(16);
+        ChannelRegistration registration = mock(ChannelRegistration.class);
+        TaskExecutorRegistration executor = mock(TaskExecutorRegistration.class, RETURNS_SELF);
+        when(registration.taskExecutor()).thenReturn(executor);
+        ChatOutboundInterceptor interceptor = mock(ChatOutboundInterceptor.class);
+
+        new WebSocketConfig(properties, interceptor).configureClientOutboundChannel(registration);
+
+        verify(executor).corePoolSize(4);
+        verify(executor).maxPoolSize(16);
+        verify(executor).queueCapacity(10_000);
+        verify(registration).interceptors(interceptor);
+    }
+
+    private static WebSocketConfig config(ChatBrokerProperties properties) {
+        return new WebSocketConfig(properties, mock(ChatOutboundInterceptor.class));
+    }
+}
@@ -0,0 +1,167 @@
+package com.studysync.studysyncbackend.controller;
+
+import com.studysync.studysyncbackend.service.BlobStore;
+import com.studysync.studysyncbackend.service.LocalBlobStore;
+import com.studysync.studysyncbackend.service.MediaFileService;
+import com.studysync.studysyncbackend.service.MediaFileService.MediaFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MediaResponseWriterTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private MediaFileService mediaFileService;
+    private MediaResponseWriter writer;
+    private MediaFile file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.writeString(uploadDir.resolve("lecture.mp4"), "0123456789");
+        mediaFileService = new MediaFileService(new LocalBlobStore(uploadDir));
+        writer = new MediaResponseWriter(mediaFileService);
+        file = mediaFileService.open("lecture.mp4");
+    }
+
+    @Test
+    void write_wholeFileWithValidatorsAndImmutableCaching() throws Exception {
+        MockHttpServletResponse response = write(new MockHttpServletRequest("GET", "/uploads/lecture.mp4"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+        assertThat(response.getContentType()).isEqualTo("video/mp4");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(file.etag());
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable", "max-age=31536000");
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void write_notModifiedWhenEtagMatches() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/lecture.mp4");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, file.etag());
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void write_singleRangeAsPartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/lecture.mp4");
+        request.addHeader(HttpHeaders.RANGE, "bytes=7-");
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 7-9/10");
+        assertThat(response.getContentAsString()).isEqualTo("789");
+    }
+
+    @Test
+    void write_singleRangeHandedToSendfileWhenSupported() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/lecture.mp4");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-4");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getContentLengthLong()).isEqualTo(3);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(2L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(5L);
+    }
+
+    @Test
+    void write_multipleRangesAsMultipart() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/lecture.mp4");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,8-9");
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        String body = response.getContentAsString();
+        assertThat(body).contains("Content-Range: bytes 0-1/10\r\n\r\n01", "Content-Range: bytes 8-9/10\r\n\r\n89");
+        assertThat(response.getContentLengthLong()).isEqualTo(response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void write_unsatisfiableRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/lecture.mp4");
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-30");
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    @Test
+    void write_staleIfRangeServesWholeFile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/lecture.mp4");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void write_remoteFileIsReadFromStoreInsteadOfSendfile() throws Exception {
+        LocalBlobStore remote = new LocalBlobStore(uploadDir) {
+            @Override
+            public Optional<Path> localPath(String key) {
+                return Optional.empty();
+            }
+        };
+        MediaFileService remoteFiles = new MediaFileService(remote);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/lecture.mp4");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-4");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new MediaResponseWriter(remoteFiles).write(remoteFiles.open("lecture.mp4"), null, request, response);
+
+        assertThat(response.getContentAsString()).isEqualTo("234");
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+    }
+
+    @Test
+    void redirect_onlyWhenStoreSignsUrls() {
+        BlobStore signing = mock(BlobStore.class);
+        when(signing.signedUrl("lecture.mp4", "inline"))
+                .thenReturn(Optional.of(URI.create("https://bucket.example.com/lecture.mp4?X-Amz-Signature=abc")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(new MediaResponseWriter(new MediaFileService(signing)).redirect("lecture.mp4", "inline", response))
+                .isTrue();
+        assertThat(response.getStatus()).isEqualTo(302);
+        assertThat(response.getHeader(HttpHeaders.LOCATION)).endsWith("X-Amz-Signature=abc");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-store");
+
+        assertThat(writer.redirect("lecture.mp4", null, new MockHttpServletResponse())).isFalse();
+    }
+
+    private MockHttpServletResponse write(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(file, null, request, response);
+        return response;
+    }
+}
@@ -1,15 +1,19 @@
 package com.studysync.studysyncbackend.repository;
 
+import com.studysync.studysyncbackend.model.Role;
 import com.studysync.studysyncbackend.model.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.LocalDate;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -25,6 +29,9 @@ class UserRepositoryIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @DynamicPropertySource
     static void properties(DynamicPropertyRegistry registry) {
         registry.add("spring.datasource.url", mysql::getJdbcUrl);
@@ -42,4 +49,24 @@ class UserRepositoryIT {
         assertThat(found).isPresent();
         assertThat(found.get().getEmail()).isEqualTo("it@example.com");
     }
+
+    @Test
+    void profileSave_keepsPointsAndStreakFlushedSinceTheLoad() {
+        User saved = userRepository.save(User.builder().email("flush@example.com").password("pw")
+                .role(Role.STUDENT).build());
+        User loaded = userRepository.findById(saved.getId()).orElseThrow();
+
+        // The write-behind flushes update the row while the profile is being edited
+        LocalDate today = LocalDate.now();
+        jdbcTemplate.update("UPDATE users SET points = points + 25, current_streak = 3, last_login_date = ? WHERE id = ?",
+                today, saved.getId());
+        loaded.setBio("Edited");
+        userRepository.save(loaded);
+
+        User found = userRepository.findById(saved.getId()).orElseThrow();
+        assertThat(found.getBio()).isEqualTo("Edited");
+        assertThat(found.getPoints()).isEqualTo(25);
+        assertThat(found.getCurrentStreak()).isEqualTo(3);
+        assertThat(found.getLastLoginDate()).isEqualTo(today);
+    }
 }
@@ -0,0 +1,158 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.event.DiscussionPostedEvent;
+import com.studysync.studysyncbackend.event.DiscussionsUpvotedEvent;
+import com.studysync.studysyncbackend.event.ProgressUpdatedEvent;
+import com.studysync.studysyncbackend.event.StreakUpdatedEvent;
+import com.studysync.studysyncbackend.model.Badge;
+import com.studysync.studysyncbackend.model.BadgeRule;
+import com.studysync.studysyncbackend.repository.BadgeRepository;
+import com.studysync.studysyncbackend.repository.DiscussionRepository;
+import com.studysync.studysyncbackend.repository.EarnedBadgeRepository;
+import com.studysync.studysyncbackend.repository.EnrollmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BadgeEngineTest {
+
+    @Mock
+    private BadgeRepository badgeRepository;
+
+    @Mock
+    private EarnedBadgeRepository earnedBadgeRepository;
+
+    @Mock
+    private GamificationService gamificationService;
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private DiscussionRepository discussionRepository;
+
+    private BadgeCatalog badgeCatalog;
+    private BadgeEngine badgeEngine;
+
+    @BeforeEach
+    void setUp() {
+        when(badgeRepository.findAll()).thenReturn(List.of(
+                badge(1L, "STREAK_30", BadgeRule.LOGIN_STREAK, 30),
+                badge(2L, "STREAK_7", BadgeRule.LOGIN_STREAK, 7),
+                badge(3L, "FIRST_COURSE", BadgeRule.COURSES_COMPLETED, 1),
+                badge(4L, "TALKATIVE", BadgeRule.DISCUSSIONS_POSTED, 10),
+                badge(5L, "HELPFUL", BadgeRule.UPVOTES_RECEIVED, 50),
+                Badge.builder().id(6L).badgeCode("FOUNDER").build()));
+        badgeCatalog = new BadgeCatalog(badgeRepository, earnedBadgeRepository, 1000, Duration.ofMinutes(30));
+        badgeCatalog.reload();
+        badgeEngine = new BadgeEngine(badgeCatalog, gamificationService, enrollmentRepository, discussionRepository);
+        // Awarding goes through the catalog like GamificationService does
+        lenient().doAnswer(inv -> {
+            badgeCatalog.markEarned(inv.getArgument(0), badgeCatalog.find(inv.getArgument(1)).orElseThrow());
+            return null;
+        }).when(gamificationService).awardBadge(anyLong(), anyString());
+    }
+
+    @Test
+    void streak_awardsEveryThresholdReachedOnce() {
+        when(earnedBadgeRepository.findBadgeIdsByUserId(1L)).thenReturn(List.of());
+
+        badgeEngine.onStreakUpdated(new StreakUpdatedEvent(1L, 6));
+        badgeEngine.onStreakUpdated(new StreakUpdatedEvent(1L, 7));
+        badgeEngine.onStreakUpdated(new StreakUpdatedEvent(1L, 8));
+
+        verify(gamificationService, times(1)).awardBadge(1L, "STREAK_7");
+        verify(gamificationService, never()).awardBadge(1L, "STREAK_30");
+        // Earned badges are loaded once per user
+        verify(earnedBadgeRepository, times(1)).findBadgeIdsByUserId(1L);
+    }
+
+    @Test
+    void progress_countsCompletedCoursesOnlyWhenACourseIsFinished() {
+        when(earnedBadgeRepository.findBadgeIdsByUserId(1L)).thenReturn(List.of());
+        when(enrollmentRepository.countByUserIdAndProgressGreaterThanEqual(1L, 100)).thenReturn(1L);
+
+        badgeEngine.onProgressUpdated(new ProgressUpdatedEvent(1L, 9L, 40, 60));
+        badgeEngine.onProgressUpdated(new ProgressUpdatedEvent(1L, 9L, 60, 100));
+        badgeEngine.onProgressUpdated(new ProgressUpdatedEvent(1L, 9L, 100, 100));
+
+        verify(gamificationService).awardBadge(1L, "FIRST_COURSE");
+        verify(enrollmentRepository, times(1)).countByUserIdAndProgressGreaterThanEqual(1L, 100);
+    }
+
+    @Test
+    void accepts_onlyEventsThatCanMoveARule() {
+        assertThat(badgeEngine.accepts(new ProgressUpdatedEvent(1L, 9L, 60, 100))).isTrue();
+        assertThat(badgeEngine.accepts(new ProgressUpdatedEvent(1L, 9L, 40, 60))).isFalse();
+        assertThat(badgeEngine.accepts(new DiscussionPostedEvent(1L, 100L))).isTrue();
+        // Streaks and upvotes come from flushes, as plain listeners
+        assertThat(badgeEngine.accepts(new StreakUpdatedEvent(1L, 7))).isFalse();
+    }
+
+    @Test
+    void consume_evaluatesCompletedCourse() {
+        when(earnedBadgeRepository.findBadgeIdsByUserId(1L)).thenReturn(List.of());
+        when(enrollmentRepository.countByUserIdAndProgressGreaterThanEqual(1L, 100)).thenReturn(1L);
+
+        badgeEngine.consume(new ProgressUpdatedEvent(1L, 9L, 60, 100));
+
+        verify(gamificationService).awardBadge(1L, "FIRST_COURSE");
+    }
+
+    @Test
+    void discussionPosted_skipsCountOnceBadgeIsEarned() {
+        when(earnedBadgeRepository.findBadgeIdsByUserId(2L)).thenReturn(List.of(4L));
+
+        badgeEngine.onDiscussionPosted(new DiscussionPostedEvent(2L, 100L));
+
+        verifyNoInteractions(discussionRepository, gamificationService);
+    }
+
+    @Test
+    void upvotes_evaluatesEveryAuthorOfTheFlush() {
+        when(earnedBadgeRepository.findBadgeIdsByUserId(anyLong())).thenReturn(List.of());
+        when(discussionRepository.sumUpvotesOfAuthors(Map.of(100L, 3L, 200L, 1L).keySet())).thenReturn(List.of(
+                upvotes(1L, 52), upvotes(2L, 49)));
+
+        badgeEngine.onDiscussionsUpvoted(new DiscussionsUpvotedEvent(Map.of(100L, 3L, 200L, 1L)));
+
+        verify(gamificationService).awardBadge(1L, "HELPFUL");
+        verify(gamificationService, never()).awardBadge(2L, "HELPFUL");
+    }
+
+    private static Badge badge(Long id, String code, BadgeRule rule, int threshold) {
+        return Badge.builder().id(id).badgeCode(code).name(code).rule(rule).threshold(threshold).build();
+    }
+
+    private static DiscussionRepository.AuthorUpvotesRow upvotes(Long userId, long upvotes) {
+        return new DiscussionRepository.AuthorUpvotesRow() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public long getUpvotes() {
+                return upvotes;
+            }
+        };
+    }
+}
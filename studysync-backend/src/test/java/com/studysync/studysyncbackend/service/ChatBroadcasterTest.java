@@ -0,0 +1,110 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.config.ChatBrokerProperties;
+import com.studysync.studysyncbackend.dto.ChatMessageDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ChatBroadcasterTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private ChatBrokerProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChatBrokerProperties();
+    }
+
+    @Test
+    void publish_withoutBatching_sendsEachMessage() {
+        ChatBroadcaster broadcaster = broadcaster();
+        ChatMessageDto message = message(1);
+
+        broadcaster.publish("r1", message);
+
+        verify(messagingTemplate).convertAndSend("/topic/public/r1", message);
+        verifyNoInteractions(scheduler);
+    }
+
+    @Test
+    void publish_firstMessageOfQuietRoom_sendsImmediatelyAsArray() {
+        properties.getBatching().setEnabled(true);
+        ChatBroadcaster broadcaster = broadcaster();
+
+        broadcaster.publish("r1", message(1));
+
+        verify(messagingTemplate).convertAndSend("/topic/public/r1", List.of(message(1)));
+        verifyNoInteractions(scheduler);
+    }
+
+    @Test
+    void publish_busyRoom_collectsMessagesUntilWindowCloses() {
+        properties.getBatching().setEnabled(true);
+        ChatBroadcaster broadcaster = broadcaster();
+
+        // The first message goes out alone; the burst that follows makes the room busy
+        broadcaster.publish("r1", message(1));
+        broadcaster.publish("r1", message(2));
+        broadcaster.publish("r1", message(3));
+        broadcaster.publish("r1", message(4));
+
+        verify(scheduler, times(1)).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+        verify(messagingTemplate, never()).convertAndSend("/topic/public/r1", List.of(message(2), message(3), message(4)));
+
+        broadcaster.flush("r1");
+
+        verify(messagingTemplate).convertAndSend("/topic/public/r1", List.of(message(2), message(3), message(4)));
+    }
+
+    @Test
+    void windowMs_growsWithGapBetweenBounds() {
+        properties.getBatching().setEnabled(true);
+        ChatBroadcaster broadcaster = broadcaster();
+
+        assertThat(broadcaster.windowMs(100_000)).isEqualTo(20);
+        assertThat(broadcaster.windowMs(2_000_000)).isEqualTo(32);
+        assertThat(broadcaster.windowMs(10_000_000)).isEqualTo(50);
+        assertThat(broadcaster.windowMs(60_000_000)).isZero();
+        assertThat(broadcaster.windowMs(Double.MAX_VALUE)).isZero();
+    }
+
+    @Test
+    void constructor_rejectsInvertedWindow() {
+        properties.getBatching().setMinWindowMs(60);
+
+        assertThatThrownBy(this::broadcaster).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ChatBroadcaster broadcaster() {
+        return new ChatBroadcaster(messagingTemplate, properties, new SimpleMeterRegistry(), scheduler);
+    }
+
+    private static ChatMessageDto message(long seq) {
+        return ChatMessageDto.builder().sender("ana").content("m" + seq).seq(seq).build();
+    }
+}
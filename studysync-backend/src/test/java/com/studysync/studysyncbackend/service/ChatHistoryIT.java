@@ -0,0 +1,81 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.config.ChatBrokerProperties;
+import com.studysync.studysyncbackend.dto.ChatMessageDto;
+import com.studysync.studysyncbackend.model.ChatMessage;
+import com.studysync.studysyncbackend.model.ChatMessageType;
+import com.studysync.studysyncbackend.repository.ChatMessageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two relay-mode nodes sending to the same room must never hand out the same seq,
+ * including for a room whose messages predate its chat_room_sequences row.
+ */
+@SpringBootTest
+@Testcontainers
+class ChatHistoryIT {
+
+    @Container
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.35")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("application.security.jwt.secret-key",
+                () -> "c3R1ZHlzeW5jLXRlc3Qtc2VjcmV0LWtleS10aGF0LWlzLWxvbmctZW5vdWdo");
+    }
+
+    @Test
+    void relayNodes_allocateUniqueSeqsContinuingExistingHistory() {
+        chatMessageRepository.save(ChatMessage.builder().roomId("shared").seq(5).type(ChatMessageType.CHAT)
+                .sender("old").content("before").sentAt(LocalDateTime.now()).build());
+        ChatHistoryService nodeA = node();
+        ChatHistoryService nodeB = node();
+
+        for (int i = 0; i < 5; i++) {
+            nodeA.append("shared", message("a" + i), ChatMessageType.CHAT);
+            nodeB.append("shared", message("b" + i), ChatMessageType.CHAT);
+        }
+        nodeA.flush();
+        nodeB.flush();
+
+        assertThat(chatMessageRepository.findByRoomIdAndSeqGreaterThanOrderBySeqAsc("shared", 0, Limit.of(100)))
+                .extracting(ChatMessage::getSeq)
+                .containsExactly(5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L, 15L);
+    }
+
+    private ChatHistoryService node() {
+        ChatBrokerProperties relay = new ChatBrokerProperties();
+        relay.setMode(ChatBrokerProperties.Mode.RELAY);
+        return new ChatHistoryService(chatMessageRepository, jdbcTemplate, relay, 10, 100, Duration.ofMinutes(30));
+    }
+
+    private static ChatMessageDto message(String content) {
+        return ChatMessageDto.builder().sender("alice").content(content).build();
+    }
+}
@@ -0,0 +1,251 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.config.ChatBrokerProperties;
+import com.studysync.studysyncbackend.dto.ChatMessageDto;
+import com.studysync.studysyncbackend.model.ChatMessage;
+import com.studysync.studysyncbackend.model.ChatMessageType;
+import com.studysync.studysyncbackend.repository.ChatMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatHistoryServiceTest {
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ChatHistoryService chatHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        chatHistoryService = new ChatHistoryService(chatMessageRepository, jdbcTemplate, new ChatBrokerProperties(), 3, 100, Duration.ofMinutes(30));
+        lenient().when(chatMessageRepository.findByRoomIdOrderBySeqDesc(anyString(), any(Limit.class)))
+                .thenReturn(List.of());
+    }
+
+    @Test
+    void append_assignsIncreasingSeqAndKeepsLatestInRing() {
+        for (int i = 1; i <= 5; i++) {
+            ChatMessageDto stamped = chatHistoryService.append("room", message("m" + i), ChatMessageType.CHAT);
+            assertThat(stamped.getSeq()).isEqualTo(i);
+            assertThat(stamped.getTimestamp()).isNotNull();
+        }
+
+        assertThat(chatHistoryService.recent("room"))
+                .extracting(ChatMessageDto::getContent).containsExactly("m3", "m4", "m5");
+    }
+
+    @Test
+    void append_publishesConcurrentSendsInSequenceOrder() throws InterruptedException {
+        List<Long> published = Collections.synchronizedList(new ArrayList<>());
+        Thread[] senders = new Thread[4];
+        for (int t = 0; t < senders.length; t++) {
+            senders[t] = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    chatHistoryService.append("room", message("m"), ChatMessageType.CHAT,
+                            stamped -> published.add(stamped.getSeq()));
+                }
+            });
+            senders[t].start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+
+        assertThat(published).hasSize(1000).isSorted();
+    }
+
+    @Test
+    void append_continuesSequenceFromDatabase() {
+        when(chatMessageRepository.findByRoomIdOrderBySeqDesc(eq("old"), any(Limit.class)))
+                .thenReturn(List.of(row(41), row(40)));
+
+        ChatMessageDto stamped = chatHistoryService.append("old", message("hi"), ChatMessageType.CHAT);
+
+        assertThat(stamped.getSeq()).isEqualTo(42);
+        assertThat(chatHistoryService.recent("old")).extracting(ChatMessageDto::getSeq).containsExactly(40L, 41L, 42L);
+    }
+
+    @Test
+    void since_withinRing_doesNotQueryDatabase() {
+        for (int i = 1; i <= 5; i++) {
+            chatHistoryService.append("room", message("m" + i), ChatMessageType.CHAT);
+        }
+
+        assertThat(chatHistoryService.since("room", 3, 100)).extracting(ChatMessageDto::getSeq).containsExactly(4L, 5L);
+        verify(chatMessageRepository, times(0)).findByRoomIdAndSeqGreaterThanOrderBySeqAsc(anyString(), any(Long.class), any());
+    }
+
+    @Test
+    void since_beforeRing_readsOlderMessagesFromDatabase() {
+        for (int i = 1; i <= 5; i++) {
+            chatHistoryService.append("room", message("m" + i), ChatMessageType.CHAT);
+        }
+        when(chatMessageRepository.findByRoomIdAndSeqGreaterThanOrderBySeqAsc(eq("room"), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(row(1), row(2), row(3)));
+
+        assertThat(chatHistoryService.since("room", 0, 100))
+                .extracting(ChatMessageDto::getSeq).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void recent_unknownRoom_isNotCreated() {
+        assertThat(chatHistoryService.recent("nobody-here")).isEmpty();
+        assertThat(chatHistoryService.since("nobody-here", 0, 10)).isEmpty();
+
+        // Not cached: every read of the empty room checks the database again
+        verify(chatMessageRepository, times(2)).findByRoomIdOrderBySeqDesc(eq("nobody-here"), any(Limit.class));
+    }
+
+    @Test
+    void append_afterRoomExpired_continuesFromUnflushedMessages() throws InterruptedException {
+        chatHistoryService = new ChatHistoryService(chatMessageRepository, jdbcTemplate, new ChatBrokerProperties(), 3, 100, Duration.ofNanos(1));
+        chatHistoryService.append("room", message("a"), ChatMessageType.CHAT);
+        chatHistoryService.append("room", message("b"), ChatMessageType.CHAT);
+        Thread.sleep(1);
+
+        // The ring expired before anything was flushed: the database alone would restart at seq 1
+        ChatMessageDto stamped = chatHistoryService.append("room", message("c"), ChatMessageType.CHAT);
+
+        assertThat(stamped.getSeq()).isEqualTo(3);
+        verify(chatMessageRepository, times(3)).findByRoomIdOrderBySeqDesc(eq("room"), any(Limit.class));
+    }
+
+    @Test
+    void append_concurrentlyWhileRoomKeepsExpiring_neverRepeatsASeq() throws InterruptedException {
+        chatHistoryService = new ChatHistoryService(chatMessageRepository, jdbcTemplate, new ChatBrokerProperties(), 3, 100, Duration.ofNanos(1));
+        List<Long> seqs = Collections.synchronizedList(new ArrayList<>());
+        Thread[] senders = new Thread[4];
+        for (int t = 0; t < senders.length; t++) {
+            senders[t] = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    seqs.add(chatHistoryService.append("room", message("m"), ChatMessageType.CHAT).getSeq());
+                }
+            });
+            senders[t].start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+
+        assertThat(seqs).doesNotHaveDuplicates().hasSize(1000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void append_whileBatchIsBeingWritten_continuesAfterItsSeqs() {
+        chatHistoryService = new ChatHistoryService(chatMessageRepository, jdbcTemplate, new ChatBrokerProperties(), 3, 100, Duration.ofNanos(1));
+        chatHistoryService.append("room", message("a"), ChatMessageType.CHAT);
+        List<Long> appended = new ArrayList<>();
+        // The ring expires and is reloaded while "a" is neither queued nor in the database
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(inv -> {
+            Thread.sleep(1);
+            appended.add(chatHistoryService.append("room", message("b"), ChatMessageType.CHAT).getSeq());
+            return new int[][] { { 1 } };
+        });
+
+        chatHistoryService.flush();
+
+        assertThat(appended).containsExactly(2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void append_relayMode_allocatesSeqsSharedByAllNodes() {
+        ChatBrokerProperties relay = new ChatBrokerProperties();
+        relay.setMode(ChatBrokerProperties.Mode.RELAY);
+        // Stands in for the chat_room_sequences row both nodes update
+        AtomicLong lastSeq = new AtomicLong(10);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(inv -> lastSeq.incrementAndGet());
+        ChatHistoryService nodeA = new ChatHistoryService(chatMessageRepository, jdbcTemplate, relay, 3, 100, Duration.ofMinutes(30));
+        ChatHistoryService nodeB = new ChatHistoryService(chatMessageRepository, jdbcTemplate, relay, 3, 100, Duration.ofMinutes(30));
+
+        List<Long> seqs = List.of(
+                nodeA.append("room", message("a1"), ChatMessageType.CHAT).getSeq(),
+                nodeB.append("room", message("b1"), ChatMessageType.CHAT).getSeq(),
+                nodeA.append("room", message("a2"), ChatMessageType.CHAT).getSeq(),
+                nodeB.append("room", message("b2"), ChatMessageType.CHAT).getSeq());
+
+        assertThat(seqs).containsExactly(11L, 12L, 13L, 14L);
+    }
+
+    @Test
+    void since_relayMode_readsDatabaseInsteadOfLocalRing() {
+        ChatBrokerProperties relay = new ChatBrokerProperties();
+        relay.setMode(ChatBrokerProperties.Mode.RELAY);
+        chatHistoryService = new ChatHistoryService(chatMessageRepository, jdbcTemplate, relay, 3, 100, Duration.ofMinutes(30));
+        when(chatMessageRepository.findByRoomIdAndSeqGreaterThanOrderBySeqAsc(eq("room"), eq(5L), any(Limit.class)))
+                .thenReturn(List.of(row(6), row(7)));
+
+        assertThat(chatHistoryService.since("room", 5, 100)).extracting(ChatMessageDto::getSeq).containsExactly(6L, 7L);
+    }
+
+    @Test
+    void append_tooLongMessage_throws() {
+        ChatMessageDto message = message("x".repeat(ChatHistoryService.MAX_CONTENT_LENGTH + 1));
+
+        assertThatThrownBy(() -> chatHistoryService.append("room", message, ChatMessageType.CHAT))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_writesQueuedMessagesAndRetriesOnFailure() {
+        chatHistoryService.append("room", message("a"), ChatMessageType.JOIN);
+        chatHistoryService.append("room", message("b"), ChatMessageType.CHAT);
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[][] { { 1, 1 } });
+
+        chatHistoryService.flush();
+        chatHistoryService.flush();
+        chatHistoryService.flush(); // Nothing left to write
+
+        ArgumentCaptor<Collection<?>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batch.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(batch.getAllValues().get(1)).hasSize(2);
+    }
+
+    private static ChatMessageDto message(String content) {
+        return ChatMessageDto.builder().sender("alice").content(content).build();
+    }
+
+    private static ChatMessage row(long seq) {
+        return ChatMessage.builder().roomId("room").seq(seq).type(ChatMessageType.CHAT)
+                .sender("bob").content("m" + seq).sentAt(LocalDateTime.now()).build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.dto.ChatMessageDto;
+import com.studysync.studysyncbackend.dto.PresenceEventDto;
+import com.studysync.studysyncbackend.dto.RoomPresenceDto;
+import com.studysync.studysyncbackend.model.ChatMessageType;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChatPresenceServiceTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private ChatHistoryService chatHistoryService;
+
+    @Mock
+    private ChatBroadcaster chatBroadcaster;
+
+    private ChatPresenceService chatPresenceService;
+
+    @BeforeEach
+    void setUp() {
+        chatPresenceService = new ChatPresenceService(messagingTemplate, chatHistoryService, chatBroadcaster);
+        lenient().when(chatHistoryService.append(anyString(), any(ChatMessageDto.class), eq(ChatMessageType.LEAVE), any()))
+                .thenAnswer(invocation -> {
+                    invocation.<Consumer<ChatMessageDto>>getArgument(3).accept(invocation.getArgument(1));
+                    return invocation.getArgument(1);
+                });
+    }
+
+    @Test
+    void join_countsUserOncePerRoomAndBroadcastsDelta() {
+        chatPresenceService.join("r1", "s1", "ana");
+        chatPresenceService.join("r1", "s2", "ana"); // second tab
+        chatPresenceService.join("r1", "s3", "ben");
+
+        RoomPresenceDto snapshot = chatPresenceService.snapshot("r1");
+        assertThat(snapshot.getUsers()).containsExactly("ana", "ben");
+        assertThat(snapshot.getOnline()).isEqualTo(2);
+        assertThat(snapshot.getVersion()).isEqualTo(2);
+
+        ArgumentCaptor<PresenceEventDto> events = ArgumentCaptor.forClass(PresenceEventDto.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/presence/r1"), events.capture());
+        assertThat(events.getAllValues()).extracting(PresenceEventDto::getUsername, PresenceEventDto::getOnline)
+                .containsExactly(Tuple.tuple("ana", 1), Tuple.tuple("ben", 2));
+    }
+
+    @Test
+    void leave_onlyAnnouncesWhenLastSessionOfUserGoes() {
+        chatPresenceService.join("r1", "s1", "ana");
+        chatPresenceService.join("r1", "s2", "ana");
+
+        chatPresenceService.leave("s1");
+
+        assertThat(chatPresenceService.onlineCount("r1")).isEqualTo(1);
+        verify(chatBroadcaster, never()).publish(anyString(), any());
+
+        chatPresenceService.leave("s2");
+
+        assertThat(chatPresenceService.onlineCount("r1")).isZero();
+        ArgumentCaptor<PresenceEventDto> events = ArgumentCaptor.forClass(PresenceEventDto.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/presence/r1"), events.capture());
+        PresenceEventDto leave = events.getAllValues().get(1);
+        assertThat(leave.getType()).isEqualTo(ChatMessageType.LEAVE);
+        assertThat(leave.getOnline()).isZero();
+        verify(chatBroadcaster).publish(eq("r1"), any(ChatMessageDto.class));
+    }
+
+    @Test
+    void leave_removesSessionFromEveryRoomItJoined() {
+        chatPresenceService.join("r1", "s1", "ana");
+        chatPresenceService.join("r2", "s1", "ana");
+        chatPresenceService.join("r2", "s2", "ben");
+
+        chatPresenceService.leave("s1");
+        chatPresenceService.leave("s1"); // duplicate disconnect events are harmless
+
+        assertThat(chatPresenceService.onlineCount("r1")).isZero();
+        assertThat(chatPresenceService.snapshot("r2").getUsers()).containsExactly("ben");
+        verify(chatHistoryService, times(2)).append(anyString(), any(ChatMessageDto.class), eq(ChatMessageType.LEAVE), any());
+    }
+
+    @Test
+    void snapshot_ofUnknownRoomIsEmpty() {
+        RoomPresenceDto snapshot = chatPresenceService.snapshot("nobody-here");
+
+        assertThat(snapshot.getOnline()).isZero();
+        assertThat(snapshot.getUsers()).isEmpty();
+    }
+}
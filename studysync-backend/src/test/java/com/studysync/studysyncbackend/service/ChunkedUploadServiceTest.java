@@ -0,0 +1,221 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.dto.UploadInitRequestDto;
+import com.studysync.studysyncbackend.dto.UploadSessionDto;
+import com.studysync.studysyncbackend.repository.StoredBlobRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ChunkedUploadServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    @TempDir
+    Path uploadDir;
+
+    private ChunkedUploadService chunkedUploadService;
+    private byte[] video;
+
+    @BeforeEach
+    void setUp() {
+        BlobStore blobStore = new LocalBlobStore(uploadDir);
+        ImageDerivativeService imageDerivativeService = mock(ImageDerivativeService.class);
+        StoredBlobService storedBlobService = new StoredBlobService(mock(JdbcTemplate.class), mock(TransactionTemplate.class),
+                mock(StoredBlobRepository.class), blobStore, imageDerivativeService, Duration.ofHours(24), 3_600_000);
+        FileStorageService fileStorageService = new FileStorageService(uploadDir.toString(), blobStore,
+                storedBlobService, imageDerivativeService);
+        chunkedUploadService = new ChunkedUploadService(fileStorageService,
+                DataSize.ofKilobytes(512), DataSize.ofKilobytes(100), Duration.ofHours(1));
+        video = new byte[250_000];
+        new Random(42).nextBytes(video);
+    }
+
+    @Test
+    void chunksInAnyOrder_completeIntoUploadDir() throws Exception {
+        String id = init(video).getUploadId();
+
+        chunk(id, 200_000, 200_000, 250_000);
+        chunk(id, 0, 0, 100_000);
+        UploadSessionDto status = chunk(id, 100_000, 100_000, 200_000);
+
+        assertThat(status.getReceivedBytes()).isEqualTo(video.length);
+        assertThat(status.getReceivedRanges()).hasSize(1);
+        String stored = chunkedUploadService.complete(USER_ID, id);
+
+        assertThat(stored).isEqualTo(request(video).getSha256() + ".mp4");
+        assertThat(Files.readAllBytes(uploadDir.resolve(stored))).isEqualTo(video);
+        assertThat(Files.list(uploadDir.resolve(".incoming"))).isEmpty();
+        assertThatThrownBy(() -> chunkedUploadService.status(USER_ID, id)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void droppedConnection_keepsWrittenPrefixForResume() throws Exception {
+        String id = init(video).getUploadId();
+        InputStream dropping = new InputStream() {
+            private final InputStream data = new ByteArrayInputStream(video, 0, 70_000);
+
+            @Override
+            public int read() throws IOException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = data.read(b, off, len);
+                if (read == -1) {
+                    throw new IOException("Connection reset");
+                }
+                return read;
+            }
+        };
+
+        assertThatThrownBy(() -> chunkedUploadService.writeChunk(USER_ID, id, 0, dropping)).isInstanceOf(IOException.class);
+
+        UploadSessionDto status = chunkedUploadService.status(USER_ID, id);
+        assertThat(status.getReceivedBytes()).isEqualTo(70_000);
+        assertThat(status.getNextOffset()).isEqualTo(70_000);
+        assertThatThrownBy(() -> chunkedUploadService.complete(USER_ID, id))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing");
+
+        chunk(id, 70_000, 70_000, 170_000);
+        chunk(id, 170_000, 170_000, 250_000);
+        assertThat(Files.readAllBytes(uploadDir.resolve(chunkedUploadService.complete(USER_ID, id)))).isEqualTo(video);
+    }
+
+    @Test
+    void complete_whileChunkInFlight_isRejectedUntilItFinishes() throws Exception {
+        String id = init(video).getUploadId();
+        chunk(id, 0, 0, 100_000);
+        chunk(id, 100_000, 100_000, 200_000);
+        chunk(id, 200_000, 200_000, 250_000);
+        // A retried chunk that is still streaming when the client completes
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream slow = new InputStream() {
+            private final InputStream data = new ByteArrayInputStream(video, 0, 100_000);
+
+            @Override
+            public int read() throws IOException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new IOException(ex);
+                }
+                return data.read(b, off, len);
+            }
+        };
+        CompletableFuture<UploadSessionDto> retry = CompletableFuture.supplyAsync(() -> {
+            try {
+                return chunkedUploadService.writeChunk(USER_ID, id, 0, slow);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> chunkedUploadService.complete(USER_ID, id))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("still being written");
+
+        release.countDown();
+        retry.get(5, TimeUnit.SECONDS);
+        String stored = chunkedUploadService.complete(USER_ID, id);
+        assertThat(Files.readAllBytes(uploadDir.resolve(stored))).isEqualTo(video);
+    }
+
+    @Test
+    void checksumMismatch_resetsReceivedRanges() throws Exception {
+        UploadInitRequestDto request = request(video);
+        request.setSha256("0".repeat(64));
+        String id = chunkedUploadService.init(USER_ID, request).getUploadId();
+        chunk(id, 0, 0, 100_000);
+        chunk(id, 100_000, 100_000, 200_000);
+        chunk(id, 200_000, 200_000, 250_000);
+
+        assertThatThrownBy(() -> chunkedUploadService.complete(USER_ID, id))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Checksum");
+        assertThat(chunkedUploadService.status(USER_ID, id).getReceivedBytes()).isZero();
+    }
+
+    @Test
+    void rejectsOversizedChunksAndFiles() throws Exception {
+        String id = init(video).getUploadId();
+
+        assertThatThrownBy(() -> chunk(id, 0, 0, 150_000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> chunk(id, 249_000, 0, 2_000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> chunk(id, 250_000, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> init(new byte[600_000])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void uploadsBelongToTheirUser() {
+        String id = init(video).getUploadId();
+
+        assertThatThrownBy(() -> chunkedUploadService.status(2L, id)).isInstanceOf(AccessDeniedException.class);
+        chunkedUploadService.abort(USER_ID, id);
+        assertThatThrownBy(() -> chunkedUploadService.status(USER_ID, id)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void init_validatesFileType() {
+        UploadInitRequestDto request = request(video);
+        request.setFileName("notes.exe");
+
+        assertThatThrownBy(() -> chunkedUploadService.init(USER_ID, request)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private UploadSessionDto init(byte[] content) {
+        return chunkedUploadService.init(USER_ID, request(content));
+    }
+
+    private UploadSessionDto chunk(String id, long offset, int from, int to) throws IOException {
+        return chunkedUploadService.writeChunk(USER_ID, id, offset,
+                new ByteArrayInputStream(Arrays.copyOfRange(video, from, to)));
+    }
+
+    private static UploadInitRequestDto request(byte[] content) {
+        try {
+            return UploadInitRequestDto.builder()
+                    .fileName("lecture.mp4")
+                    .contentType("video/mp4")
+                    .size(content.length)
+                    .sha256(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)))
+                    .build();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.dto.CourseSummaryDto;
+import com.studysync.studysyncbackend.dto.CourseSummaryPageDto;
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.model.Role;
+import com.studysync.studysyncbackend.model.User;
+import com.studysync.studysyncbackend.repository.CourseRepository;
+import com.studysync.studysyncbackend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pages through the catalog with small pages over many equal sort keys: every course
+ * must come back exactly once, in sort order, and the last page must end the walk.
+ */
+@SpringBootTest
+@Testcontainers
+class CourseCatalogIT {
+
+    private static final int COURSES = 25;
+
+    @Container
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.35")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Autowired
+    private CourseCatalogService courseCatalogService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("application.security.jwt.secret-key",
+                () -> "c3R1ZHlzeW5jLXRlc3Qtc2VjcmV0LWtleS10aGF0LWlzLWxvbmctZW5vdWdo");
+    }
+
+    @BeforeEach
+    void setUp() {
+        if (userRepository.findByEmail("tutor@catalog.test").isPresent()) {
+            return;
+        }
+        User tutor = userRepository.save(User.builder().email("tutor@catalog.test").password("pw")
+                .firstName("Tutor").role(Role.TUTOR).build());
+        for (int i = 0; i < COURSES; i++) {
+            // Three distinct ratings and view counts, so most rows tie with their neighbours
+            courseRepository.save(Course.builder()
+                    .title("Course " + i)
+                    .price(BigDecimal.TEN)
+                    .isPublished(true)
+                    .averageRating((double) (i % 3))
+                    .viewCount((long) (i % 3) * 10)
+                    .tutor(tutor)
+                    .build());
+        }
+    }
+
+    @Test
+    void pagingById_visitsEveryCourseOnce() {
+        assertWalk("id", Comparator.comparing(CourseSummaryDto::getId).reversed());
+    }
+
+    @Test
+    void pagingByRating_breaksTiesById() {
+        assertWalk("rating", Comparator.comparing(CourseSummaryDto::getAverageRating)
+                .thenComparing(CourseSummaryDto::getId).reversed());
+    }
+
+    @Test
+    void pagingByViews_breaksTiesById() {
+        assertWalk("views", Comparator.comparing(CourseSummaryDto::getViewCount)
+                .thenComparing(CourseSummaryDto::getId).reversed());
+    }
+
+    private void assertWalk(String sortBy, Comparator<CourseSummaryDto> expectedOrder) {
+        List<CourseSummaryDto> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CourseSummaryPageDto page = courseCatalogService.getCatalogPage(sortBy, cursor, 4);
+            walked.addAll(page.getItems());
+            assertThat(page.isHasMore()).isEqualTo(page.getNextCursor() != null);
+            cursor = page.getNextCursor();
+            assertThat(++pages).isLessThanOrEqualTo(COURSES);
+        } while (cursor != null);
+
+        assertThat(walked).extracting(CourseSummaryDto::getId).doesNotHaveDuplicates();
+        assertThat(walked).hasSize(COURSES);
+        assertThat(walked).isSortedAccordingTo(expectedOrder);
+    }
+}
@@ -0,0 +1,141 @@
+package com.studysync.studysyncbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studysync.studysyncbackend.controller.CourseController;
+import com.studysync.studysyncbackend.dto.CourseSummaryDto;
+import com.studysync.studysyncbackend.dto.CourseSummaryPageDto;
+import com.studysync.studysyncbackend.exception.GlobalExceptionHandler;
+import com.studysync.studysyncbackend.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class CourseCatalogServiceTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    private CourseCatalogService courseCatalogService;
+
+    @BeforeEach
+    void setUp() {
+        courseCatalogService = new CourseCatalogService(courseRepository, new ObjectMapper());
+    }
+
+    @Test
+    void getCatalogPage_cursorRoundTrip_resumesAfterLastItem() {
+        when(courseRepository.findSummariesAfterId(Long.MAX_VALUE, Limit.of(3)))
+                .thenReturn(List.of(summary(30L, 0.0, 0L), summary(20L, 0.0, 0L), summary(10L, 0.0, 0L)));
+
+        CourseSummaryPageDto first = courseCatalogService.getCatalogPage("id", null, 2);
+
+        assertThat(first.getItems()).extracting(CourseSummaryDto::getId).containsExactly(30L, 20L);
+        assertThat(first.isHasMore()).isTrue();
+
+        when(courseRepository.findSummariesAfterId(20L, Limit.of(3))).thenReturn(List.of(summary(10L, 0.0, 0L)));
+
+        CourseSummaryPageDto second = courseCatalogService.getCatalogPage("id", first.getNextCursor(), 2);
+
+        assertThat(second.getItems()).extracting(CourseSummaryDto::getId).containsExactly(10L);
+    }
+
+    @Test
+    void getCatalogPage_equalRatings_cursorCarriesIdAsTieBreaker() {
+        // Both rows on the page share the rating of the row after them
+        when(courseRepository.findSummariesAfterRating(Double.MAX_VALUE, Long.MAX_VALUE, Limit.of(3)))
+                .thenReturn(List.of(summary(9L, 4.5, 0L), summary(7L, 4.5, 0L), summary(5L, 4.5, 0L)));
+
+        CourseSummaryPageDto first = courseCatalogService.getCatalogPage("rating", null, 2);
+        courseCatalogService.getCatalogPage("rating", first.getNextCursor(), 2);
+
+        // The next page starts strictly after (4.5, 7), so course 5 is neither skipped nor repeated
+        verify(courseRepository).findSummariesAfterRating(4.5, 7L, Limit.of(3));
+    }
+
+    @Test
+    void getCatalogPage_lastPage_hasNoCursor() {
+        when(courseRepository.findSummariesAfterViews(Long.MAX_VALUE, Long.MAX_VALUE, Limit.of(3)))
+                .thenReturn(List.of(summary(3L, 0.0, 12L), summary(2L, 0.0, 12L)));
+
+        CourseSummaryPageDto page = courseCatalogService.getCatalogPage("views", null, 2);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getCatalogPage_tamperedCursor_isRejectedAsBadArgument() {
+        for (String cursor : List.of("not base64!", encode("abc"), encode("4.5:7"), encode("1:2:3"), encode(":"))) {
+            assertThatThrownBy(() -> courseCatalogService.getCatalogPage("id", cursor, 20))
+                    .as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        // A rating cursor replayed against the views order
+        assertThatThrownBy(() -> courseCatalogService.getCatalogPage("views", encode("4.5:7"), 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(courseRepository);
+    }
+
+    @Test
+    void getCatalogPage_tamperedCursor_respondsBadRequest() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new CourseController(null, courseCatalogService, null))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(get("/api/courses/catalog").param("cursor", encode("x")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/courses/catalog").param("sortBy", "price"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCatalogPage_invalidSize_isRejected() {
+        assertThatThrownBy(() -> courseCatalogService.getCatalogPage("id", null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void streamCatalog_writesOneJsonObjectPerLine() throws Exception {
+        when(courseRepository.streamPublishedSummaries())
+                .thenReturn(Stream.of(summary(2L, 4.0, 1L), summary(1L, 3.0, 5L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        courseCatalogService.streamCatalog(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThat(objectMapper.readValue(lines[0], CourseSummaryDto.class).getId()).isEqualTo(2L);
+        assertThat(objectMapper.readValue(lines[1], CourseSummaryDto.class).getId()).isEqualTo(1L);
+    }
+
+    private static CourseSummaryDto summary(Long id, double rating, long views) {
+        return CourseSummaryDto.builder().id(id).title("Course " + id).averageRating(rating).viewCount(views).build();
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package com.studysync.studysyncbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studysync.studysyncbackend.dto.CourseResponseDto;
+import com.studysync.studysyncbackend.dto.TutorDto;
+import com.studysync.studysyncbackend.event.CourseChangedEvent;
+import com.studysync.studysyncbackend.event.UserProfileChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CourseDetailsCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CourseDetailsCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CourseDetailsCache(new ObjectMapper(), meterRegistry, 1_000_000, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_secondRead_isServedFromCache() {
+        cache.get(1L, this::load);
+        CourseResponseDto cached = cache.get(1L, this::load);
+
+        assertThat(cached.getTitle()).isEqualTo("Course 1");
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void onCourseChanged_invalidatesEntry() {
+        cache.get(1L, this::load);
+
+        cache.onCourseChanged(new CourseChangedEvent(1L));
+        cache.get(1L, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void onUserProfileChanged_invalidatesOnlyThatTutorsCourses() {
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.get(3L, this::load);
+
+        // Odd courses are taught by tutor 7
+        cache.onUserProfileChanged(new UserProfileChangedEvent(7L));
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.get(3L, this::load);
+
+        assertThat(loads).hasValue(5);
+    }
+
+    private CourseResponseDto load(Long id) {
+        loads.incrementAndGet();
+        TutorDto tutor = TutorDto.builder().id(id % 2 == 1 ? 7L : 8L).firstName("Tutor").build();
+        return CourseResponseDto.builder().id(id).title("Course " + id).tutor(tutor).build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.studysync.studysyncbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studysync.studysyncbackend.dto.CourseResponseDto;
+import com.studysync.studysyncbackend.dto.TutorDto;
+import com.studysync.studysyncbackend.event.CourseChangedEvent;
+import com.studysync.studysyncbackend.event.UserProfileChangedEvent;
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CourseFeedSnapshotTest {
+
+    @Mock
+    private CourseService courseService;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CourseFeedSnapshot feedSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        feedSnapshot = new CourseFeedSnapshot(courseService, courseRepository, objectMapper);
+        when(courseService.findAllCourses(true)).thenReturn(List.of(dto(1L, "Java"), dto(2L, "Spring")));
+        feedSnapshot.rebuild();
+    }
+
+    @Test
+    void get_servesJsonArrayAndMatchingGzip() throws IOException {
+        CourseFeedSnapshot.Snapshot snapshot = feedSnapshot.get();
+
+        List<?> feed = objectMapper.readValue(snapshot.json(), List.class);
+        assertThat(feed).hasSize(2);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(snapshot.json());
+        }
+        assertThat(snapshot.matches(snapshot.etag())).isTrue();
+        assertThat(snapshot.matches("\"other\", " + snapshot.gzipEtag())).isTrue();
+        assertThat(snapshot.matches("\"other\"")).isFalse();
+    }
+
+    @Test
+    void onCourseChanged_reencodesOnlyThatCourse() throws IOException {
+        String previousEtag = feedSnapshot.get().etag();
+        Course updated = course(2L, true);
+        when(courseRepository.findWithTutorAndModulesById(2L)).thenReturn(Optional.of(updated));
+        when(courseService.mapCourseToDto(updated)).thenReturn(dto(2L, "Spring Boot"));
+
+        feedSnapshot.onCourseChanged(new CourseChangedEvent(2L));
+
+        CourseFeedSnapshot.Snapshot snapshot = feedSnapshot.get();
+        assertThat(snapshot.etag()).isNotEqualTo(previousEtag);
+        assertThat(new String(snapshot.json())).contains("\"Spring Boot\"").contains("\"Java\"");
+    }
+
+    @Test
+    void onCourseChanged_dropsUnpublishedCourse() throws IOException {
+        when(courseRepository.findWithTutorAndModulesById(1L)).thenReturn(Optional.of(course(1L, false)));
+
+        feedSnapshot.onCourseChanged(new CourseChangedEvent(1L));
+
+        List<?> feed = objectMapper.readValue(feedSnapshot.get().json(), List.class);
+        assertThat(feed).hasSize(1);
+        assertThat(new String(feedSnapshot.get().json())).doesNotContain("\"Java\"");
+    }
+
+    @Test
+    void onUserProfileChanged_ofTutor_reencodesOnlyTheirCourses() {
+        when(courseService.findAllCourses(true)).thenReturn(List.of(dto(1L, "Java", 10L), dto(2L, "Spring", 20L)));
+        feedSnapshot.rebuild();
+        Course taught = course(2L, true);
+        when(courseRepository.findWithTutorAndModulesById(2L)).thenReturn(Optional.of(taught));
+        when(courseService.mapCourseToDto(taught)).thenReturn(dto(2L, "Spring by Ada", 20L));
+
+        feedSnapshot.onUserProfileChanged(new UserProfileChangedEvent(20L));
+
+        assertThat(new String(feedSnapshot.get().json())).contains("\"Spring by Ada\"").contains("\"Java\"");
+        verify(courseRepository, never()).findWithTutorAndModulesById(1L);
+    }
+
+    @Test
+    void onUserProfileChanged_ofStudent_touchesNothing() {
+        String previousEtag = feedSnapshot.get().etag();
+
+        feedSnapshot.onUserProfileChanged(new UserProfileChangedEvent(99L));
+
+        assertThat(feedSnapshot.get().etag()).isEqualTo(previousEtag);
+        verify(courseRepository, never()).findWithTutorAndModulesById(any());
+        verify(courseService).findAllCourses(true); // Only the setUp rebuild
+    }
+
+    @Test
+    void rebuild_picksUpChangesMadeElsewhereAndKeepsEtagWhenUnchanged() {
+        String previousEtag = feedSnapshot.get().etag();
+
+        feedSnapshot.rebuild();
+        assertThat(feedSnapshot.get().etag()).isEqualTo(previousEtag);
+
+        // Edited on another node: no local event, the scheduled rebuild catches it
+        when(courseService.findAllCourses(true)).thenReturn(List.of(dto(1L, "Java 21"), dto(2L, "Spring")));
+        feedSnapshot.rebuild();
+
+        assertThat(feedSnapshot.get().etag()).isNotEqualTo(previousEtag);
+        assertThat(new String(feedSnapshot.get().json())).contains("\"Java 21\"");
+    }
+
+    @Test
+    void acceptsGzip_honoursQualityValues() {
+        assertThat(CourseFeedSnapshot.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(CourseFeedSnapshot.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(CourseFeedSnapshot.acceptsGzip("*")).isTrue();
+        assertThat(CourseFeedSnapshot.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(CourseFeedSnapshot.acceptsGzip("gzip; q=0.000, *")).isFalse();
+        assertThat(CourseFeedSnapshot.acceptsGzip("*;q=0")).isFalse();
+        assertThat(CourseFeedSnapshot.acceptsGzip("identity")).isFalse();
+        assertThat(CourseFeedSnapshot.acceptsGzip(null)).isFalse();
+    }
+
+    private static CourseResponseDto dto(Long id, String title) {
+        return CourseResponseDto.builder().id(id).title(title).isPublished(true).build();
+    }
+
+    private static CourseResponseDto dto(Long id, String title, Long tutorId) {
+        return CourseResponseDto.builder().id(id).title(title).isPublished(true)
+                .tutor(TutorDto.builder().id(tutorId).build()).build();
+    }
+
+    private static Course course(Long id, boolean published) {
+        Course course = new Course();
+        course.setId(id);
+        course.setPublished(published);
+        return course;
+    }
+}
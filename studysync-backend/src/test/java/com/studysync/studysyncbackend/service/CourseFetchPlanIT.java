@@ -0,0 +1,166 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.model.Enrollment;
+import com.studysync.studysyncbackend.model.Module;
+import com.studysync.studysyncbackend.model.Role;
+import com.studysync.studysyncbackend.model.User;
+import com.studysync.studysyncbackend.model.WishlistItem;
+import com.studysync.studysyncbackend.repository.CourseRepository;
+import com.studysync.studysyncbackend.repository.EnrollmentRepository;
+import com.studysync.studysyncbackend.repository.UserRepository;
+import com.studysync.studysyncbackend.repository.WishlistItemRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards against N+1 regressions: every listing endpoint must map the whole
+ * catalog with a fixed number of SQL statements, independent of its size.
+ */
+@SpringBootTest
+@Testcontainers
+class CourseFetchPlanIT {
+
+    private static final int COURSES = 40;
+    private static final int MODULES_PER_COURSE = 3;
+
+    @Container
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.35")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private WishlistService wishlistService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WishlistItemRepository wishlistItemRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+        registry.add("application.security.jwt.secret-key",
+                () -> "c3R1ZHlzeW5jLXRlc3Qtc2VjcmV0LWtleS10aGF0LWlzLWxvbmctZW5vdWdo");
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        User tutor = userRepository.findByEmail("tutor@fetchplan.test").orElse(null);
+        User student = userRepository.findByEmail("student@fetchplan.test").orElse(null);
+        if (tutor == null) {
+            tutor = userRepository.save(User.builder().email("tutor@fetchplan.test").password("pw")
+                    .firstName("Tutor").role(Role.TUTOR).build());
+            student = userRepository.save(User.builder().email("student@fetchplan.test").password("pw")
+                    .firstName("Student").role(Role.STUDENT).build());
+            for (int i = 0; i < COURSES; i++) {
+                Course course = Course.builder()
+                        .title("Course " + i)
+                        .description("Description " + i)
+                        .price(BigDecimal.TEN)
+                        .isPublished(true)
+                        .category("Programming")
+                        .level("Beginner")
+                        .tutor(tutor)
+                        .build();
+                for (int m = 0; m < MODULES_PER_COURSE; m++) {
+                    course.addModule(Module.builder().title("Module " + m).content("Content " + m).build());
+                }
+                course = courseRepository.save(course);
+                wishlistItemRepository.save(WishlistItem.builder().user(student).course(course).build());
+                enrollmentRepository.save(Enrollment.builder().user(student).course(course).build());
+            }
+        }
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void findAllCourses_usesConstantQueries() {
+        assertStatements(() -> courseService.findAllCourses(true), 2);
+    }
+
+    @Test
+    void searchCourses_usesConstantQueries() {
+        assertStatements(() -> courseService.searchCourses(null, null, null, null, "price_asc", null, null), 3);
+    }
+
+    @Test
+    void findCoursesByTutor_usesConstantQueries() {
+        authenticateAs("tutor@fetchplan.test");
+        assertStatements(() -> courseService.findCoursesByTutor(), 2);
+    }
+
+    @Test
+    void getWishlist_usesConstantQueries() {
+        authenticateAs("student@fetchplan.test");
+        assertStatements(() -> wishlistService.getWishlistForCurrentUser(), 2);
+    }
+
+    @Test
+    void getEnrollments_usesConstantQueries() {
+        authenticateAs("student@fetchplan.test");
+        assertStatements(() -> enrollmentService.getCurrentUserEnrollments(), 2);
+    }
+
+    private void assertStatements(Supplier<List<?>> call, long maxStatements) {
+        statistics.clear();
+        List<?> result = call.get();
+        assertThat(result).hasSize(COURSES);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements for %d courses", COURSES)
+                .isLessThanOrEqualTo(maxStatements);
+    }
+
+    private void authenticateAs(String email) {
+        User user = userRepository.findByEmail(email).orElseThrow();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,90 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.event.CourseChangedEvent;
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CourseSearchIndexTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @InjectMocks
+    private CourseSearchIndex courseSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(courseRepository.findByIsPublished(true)).thenReturn(List.of(
+                course(1L, "Java Fundamentals", "Learn the basics of programming", "Programming", "Beginner"),
+                course(2L, "Advanced Spring Boot", "Build production Java services", "Programming", "Advanced"),
+                course(3L, "Watercolor Painting", "Painting landscapes step by step", "Art", "Beginner")));
+        courseSearchIndex.rebuild();
+    }
+
+    @Test
+    void search_titleMatch_ranksAboveDescriptionMatch() {
+        assertThat(courseSearchIndex.search("java", 10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void search_prefix_matchesWhileTyping() {
+        assertThat(courseSearchIndex.search("water", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void search_typo_matchesFuzzily() {
+        assertThat(courseSearchIndex.search("paintng", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void search_noMatch_returnsEmpty() {
+        assertThat(courseSearchIndex.search("quantum", 10)).isEmpty();
+    }
+
+    @Test
+    void onCourseChanged_unpublishedCourse_isRemoved() {
+        Course unpublished = course(3L, "Watercolor Painting", "Painting", "Art", "Beginner");
+        unpublished.setPublished(false);
+        when(courseRepository.findById(3L)).thenReturn(Optional.of(unpublished));
+
+        courseSearchIndex.onCourseChanged(new CourseChangedEvent(3L));
+
+        assertThat(courseSearchIndex.search("watercolor", 10)).isEmpty();
+        assertThat(courseSearchIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    void onCourseChanged_updatedCourse_isReindexed() {
+        when(courseRepository.findById(1L))
+                .thenReturn(Optional.of(course(1L, "Kotlin Fundamentals", "Basics", "Programming", "Beginner")));
+
+        courseSearchIndex.onCourseChanged(new CourseChangedEvent(1L));
+
+        assertThat(courseSearchIndex.search("kotlin", 10)).containsExactly(1L);
+        assertThat(courseSearchIndex.search("java", 10)).containsExactly(2L);
+    }
+
+    private Course course(Long id, String title, String description, String category, String level) {
+        return Course.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .category(category)
+                .level(level)
+                .isPublished(true)
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.studysync.studysyncbackend.service;
 
 import com.studysync.studysyncbackend.dto.CourseRequestDto;
+import com.studysync.studysyncbackend.dto.CourseResponseDto;
 import com.studysync.studysyncbackend.model.Course;
 import com.studysync.studysyncbackend.model.User;
 import com.studysync.studysyncbackend.repository.CourseRepository;
@@ -11,11 +12,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,6 +34,18 @@ class CourseServiceTest {
     @Mock
     private ModuleRepository moduleRepository;
 
+    @Mock
+    private CourseSearchIndex courseSearchIndex;
+
+    @Mock
+    private DomainEventBus domainEventBus;
+
+    @Mock
+    private StoredBlobService storedBlobService;
+
+    @Mock
+    private CourseFetchPlan courseFetchPlan;
+
     @InjectMocks
     private CourseService courseService;
 
@@ -43,6 +59,27 @@ class CourseServiceTest {
         originalContext = SecurityContextHolder.getContext();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchCourses_keywordWithFilter_keepsMatchesRankedBeyondOneSlice() {
+        // 1200 keyword hits; the filter (simulated by the repository) keeps every 100th
+        List<Long> ranked = LongStream.rangeClosed(1, 1200).boxed().toList();
+        when(courseSearchIndex.search("java", Integer.MAX_VALUE)).thenReturn(ranked);
+        List<Course> matching = ranked.stream().filter(id -> id % 100 == 0)
+                .map(id -> Course.builder().id(id).title("Java " + id).tutor(tutor).build())
+                .toList();
+        when(courseRepository.findAll(any(Specification.class)))
+                .thenReturn(matching.subList(0, 5), matching.subList(5, 10), matching.subList(10, 12));
+        when(courseFetchPlan.withTutorAndModules(any(List.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        List<CourseResponseDto> result = courseService.searchCourses("java", null, null, null, "relevance",
+                "Programming", null);
+
+        verify(courseRepository, times(3)).findAll(any(Specification.class));
+        assertThat(result).extracting(CourseResponseDto::getId)
+                .containsExactly(100L, 200L, 300L, 400L, 500L, 600L, 700L, 800L, 900L, 1000L, 1100L, 1200L);
+    }
+
     @Test
     void updateCourse_notOwner_throwsAccessDenied() {
         Course existing = Course.builder().id(1L).title("Old").tutor(User.builder().id(200L).build()).build();
@@ -0,0 +1,163 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.dto.DiscussionDto;
+import com.studysync.studysyncbackend.model.Course;
+import com.studysync.studysyncbackend.model.Discussion;
+import com.studysync.studysyncbackend.model.Module;
+import com.studysync.studysyncbackend.model.Role;
+import com.studysync.studysyncbackend.model.User;
+import com.studysync.studysyncbackend.repository.DiscussionRepository;
+import com.studysync.studysyncbackend.repository.DiscussionRepository.ThreadRow;
+import com.studysync.studysyncbackend.repository.EnrollmentRepository;
+import com.studysync.studysyncbackend.repository.ModuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DiscussionServiceTest {
+
+    @Mock
+    private DiscussionRepository discussionRepository;
+
+    @Mock
+    private ModuleRepository moduleRepository;
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private DiscussionUpvoteService discussionUpvoteService;
+
+    @Mock
+    private DomainEventBus domainEventBus;
+
+    @InjectMocks
+    private DiscussionService discussionService;
+
+    private User tutor;
+    private User student;
+    private Module module;
+
+    @BeforeEach
+    void setUp() {
+        tutor = User.builder().id(1L).email("t@example.com").role(Role.TUTOR).build();
+        student = User.builder().id(2L).email("s@example.com").firstName("Stu").role(Role.STUDENT).build();
+        Course course = Course.builder().id(5L).tutor(tutor).build();
+        module = Module.builder().id(7L).course(course).build();
+    }
+
+    @Test
+    void createDiscussion_assignsRootPath() {
+        when(moduleRepository.findById(7L)).thenReturn(Optional.of(module));
+        when(enrollmentRepository.existsByUserIdAndCourseId(2L, 5L)).thenReturn(true);
+        when(discussionRepository.save(any(Discussion.class))).thenAnswer(inv -> {
+            Discussion saved = inv.getArgument(0);
+            saved.setId(12L);
+            return saved;
+        });
+
+        DiscussionDto result = discussionService.createDiscussion(student, 7L, "Hello");
+
+        assertThat(result.getUser().getFirstName()).isEqualTo("Stu");
+        assertThat(result.getDepth()).isZero();
+        assertThat(result.getReplies()).isEmpty();
+    }
+
+    @Test
+    void reply_extendsParentPath() {
+        Discussion parent = discussion(12L, "0000000012", 12L, 0);
+        when(discussionRepository.findById(12L)).thenReturn(Optional.of(parent));
+        when(enrollmentRepository.existsByUserIdAndCourseId(2L, 5L)).thenReturn(true);
+        when(discussionRepository.save(any(Discussion.class))).thenAnswer(inv -> {
+            Discussion saved = inv.getArgument(0);
+            saved.setId(34L);
+            return saved;
+        });
+
+        DiscussionDto result = discussionService.reply(student, 12L, "Reply");
+
+        assertThat(result.getParentId()).isEqualTo(12L);
+        assertThat(result.getDepth()).isEqualTo(1);
+        verify(discussionRepository).save(argThat(d ->
+                "0000000012/0000000034".equals(d.getPath()) && d.getRootId().equals(12L)));
+    }
+
+    @Test
+    void reply_notEnrolledAndNotTutor_throws() {
+        User outsider = User.builder().id(3L).email("o@example.com").build();
+        when(discussionRepository.findById(12L)).thenReturn(Optional.of(discussion(12L, "0000000012", 12L, 0)));
+        when(moduleRepository.findById(7L)).thenReturn(Optional.of(module));
+
+        assertThatThrownBy(() -> discussionService.reply(outsider, 12L, "Reply"))
+                .isInstanceOf(AccessDeniedException.class);
+        verify(discussionRepository, never()).save(any());
+    }
+
+    @Test
+    void reply_beyondMaxDepth_throws() {
+        when(discussionRepository.findById(40L))
+                .thenReturn(Optional.of(discussion(40L, "deep", 12L, DiscussionService.MAX_DEPTH)));
+
+        assertThatThrownBy(() -> discussionService.reply(student, 40L, "Reply"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getAllModuleThreads_readsEveryPage() {
+        int pageSize = DiscussionService.MAX_PAGE_SIZE;
+        // One full page plus its look-ahead row, then the last thread on its own
+        List<ThreadRow> first = LongStream.rangeClosed(2, pageSize + 2).map(i -> pageSize + 4 - i)
+                .mapToObj(this::threadRow).toList();
+        List<ThreadRow> last = List.of(threadRow(2L));
+        when(discussionRepository.findTopLevelRows(eq(7L), eq(Long.MAX_VALUE), any(Limit.class))).thenReturn(first);
+        when(discussionRepository.findTopLevelRows(eq(7L), eq(3L), any(Limit.class))).thenReturn(last);
+        when(discussionRepository.findFirstReplies(any(), anyInt())).thenReturn(List.of());
+
+        List<DiscussionDto> threads = discussionService.getAllModuleThreads(7L, 5);
+
+        assertThat(threads).hasSize(pageSize + 1);
+        assertThat(threads.getFirst().getId()).isEqualTo(pageSize + 2L);
+        assertThat(threads.getLast().getId()).isEqualTo(2L);
+    }
+
+    private ThreadRow threadRow(long id) {
+        ThreadRow row = mock(ThreadRow.class);
+        lenient().when(row.getId()).thenReturn(id);
+        lenient().when(row.getUpvotes()).thenReturn(0);
+        return row;
+    }
+
+    private Discussion discussion(Long id, String path, Long rootId, int depth) {
+        Discussion discussion = new Discussion();
+        discussion.setId(id);
+        discussion.setPath(path);
+        discussion.setRootId(rootId);
+        discussion.setDepth(depth);
+        discussion.setCourseId(5L);
+        discussion.setModuleId(7L);
+        discussion.setUser(tutor);
+        return discussion;
+    }
+}
@@ -0,0 +1,139 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.dto.DiscussionUpvoteDto;
+import com.studysync.studysyncbackend.event.DiscussionsUpvotedEvent;
+import com.studysync.studysyncbackend.repository.DiscussionRepository;
+import com.studysync.studysyncbackend.repository.DiscussionUpvoteRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DiscussionUpvoteServiceTest {
+
+    @Mock
+    private DiscussionRepository discussionRepository;
+
+    @Mock
+    private DiscussionUpvoteRepository discussionUpvoteRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private DiscussionUpvoteService discussionUpvoteService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(discussionRepository.findUpvotesById(1L)).thenReturn(Optional.of(5));
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void upvote_countsPendingVoteOncePerUser() {
+        DiscussionUpvoteDto first = discussionUpvoteService.upvote(1L, 10L);
+        DiscussionUpvoteDto again = discussionUpvoteService.upvote(1L, 10L);
+        DiscussionUpvoteDto other = discussionUpvoteService.upvote(1L, 11L);
+
+        assertThat(first.isVoted()).isTrue();
+        assertThat(first.getUpvotes()).isEqualTo(6);
+        assertThat(again.isVoted()).isFalse();
+        assertThat(other.getUpvotes()).isEqualTo(7);
+        assertThat(discussionUpvoteService.pendingUpvotes(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void upvote_rejectsVoteAlreadyPersisted() {
+        when(discussionUpvoteRepository.existsByDiscussionIdAndUserId(1L, 10L)).thenReturn(true);
+
+        DiscussionUpvoteDto result = discussionUpvoteService.upvote(1L, 10L);
+
+        assertThat(result.isVoted()).isFalse();
+        assertThat(result.getUpvotes()).isEqualTo(5);
+        assertThat(discussionUpvoteService.pendingUpvotes(1L)).isZero();
+    }
+
+    @Test
+    void upvote_unknownDiscussion_throws() {
+        when(discussionRepository.findUpvotesById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> discussionUpvoteService.upvote(99L, 10L))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_incrementsOnlyInsertedVotesAndClearsPending() {
+        discussionUpvoteService.upvote(1L, 10L);
+        discussionUpvoteService.upvote(1L, 11L);
+        // The second vote was already written by another node
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT IGNORE"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 1, 0 } });
+
+        discussionUpvoteService.flush();
+
+        ArgumentCaptor<Collection<Map.Entry<Long, Long>>> updates = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE discussions"), updates.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(updates.getValue()).containsExactly(Map.entry(1L, 1L));
+        assertThat(discussionUpvoteService.pendingUpvotes(1L)).isZero();
+        verify(eventPublisher).publishEvent(new DiscussionsUpvotedEvent(Map.of(1L, 1L)));
+
+        // Flushed votes are deduplicated by the database from now on
+        when(discussionUpvoteRepository.existsByDiscussionIdAndUserId(1L, 10L)).thenReturn(true);
+        assertThat(discussionUpvoteService.upvote(1L, 10L).isVoted()).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_failure_keepsVotesPending() {
+        discussionUpvoteService.upvote(1L, 10L);
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenThrow(new QueryTimeoutException("timeout"));
+
+        discussionUpvoteService.flush();
+
+        assertThat(discussionUpvoteService.pendingUpvotes(1L)).isEqualTo(1);
+        assertThat(discussionUpvoteService.upvote(1L, 10L).isVoted()).isFalse();
+    }
+
+    @Test
+    void flush_withNothingPending_doesNotTouchDatabase() {
+        discussionUpvoteService.flush();
+
+        verify(transactionTemplate, never()).execute(any());
+    }
+}
@@ -0,0 +1,194 @@
+package com.studysync.studysyncbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studysync.studysyncbackend.event.DiscussionPostedEvent;
+import com.studysync.studysyncbackend.event.DomainEventConsumer;
+import com.studysync.studysyncbackend.event.UserLoggedInEvent;
+import com.studysync.studysyncbackend.service.DomainEventBus.Delivery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DomainEventBusTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DomainEventConsumer consumer;
+
+    private DomainEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(consumer.name()).thenReturn("badges");
+        lenient().when(consumer.accepts(any())).thenAnswer(inv -> inv.getArgument(0) instanceof DiscussionPostedEvent);
+        bus = new DomainEventBus(eventPublisher, jdbcTemplate, new ObjectMapper(),
+                new StaticListableBeanFactory(Map.of("badgeEngine", consumer)).getBeanProvider(DomainEventConsumer.class),
+                Duration.ofMinutes(1), Duration.ofSeconds(1), 3);
+        bus.afterSingletonsInstantiated();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    void publish_withoutTransaction_recordsDeliveryThenConsumesAndDeletesIt() {
+        givenInsertedId(42L);
+        when(jdbcTemplate.update(startsWith("UPDATE outbox_events SET attempts"), any(), eq(42L), eq(0))).thenReturn(1);
+        DiscussionPostedEvent event = new DiscussionPostedEvent(1L, 100L);
+
+        bus.publish(event);
+
+        verify(eventPublisher, timeout(1000)).publishEvent(event);
+        verify(consumer, timeout(1000)).consume(event);
+        verify(jdbcTemplate, timeout(1000)).update("DELETE FROM outbox_events WHERE id = ?", 42L);
+    }
+
+    @Test
+    void publish_eventNoConsumerAccepts_onlyReachesListeners() {
+        UserLoggedInEvent event = new UserLoggedInEvent(1L);
+
+        bus.publish(event);
+
+        verify(eventPublisher, timeout(1000)).publishEvent(event);
+        verify(jdbcTemplate, never()).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+    }
+
+    @Test
+    void publish_inTransaction_dispatchesOnlyAfterCommit() throws Exception {
+        givenInsertedId(42L);
+        when(jdbcTemplate.update(startsWith("UPDATE outbox_events SET attempts"), any(), eq(42L), eq(0))).thenReturn(1);
+        DiscussionPostedEvent event = new DiscussionPostedEvent(1L, 100L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bus.publish(event);
+
+            Thread.sleep(100);
+            verify(consumer, never()).consume(any());
+            verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(consumer, timeout(1000)).consume(event);
+    }
+
+    @Test
+    void publish_afterShutdown_leavesDeliveryToThePoll() {
+        givenInsertedId(42L);
+        bus.shutdown();
+
+        bus.publish(new DiscussionPostedEvent(1L, 100L));
+
+        verify(jdbcTemplate).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+        verify(consumer, never()).consume(any());
+    }
+
+    @Test
+    void deliver_failure_reschedulesWithBackoff() {
+        DiscussionPostedEvent event = new DiscussionPostedEvent(1L, 100L);
+        when(jdbcTemplate.update(startsWith("UPDATE outbox_events SET attempts"), any(), eq(42L), eq(1))).thenReturn(1);
+        doThrow(new IllegalStateException("boom")).when(consumer).consume(event);
+
+        LocalDateTime before = LocalDateTime.now();
+        bus.deliver(new Delivery(42L, consumer, event, 1));
+
+        // Second attempt: 1s * 2
+        verify(jdbcTemplate).update(startsWith("UPDATE outbox_events SET next_attempt_at"),
+                dueAtLeast(before.plusSeconds(2)), eq("java.lang.IllegalStateException: boom"), eq(42L));
+        verify(jdbcTemplate, never()).update("DELETE FROM outbox_events WHERE id = ?", 42L);
+    }
+
+    @Test
+    void deliver_lastAttemptFails_givesUp() {
+        DiscussionPostedEvent event = new DiscussionPostedEvent(1L, 100L);
+        when(jdbcTemplate.update(startsWith("UPDATE outbox_events SET attempts"), any(), eq(42L), eq(2))).thenReturn(1);
+        doThrow(new IllegalStateException("boom")).when(consumer).consume(event);
+
+        bus.deliver(new Delivery(42L, consumer, event, 2));
+
+        verify(jdbcTemplate).update(startsWith("UPDATE outbox_events SET next_attempt_at"), isNull(), anyString(), eq(42L));
+    }
+
+    @Test
+    void deliver_alreadyClaimed_doesNotConsume() {
+        DiscussionPostedEvent event = new DiscussionPostedEvent(1L, 100L);
+        when(jdbcTemplate.update(startsWith("UPDATE outbox_events SET attempts"), any(), eq(42L), eq(0))).thenReturn(0);
+
+        bus.deliver(new Delivery(42L, consumer, event, 0));
+
+        verify(consumer, never()).consume(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatchDue_decodesStoredPayloadAndDelivers() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(7L);
+        when(rs.getString("consumer")).thenReturn("badges");
+        when(rs.getString("event_type")).thenReturn("DiscussionPostedEvent");
+        when(rs.getString("payload")).thenReturn("{\"userId\":1,\"discussionId\":100}");
+        when(rs.getInt("attempts")).thenReturn(1);
+        when(jdbcTemplate.query(startsWith("SELECT id, consumer"), any(RowMapper.class), any(), any()))
+                .thenAnswer(inv -> List.of(inv.<RowMapper<?>>getArgument(1).mapRow(rs, 0)));
+        when(jdbcTemplate.update(startsWith("UPDATE outbox_events SET attempts"), any(), eq(7L), eq(1))).thenReturn(1);
+
+        bus.dispatchDue();
+
+        verify(consumer, timeout(1000)).consume(new DiscussionPostedEvent(1L, 100L));
+        verify(jdbcTemplate, timeout(1000)).update("DELETE FROM outbox_events WHERE id = ?", 7L);
+    }
+
+    private void givenInsertedId(long id) {
+        doAnswer(inv -> {
+            inv.<KeyHolder>getArgument(1).getKeyList().add(Map.of("GENERATED_KEY", id));
+            return 1;
+        }).when(jdbcTemplate).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+    }
+
+    private static Timestamp dueAtLeast(LocalDateTime earliest) {
+        return argThat(at -> at != null && !at.toLocalDateTime().isBefore(earliest));
+    }
+}
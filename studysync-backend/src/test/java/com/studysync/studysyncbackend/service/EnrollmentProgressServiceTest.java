@@ -0,0 +1,133 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.event.ProgressUpdatedEvent;
+import com.studysync.studysyncbackend.repository.EnrollmentRepository;
+import com.studysync.studysyncbackend.service.EnrollmentProgressService.Progress;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EnrollmentProgressServiceTest {
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private DomainEventBus domainEventBus;
+
+    @InjectMocks
+    private EnrollmentProgressService enrollmentProgressService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void record_keepsHighestProgressAndReadsStoredProgressOnce() {
+        when(enrollmentRepository.findProgress(1L, 9L)).thenReturn(Optional.of(20));
+
+        enrollmentProgressService.record(1L, 9L, 40);
+        enrollmentProgressService.record(1L, 9L, 55);
+        enrollmentProgressService.record(1L, 9L, 30); // Rewound
+
+        EnrollmentProgressService.Pending pending = enrollmentProgressService.pending(1L, 9L).orElseThrow();
+        assertThat(pending.stored()).isEqualTo(20);
+        assertThat(pending.progress()).isEqualTo(55);
+        verify(enrollmentRepository, times(1)).findProgress(1L, 9L);
+    }
+
+    @Test
+    void record_notEnrolled_throws() {
+        when(enrollmentRepository.findProgress(1L, 9L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> enrollmentProgressService.record(1L, 9L, 40))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThat(enrollmentProgressService.pending(1L, 9L)).isEmpty();
+    }
+
+    @Test
+    void record_outOfRange_throws() {
+        assertThatThrownBy(() -> enrollmentProgressService.record(1L, 9L, 101))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(enrollmentRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_writesOneUpdatePerEnrollmentAndPublishesRaisedProgress() {
+        when(enrollmentRepository.findProgress(2L, 9L)).thenReturn(Optional.of(90));
+        when(enrollmentRepository.findProgress(1L, 9L)).thenReturn(Optional.of(60));
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 1, 1 } });
+        enrollmentProgressService.record(2L, 9L, 100);
+        enrollmentProgressService.record(2L, 9L, 95);
+        enrollmentProgressService.record(1L, 9L, 50);
+
+        enrollmentProgressService.flush();
+
+        ArgumentCaptor<Collection<Progress>> updates = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), updates.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(updates.getValue()).extracting(Progress::userId).containsExactly(1L, 2L);
+        verify(domainEventBus).publish(new ProgressUpdatedEvent(2L, 9L, 90, 100));
+        // User 1 only rewound: the access is written, nothing was raised
+        verify(domainEventBus, never()).publish(new ProgressUpdatedEvent(1L, 9L, 60, 50));
+        assertThat(enrollmentProgressService.pending(2L, 9L)).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_failure_keepsEntriesPending() {
+        when(enrollmentRepository.findProgress(1L, 9L)).thenReturn(Optional.of(0));
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenThrow(new QueryTimeoutException("timeout"));
+        enrollmentProgressService.record(1L, 9L, 40);
+
+        enrollmentProgressService.flush();
+
+        assertThat(enrollmentProgressService.pending(1L, 9L)).hasValueSatisfying(
+                pending -> assertThat(pending.progress()).isEqualTo(40));
+        verifyNoInteractions(domainEventBus);
+    }
+
+    @Test
+    void flush_withNothingPending_doesNotTouchDatabase() {
+        enrollmentProgressService.flush();
+
+        verify(transactionTemplate, never()).execute(any());
+    }
+}
@@ -1,24 +1,28 @@
 package com.studysync.studysyncbackend.service;
 
+import com.studysync.studysyncbackend.event.PointsAwardedEvent;
 import com.studysync.studysyncbackend.model.Badge;
-import com.studysync.studysyncbackend.model.EarnedBadge;
 import com.studysync.studysyncbackend.model.User;
-import com.studysync.studysyncbackend.repository.BadgeRepository;
-import com.studysync.studysyncbackend.repository.EarnedBadgeRepository;
 import com.studysync.studysyncbackend.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Timestamp;
 import java.util.Optional;
 
-import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,60 +32,136 @@ class GamificationServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private BadgeRepository badgeRepository;
+    private BadgeCatalog badgeCatalog;
 
     @Mock
-    private EarnedBadgeRepository earnedBadgeRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DomainEventBus domainEventBus;
 
     @InjectMocks
     private GamificationService gamificationService;
 
-    @Captor
-    private ArgumentCaptor<EarnedBadge> earnedBadgeCaptor;
-
-    private User user;
+    private final Badge badge = Badge.builder().id(2L).badgeCode("CODE2").name("Test Badge").build();
 
     @BeforeEach
     void setUp() {
-        user = User.builder()
-                .id(1L)
-                .email("test@example.com")
-                .password("pw")
-                .points(10)
-                .build();
+        lenient().when(userRepository.existsById(1L)).thenReturn(true);
     }
 
     @Test
-    void addPoints_existingUser_updatesPointsAndSaves() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    void addPoints_existingUser_publishesAwardWithoutSavingUser() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        gamificationService.addPoints(1L, 5, "QUIZ");
 
-        gamificationService.addPoints(1L, 5);
+        verify(domainEventBus).publish(new PointsAwardedEvent(1L, 5, "QUIZ"));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void addPoints_unknownUser_throws() {
+        when(userRepository.existsById(99L)).thenReturn(false);
 
-        assertThat(user.getPoints()).isEqualTo(15);
-        verify(userRepository, times(1)).save(user);
+        assertThatThrownBy(() -> gamificationService.addPoints(99L, 5))
+                .isInstanceOf(EntityNotFoundException.class);
+        verify(domainEventBus, never()).publish(any());
     }
 
     @Test
-    void awardBadge_whenAlreadyEarned_doesNotSaveEarnedBadge() {
-        when(earnedBadgeRepository.existsByUser_IdAndBadge_BadgeCode(1L, "CODE1")).thenReturn(true);
+    void awardBadge_whenAlreadyEarned_doesNotInsert() {
+        when(badgeCatalog.find("CODE2")).thenReturn(Optional.of(badge));
+        when(badgeCatalog.hasEarned(1L, badge)).thenReturn(true);
 
-        gamificationService.awardBadge(1L, "CODE1");
+        gamificationService.awardBadge(1L, "CODE2");
 
-        verify(earnedBadgeRepository, never()).save(any(EarnedBadge.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
     }
 
     @Test
-    void awardBadge_whenNotEarned_savesEarnedBadge() {
-        when(earnedBadgeRepository.existsByUser_IdAndBadge_BadgeCode(1L, "CODE2")).thenReturn(false);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        Badge badge = Badge.builder().id(2L).badgeCode("CODE2").name("Test Badge").build();
-        when(badgeRepository.findByBadgeCode("CODE2")).thenReturn(Optional.of(badge));
+    void awardBadge_whenNotEarned_insertsAndMarksEarned() {
+        when(badgeCatalog.find("CODE2")).thenReturn(Optional.of(badge));
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE INTO earned_badges"), eq(1L), eq(2L), any(Timestamp.class)))
+                .thenReturn(1);
 
         gamificationService.awardBadge(1L, "CODE2");
 
-        verify(earnedBadgeRepository, times(1)).save(earnedBadgeCaptor.capture());
-        EarnedBadge saved = earnedBadgeCaptor.getValue();
-        assertThat(saved.getUser()).isEqualTo(user);
-        assertThat(saved.getBadge()).isEqualTo(badge);
+        verify(badgeCatalog).markEarned(1L, badge);
+    }
+
+    @Test
+    void awardBadge_inTransaction_marksEarnedOnlyOnceCommitted() {
+        when(badgeCatalog.find("CODE2")).thenReturn(Optional.of(badge));
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE INTO earned_badges"), eq(1L), eq(2L), any(Timestamp.class)))
+                .thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            gamificationService.awardBadge(1L, "CODE2");
+
+            verify(badgeCatalog, never()).markEarned(any(), any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(badgeCatalog).markEarned(1L, badge);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void awardBadge_rolledBack_isNotMarkedEarned() {
+        when(badgeCatalog.find("CODE2")).thenReturn(Optional.of(badge));
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE INTO earned_badges"), eq(1L), eq(2L), any(Timestamp.class)))
+                .thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            gamificationService.awardBadge(1L, "CODE2");
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            verify(badgeCatalog, never()).markEarned(any(), any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void awardBadge_unknownUser_throwsWithoutInserting() {
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> gamificationService.awardBadge(99L, "CODE2"))
+                .isInstanceOf(EntityNotFoundException.class);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(badgeCatalog, never()).markEarned(any(), any());
+    }
+
+    @Test
+    void awardBadge_duplicateRow_marksEarned() {
+        when(badgeCatalog.find("CODE2")).thenReturn(Optional.of(badge));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*) FROM earned_badges"), eq(Integer.class), eq(1L), eq(2L)))
+                .thenReturn(1);
+
+        gamificationService.awardBadge(1L, "CODE2");
+
+        verify(badgeCatalog).markEarned(1L, badge);
+    }
+
+    @Test
+    void awardBadge_insertIgnoredWithoutRow_throwsAndIsNotMarkedEarned() {
+        when(badgeCatalog.find("CODE2")).thenReturn(Optional.of(badge));
+        // The user was deleted after the check: IGNORE turns the foreign key error into 0 rows
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*) FROM earned_badges"), eq(Integer.class), eq(1L), eq(2L)))
+                .thenReturn(0);
+
+        assertThatThrownBy(() -> gamificationService.awardBadge(1L, "CODE2"))
+                .isInstanceOf(EntityNotFoundException.class);
+        verify(badgeCatalog, never()).markEarned(any(), any());
+    }
+
+    @Test
+    void awardBadge_unknownBadge_throws() {
+        when(badgeCatalog.find("NOPE")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> gamificationService.awardBadge(1L, "NOPE"))
+                .isInstanceOf(EntityNotFoundException.class);
     }
 }
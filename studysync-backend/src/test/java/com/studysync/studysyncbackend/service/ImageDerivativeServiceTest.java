@@ -0,0 +1,108 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.service.ImageDerivativeService.Variant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageDerivativeServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageDerivativeService imageDerivativeService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectory(uploadDir.resolve(FileStorageService.INCOMING_DIR));
+        imageDerivativeService = new ImageDerivativeService(new LocalBlobStore(uploadDir), uploadDir.toString(),
+                new int[] {640, 160, 320}, 1, 10, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        imageDerivativeService.shutdown();
+    }
+
+    @Test
+    void generate_scalesDownAndLinksWidthsTheOriginalDoesNotExceed() throws Exception {
+        writeImage("cover.jpg", "jpg", 500, 250);
+
+        imageDerivativeService.generate("cover.jpg");
+
+        assertThat(dimensions("cover_w160.jpg")).containsExactly(160, 80);
+        assertThat(dimensions("cover_w320.jpg")).containsExactly(320, 160);
+        assertThat(Files.mismatch(uploadDir.resolve("cover_w640.jpg"), uploadDir.resolve("cover.jpg"))).isEqualTo(-1);
+        try (var incoming = Files.list(uploadDir.resolve(FileStorageService.INCOMING_DIR))) {
+            assertThat(incoming).isEmpty();
+        }
+    }
+
+    @Test
+    void generate_keepsPngAsPng() throws Exception {
+        writeImage("avatar.png", "png", 1000, 1000);
+
+        imageDerivativeService.generate("avatar.png");
+
+        BufferedImage small = ImageIO.read(uploadDir.resolve("avatar_w160.png").toFile());
+        assertThat(small.getWidth()).isEqualTo(160);
+        assertThat(small.getColorModel().hasAlpha()).isTrue();
+    }
+
+    @Test
+    void resolve_picksSmallestWideEnoughVariant() throws Exception {
+        writeImage("cover.jpg", "jpg", 2000, 1000);
+        imageDerivativeService.generate("cover.jpg");
+
+        assertThat(imageDerivativeService.resolve("cover.jpg", 200)).isEqualTo(new Variant("cover_w320.jpg", true));
+        assertThat(imageDerivativeService.resolve("cover.jpg", 160)).isEqualTo(new Variant("cover_w160.jpg", true));
+        assertThat(imageDerivativeService.resolve("cover.jpg", 5000)).isEqualTo(new Variant("cover_w640.jpg", true));
+        assertThatThrownBy(() -> imageDerivativeService.resolve("cover.jpg", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void resolve_servesOriginalUntilVariantExists_andQueuesIt() throws Exception {
+        writeImage("late.jpg", "jpg", 800, 600);
+
+        assertThat(imageDerivativeService.resolve("late.jpg", 320)).isEqualTo(new Variant("late.jpg", false));
+
+        imageDerivativeService.shutdown();
+        assertThat(uploadDir.resolve("late_w320.jpg")).exists();
+        assertThat(imageDerivativeService.resolve("late.jpg", 320)).isEqualTo(new Variant("late_w320.jpg", true));
+    }
+
+    @Test
+    void ignoresNonImagesAndDerivatives() {
+        assertThat(imageDerivativeService.resolve("notes.pdf", 320)).isEqualTo(new Variant("notes.pdf", true));
+        assertThat(imageDerivativeService.resolve("cover_w320.jpg", 160)).isEqualTo(new Variant("cover_w320.jpg", true));
+        assertThat(imageDerivativeService.submit("lecture.mp4")).isFalse();
+        assertThat(ImageDerivativeService.derivativeName("a.b.png", 160)).isEqualTo("a.b_w160.png");
+    }
+
+    private void writeImage(String name, String format, int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height,
+                format.equals("png") ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, 0x80000000 | (x * 255 / width) << 16 | (y * 255 / height) << 8);
+            }
+        }
+        ImageIO.write(image, format, uploadDir.resolve(name).toFile());
+    }
+
+    private int[] dimensions(String name) throws Exception {
+        BufferedImage image = ImageIO.read(uploadDir.resolve(name).toFile());
+        return new int[] {image.getWidth(), image.getHeight()};
+    }
+}
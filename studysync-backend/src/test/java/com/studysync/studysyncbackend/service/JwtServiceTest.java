@@ -0,0 +1,86 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.model.Role;
+import com.studysync.studysyncbackend.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final String SECRET_KEY = "c3R1ZHlzeW5jLWJlbmNobWFyay1zZWNyZXQta2V5LTAxMjM0NTY3ODk=";
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = jwtService(Duration.ofHours(1).toMillis());
+        user = User.builder().id(1L).email("student@studysync.dev").role(Role.STUDENT).password("hashed").build();
+    }
+
+    @Test
+    void extractVerifiedUsername_returnsSubjectAndValidatesOnce() {
+        String token = jwtService.generateToken(user);
+
+        assertThat(jwtService.extractVerifiedUsername(token)).isEqualTo("student@studysync.dev");
+        assertThat(jwtService.extractVerifiedUsername(token)).isEqualTo("student@studysync.dev");
+        assertThat(jwtService.isTokenValid(token, user)).isTrue();
+    }
+
+    @Test
+    void extractVerifiedUsername_rejectsTamperedToken() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.extractVerifiedUsername(tampered))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void extractVerifiedUsername_rejectsExpiredToken() {
+        JwtService expiring = jwtService(-1000);
+        String token = expiring.generateToken(user);
+
+        assertThatThrownBy(() -> expiring.extractVerifiedUsername(token))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void userPrincipalCache_reloadsAfterInvalidation() {
+        AtomicInteger loads = new AtomicInteger();
+        UserDetailsService userDetailsService = email -> {
+            loads.incrementAndGet();
+            return user;
+        };
+        UserPrincipalCache cache = new UserPrincipalCache(userDetailsService, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(5));
+
+        cache.get(user.getEmail());
+        cache.get(user.getEmail());
+        assertThat(loads).hasValue(1);
+
+        cache.invalidate(user.getEmail());
+        cache.get(user.getEmail());
+        assertThat(loads).hasValue(2);
+    }
+
+    private static JwtService jwtService(long expirationMillis) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "SECRET_KEY", SECRET_KEY);
+        ReflectionTestUtils.setField(service, "jwtExpiration", expirationMillis);
+        ReflectionTestUtils.setField(service, "tokenCacheMaxSize", 100L);
+        service.init();
+        return service;
+    }
+}
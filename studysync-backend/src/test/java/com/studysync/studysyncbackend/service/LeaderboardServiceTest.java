@@ -0,0 +1,179 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.dto.LeaderboardEntryDto;
+import com.studysync.studysyncbackend.event.EnrolledInCourseEvent;
+import com.studysync.studysyncbackend.event.PointsAwardedEvent;
+import com.studysync.studysyncbackend.model.User;
+import com.studysync.studysyncbackend.repository.EnrollmentRepository;
+import com.studysync.studysyncbackend.repository.PointEventRepository;
+import com.studysync.studysyncbackend.repository.UserRepository;
+import com.studysync.studysyncbackend.service.LeaderboardService.Period;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private PointEventRepository pointEventRepository;
+
+    @Mock
+    private PointsLedgerService pointsLedgerService;
+
+    @InjectMocks
+    private LeaderboardService leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(userRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            List<User> users = new ArrayList<>();
+            inv.<Iterable<Long>>getArgument(0).forEach(id -> users.add(
+                    User.builder().id(id).firstName("User" + id).build()));
+            return users;
+        });
+        when(userRepository.findAllPoints()).thenReturn(List.of(points(1L, 100), points(2L, 300), points(3L, 200),
+                points(4L, 50)));
+        when(enrollmentRepository.findAllMemberships()).thenReturn(List.of(membership(1L, 10L), membership(4L, 10L)));
+        leaderboardService.reconcile();
+    }
+
+    @Test
+    void top_ranksSeededUsersByPoints() {
+        List<LeaderboardEntryDto> top = leaderboardService.top(Period.ALL_TIME, 3);
+
+        assertThat(top).extracting(LeaderboardEntryDto::getUserId).containsExactly(2L, 3L, 1L);
+        assertThat(top).extracting(LeaderboardEntryDto::getRank).containsExactly(1, 2, 3);
+        assertThat(top.get(0).getFirstName()).isEqualTo("User2");
+        assertThat(leaderboardService.rank(4L)).isEqualTo(4);
+    }
+
+    @Test
+    void pointsAwarded_movesUserOnAllBoards() {
+        leaderboardService.onPointsAwarded(new PointsAwardedEvent(4L, 400, null));
+
+        assertThat(leaderboardService.rank(4L)).isEqualTo(1);
+        assertThat(leaderboardService.courseTop(10L, 10)).extracting(LeaderboardEntryDto::getUserId)
+                .containsExactly(4L, 1L);
+        List<LeaderboardEntryDto> weekly = leaderboardService.top(Period.WEEKLY, 10);
+        assertThat(weekly).extracting(LeaderboardEntryDto::getPoints).containsExactly(400L);
+    }
+
+    @Test
+    void around_returnsNeighboursOfUser() {
+        assertThat(leaderboardService.around(Period.ALL_TIME, 3L, 1)).extracting(LeaderboardEntryDto::getUserId)
+                .containsExactly(2L, 3L, 1L);
+        assertThat(leaderboardService.around(Period.ALL_TIME, 2L, 1)).extracting(LeaderboardEntryDto::getUserId)
+                .containsExactly(2L, 3L);
+        assertThat(leaderboardService.around(Period.WEEKLY, 2L, 1)).isEmpty();
+        assertThatThrownBy(() -> leaderboardService.around(Period.ALL_TIME, 2L, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void enrolled_addsUserToCourseBoard() {
+        leaderboardService.onEnrolled(new EnrolledInCourseEvent(2L, 10L));
+
+        assertThat(leaderboardService.courseAround(10L, 2L, 5)).extracting(LeaderboardEntryDto::getUserId)
+                .containsExactly(2L, 1L, 4L);
+        assertThat(leaderboardService.courseTop(99L, 10)).isEmpty();
+    }
+
+    @Test
+    void reconcile_correctsDriftButKeepsUsersChangedDuringTheRead() {
+        leaderboardService.onPointsAwarded(new PointsAwardedEvent(1L, 5, null));
+        // The database lost user 4 and was written to by another node for user 3
+        when(userRepository.findAllPoints()).thenAnswer(inv -> {
+            // Arrives while the reconciliation is reading
+            leaderboardService.onPointsAwarded(new PointsAwardedEvent(1L, 1000, null));
+            return List.of(points(1L, 105), points(2L, 300), points(3L, 900));
+        });
+        when(enrollmentRepository.findAllMemberships()).thenReturn(List.of(membership(1L, 10L)));
+
+        leaderboardService.reconcile();
+
+        assertThat(leaderboardService.top(Period.ALL_TIME, 10)).extracting(LeaderboardEntryDto::getPoints)
+                .containsExactly(1105L, 900L, 300L);
+        assertThat(leaderboardService.courseTop(10L, 10)).extracting(LeaderboardEntryDto::getUserId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void reconcile_seedsWeeklyBoardFromLedgerAndKeepsUnflushedPoints() {
+        // Awarded before the reconciliation but not flushed yet
+        leaderboardService.onPointsAwarded(new PointsAwardedEvent(2L, 25, null));
+        lenient().when(pointsLedgerService.pendingPoints(2L)).thenReturn(25L);
+        when(pointEventRepository.sumPointsSince(any())).thenReturn(List.of(total(3L, 40), total(1L, 70)));
+
+        leaderboardService.reconcile();
+
+        assertThat(leaderboardService.top(Period.WEEKLY, 10)).extracting(LeaderboardEntryDto::getUserId)
+                .containsExactly(1L, 3L, 2L);
+        assertThat(leaderboardService.top(Period.ALL_TIME, 1)).extracting(LeaderboardEntryDto::getPoints)
+                .containsExactly(325L);
+        verify(pointsLedgerService, times(2)).flush();
+    }
+
+    private static PointEventRepository.UserTotalRow total(Long userId, long points) {
+        return new PointEventRepository.UserTotalRow() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public long getPoints() {
+                return points;
+            }
+        };
+    }
+
+    private static UserRepository.PointsRow points(Long id, long points) {
+        return new UserRepository.PointsRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public long getPoints() {
+                return points;
+            }
+        };
+    }
+
+    private static EnrollmentRepository.MembershipRow membership(Long userId, Long courseId) {
+        return new EnrollmentRepository.MembershipRow() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Long getCourseId() {
+                return courseId;
+            }
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.service.MediaFileService.ByteRange;
+import com.studysync.studysyncbackend.service.MediaFileService.MediaFile;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MediaFileServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private MediaFileService mediaFileService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mediaFileService = new MediaFileService(new LocalBlobStore(uploadDir));
+        Files.writeString(uploadDir.resolve("lecture.mp4"), "0123456789");
+        Files.createDirectory(uploadDir.resolve("nested"));
+        Files.writeString(uploadDir.resolve(".staged.mp4"), "partial");
+    }
+
+    @Test
+    void open_readsMetadata() {
+        MediaFile file = mediaFileService.open("lecture.mp4");
+
+        assertThat(file.size()).isEqualTo(10);
+        assertThat(file.contentType()).isEqualTo(MediaType.parseMediaType("video/mp4"));
+        assertThat(file.etag()).startsWith("\"a-");
+        assertThat(file.lastModified() % 1000).isZero();
+    }
+
+    @Test
+    void open_usesDigestAsEtagOfContentAddressedFiles() throws Exception {
+        String digest = "f".repeat(64);
+        Files.writeString(uploadDir.resolve(digest + ".pdf"), "notes");
+
+        assertThat(mediaFileService.open(digest + ".pdf").etag()).isEqualTo("\"" + digest + "\"");
+    }
+
+    @Test
+    void open_rejectsPathsOutsideUploadDir() {
+        assertThatThrownBy(() -> mediaFileService.open("../secret.txt")).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> mediaFileService.open("nested")).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> mediaFileService.open(".staged.mp4")).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> mediaFileService.open("missing.mp4")).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void parseRanges_handlesAllForms() {
+        assertThat(mediaFileService.parseRanges("bytes=0-1, 4-5, -2", 10))
+                .containsExactly(new ByteRange(0, 1), new ByteRange(4, 5), new ByteRange(8, 9));
+        assertThat(mediaFileService.parseRanges("bytes=5-", 10)).containsExactly(new ByteRange(5, 9));
+        assertThat(mediaFileService.parseRanges("bytes=4-100", 10)).containsExactly(new ByteRange(4, 9));
+        assertThat(mediaFileService.parseRanges("bytes=-50", 10)).containsExactly(new ByteRange(0, 9));
+    }
+
+    @Test
+    void parseRanges_mergesOverlappingAndAdjacentRanges() {
+        assertThat(mediaFileService.parseRanges("bytes=6-7, 0-3, 2-4, 5-5, 20-29", 100))
+                .containsExactly(new ByteRange(0, 7), new ByteRange(20, 29));
+    }
+
+    @Test
+    void parseRanges_moreBytesThanTheFile_servesWholeFile() {
+        assertThat(mediaFileService.parseRanges("bytes=0-9, 0-9", 10)).isNull();
+        assertThat(mediaFileService.parseRanges("bytes=" + "0-,".repeat(MediaFileService.MAX_RANGES), 10)).isNull();
+    }
+
+    @Test
+    void parseRanges_distinguishesMalformedFromUnsatisfiable() {
+        assertThat(mediaFileService.parseRanges(null, 10)).isNull();
+        assertThat(mediaFileService.parseRanges("items=0-1", 10)).isNull();
+        assertThat(mediaFileService.parseRanges("bytes=5-1", 10)).isNull();
+        assertThat(mediaFileService.parseRanges("bytes=x-1", 10)).isNull();
+        assertThat(mediaFileService.parseRanges("bytes=" + "0-0,".repeat(MediaFileService.MAX_RANGES + 1), 10)).isNull();
+
+        assertThat(mediaFileService.parseRanges("bytes=10-20", 10)).isEmpty();
+        assertThat(mediaFileService.parseRanges("bytes=-0", 10)).isEmpty();
+    }
+
+    @Test
+    void conditionals_compareValidators() {
+        MediaFile file = mediaFileService.open("lecture.mp4");
+
+        assertThat(mediaFileService.isNotModified(file, file.etag(), -1)).isTrue();
+        assertThat(mediaFileService.isNotModified(file, "W/" + file.etag(), -1)).isTrue();
+        assertThat(mediaFileService.isNotModified(file, "\"other\"", file.lastModified())).isFalse();
+        assertThat(mediaFileService.isNotModified(file, null, file.lastModified())).isTrue();
+        assertThat(mediaFileService.isNotModified(file, null, file.lastModified() - 1000)).isFalse();
+
+        assertThat(mediaFileService.isRangeApplicable(file, null, -1)).isTrue();
+        assertThat(mediaFileService.isRangeApplicable(file, file.etag(), -1)).isTrue();
+        assertThat(mediaFileService.isRangeApplicable(file, "W/" + file.etag(), -1)).isFalse();
+        assertThat(mediaFileService.isRangeApplicable(file, "Tue, 01 Jan 2019 00:00:00 GMT", 0)).isFalse();
+    }
+
+    @Test
+    void transfer_copiesExactRegion() throws Exception {
+        MediaFile file = mediaFileService.open("lecture.mp4");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        mediaFileService.transfer(file, new ByteRange(2, 5), out);
+
+        assertThat(out.toString(StandardCharsets.US_ASCII)).isEqualTo("2345");
+    }
+}
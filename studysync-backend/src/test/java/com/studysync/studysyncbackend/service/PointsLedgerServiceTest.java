@@ -0,0 +1,141 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.event.PointsAwardedEvent;
+import com.studysync.studysyncbackend.event.UserLoggedInEvent;
+import com.studysync.studysyncbackend.service.PointsLedgerService.Award;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PointsLedgerServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private PointsLedgerService pointsLedgerService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void award_isPendingUntilFlushed() {
+        pointsLedgerService.onPointsAwarded(new PointsAwardedEvent(1L, 10, null));
+        pointsLedgerService.onPointsAwarded(new PointsAwardedEvent(1L, -3, "PENALTY"));
+
+        assertThat(pointsLedgerService.pendingPoints(1L)).isEqualTo(7);
+        assertThat(pointsLedgerService.pendingPoints(2L)).isZero();
+    }
+
+    @Test
+    void consume_onlyAcceptsAwards_andQueuesThem() {
+        PointsAwardedEvent award = new PointsAwardedEvent(1L, 10, "QUIZ");
+
+        assertThat(pointsLedgerService.accepts(award)).isTrue();
+        assertThat(pointsLedgerService.accepts(new UserLoggedInEvent(1L))).isFalse();
+        pointsLedgerService.consume(award);
+
+        assertThat(pointsLedgerService.pendingPoints(1L)).isEqualTo(10);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_appendsEveryEventAndIncrementsEachUserOnce() {
+        pointsLedgerService.onPointsAwarded(new PointsAwardedEvent(2L, 5, "QUIZ"));
+        pointsLedgerService.onPointsAwarded(new PointsAwardedEvent(1L, 10, null));
+        pointsLedgerService.onPointsAwarded(new PointsAwardedEvent(2L, 20, "BADGE:STREAK_7"));
+
+        pointsLedgerService.flush();
+
+        ArgumentCaptor<Collection<Award>> events = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO point_events"), events.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(events.getValue()).extracting(Award::points).containsExactly(5L, 10L, 20L);
+
+        ArgumentCaptor<Collection<Map.Entry<Long, Long>>> updates = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE users"), updates.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(updates.getValue()).containsExactly(Map.entry(1L, 10L), Map.entry(2L, 25L));
+        assertThat(pointsLedgerService.pendingPoints(2L)).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_failure_keepsAwardsPending() {
+        pointsLedgerService.onPointsAwarded(new PointsAwardedEvent(1L, 10, null));
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenThrow(new QueryTimeoutException("timeout"));
+
+        pointsLedgerService.flush();
+
+        assertThat(pointsLedgerService.pendingPoints(1L)).isEqualTo(10);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_dropsAwardsThatCanNeverBeWritten() {
+        pointsLedgerService.onPointsAwarded(new PointsAwardedEvent(1L, 10, null));
+        pointsLedgerService.onPointsAwarded(new PointsAwardedEvent(2L, 5, "QUIZ"));
+        // User 2 was deleted before the flush, so every write that includes it fails the same way
+        lenient().when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO point_events"),
+                        argThat((Collection<Award> batch) -> batch.stream().anyMatch(a -> a.userId() == 2L)),
+                        anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("foreign key"));
+
+        pointsLedgerService.flush();
+
+        ArgumentCaptor<Collection<Map.Entry<Long, Long>>> updates = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE users"), updates.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(updates.getValue()).containsExactly(Map.entry(1L, 10L));
+        verify(jdbcTemplate, times(3)).batchUpdate(startsWith("INSERT INTO point_events"), any(Collection.class),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(pointsLedgerService.pendingPoints(1L)).isZero();
+        assertThat(pointsLedgerService.pendingPoints(2L)).isZero();
+
+        clearInvocations(transactionTemplate);
+        pointsLedgerService.flush();
+
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void flush_withNothingPending_doesNotTouchDatabase() {
+        pointsLedgerService.flush();
+
+        verify(transactionTemplate, never()).execute(any());
+    }
+}
@@ -0,0 +1,75 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.service.RankedSkipList.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankedSkipListTest {
+
+    @Test
+    void ordersByScoreDescendingThenId() {
+        RankedSkipList list = new RankedSkipList();
+        list.put(3, 50);
+        list.put(1, 80);
+        list.put(2, 50);
+
+        assertThat(list.range(1, 10)).containsExactly(
+                new Entry(1, 1, 80), new Entry(2, 2, 50), new Entry(3, 3, 50));
+        assertThat(list.rank(3)).isEqualTo(3);
+        assertThat(list.rank(99)).isZero();
+    }
+
+    @Test
+    void putMovesAnExistingId() {
+        RankedSkipList list = new RankedSkipList();
+        list.put(1, 10);
+        list.put(2, 20);
+
+        assertThat(list.add(1, 15)).isEqualTo(25);
+
+        assertThat(list.size()).isEqualTo(2);
+        assertThat(list.rank(1)).isEqualTo(1);
+        assertThat(list.range(2, 5)).containsExactly(new Entry(2, 2, 20));
+    }
+
+    @Test
+    void matchesSortedReferenceUnderRandomUpdates() {
+        RankedSkipList list = new RankedSkipList();
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int step = 0; step < 20_000; step++) {
+            long id = random.nextInt(500);
+            if (random.nextInt(10) == 0) {
+                assertThat(list.remove(id)).isEqualTo(reference.remove(id) != null);
+            } else {
+                long score = random.nextInt(100);
+                list.put(id, score);
+                reference.put(id, score);
+            }
+
+            if (step % 1000 == 0) {
+                List<Map.Entry<Long, Long>> sorted = new ArrayList<>(reference.entrySet());
+                sorted.sort(Comparator.<Map.Entry<Long, Long>>comparingLong(Map.Entry::getValue).reversed()
+                        .thenComparingLong(Map.Entry::getKey));
+                assertThat(list.size()).isEqualTo(sorted.size());
+                List<Entry> all = list.range(1, sorted.size());
+                for (int i = 0; i < sorted.size(); i++) {
+                    long expectedId = sorted.get(i).getKey();
+                    assertThat(all.get(i)).isEqualTo(new Entry(i + 1, expectedId, sorted.get(i).getValue()));
+                    assertThat(list.rank(expectedId)).isEqualTo(i + 1);
+                }
+                int from = 1 + random.nextInt(sorted.size());
+                assertThat(list.range(from, 7)).isEqualTo(all.subList(from - 1, Math.min(from + 6, all.size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.studysync.studysyncbackend.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link S3BlobStore} against MinIO, the S3 stand-in used for development.
+ */
+@Testcontainers
+class S3BlobStoreIT {
+
+    private static final String BUCKET = "studysync-test";
+    private static final long PART_SIZE = 5L * 1024 * 1024;
+
+    @Container
+    static GenericContainer<?> minio = new GenericContainer<>("minio/minio:RELEASE.2024-01-16T16-07-38Z")
+            .withEnv("MINIO_ROOT_USER", "minioadmin")
+            .withEnv("MINIO_ROOT_PASSWORD", "minioadmin")
+            .withCommand("server", "/data")
+            .withExposedPorts(9000)
+            .waitingFor(Wait.forHttp("/minio/health/ready").forPort(9000));
+
+    private static S3BlobStore store;
+
+    @TempDir
+    Path staging;
+
+    @BeforeAll
+    static void setUp() {
+        URI endpoint = URI.create("http://" + minio.getHost() + ":" + minio.getMappedPort(9000));
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create("minioadmin", "minioadmin"));
+        S3Configuration pathStyle = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+        S3Client client = S3Client.builder()
+                .endpointOverride(endpoint)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        S3Presigner presigner = S3Presigner.builder()
+                .endpointOverride(endpoint)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        client.createBucket(b -> b.bucket(BUCKET));
+        store = new S3BlobStore(client, presigner, BUCKET, PART_SIZE, Duration.ofMinutes(5), true);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void putStatGetAndDelete() throws Exception {
+        Path source = staging.resolve("notes.pdf");
+        Files.writeString(source, "%PDF-1.7 week one");
+
+        store.put("notes.pdf", source, "application/pdf");
+
+        assertThat(source).doesNotExist();
+        BlobStore.BlobStat stat = store.stat("notes.pdf").orElseThrow();
+        assertThat(stat.size()).isEqualTo(17);
+        assertThat(stat.contentType()).isEqualTo("application/pdf");
+        try (InputStream in = store.getRange("notes.pdf", 9, 4)) {
+            assertThat(new String(in.readAllBytes())).isEqualTo("week");
+        }
+
+        store.delete("notes.pdf");
+        assertThat(store.stat("notes.pdf")).isEmpty();
+        assertThatThrownBy(() -> store.get("notes.pdf")).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void largeFilesAreUploadedInParts() throws Exception {
+        byte[] video = new byte[(int) (PART_SIZE * 2 + 12_345)];
+        new Random(7).nextBytes(video);
+        Path source = staging.resolve("lecture.mp4");
+        Files.write(source, video);
+
+        store.put("lecture.mp4", source, "video/mp4");
+
+        assertThat(store.stat("lecture.mp4").orElseThrow().size()).isEqualTo(video.length);
+        try (InputStream in = store.get("lecture.mp4")) {
+            assertThat(in.readAllBytes()).isEqualTo(video);
+        }
+    }
+
+    @Test
+    void copyAndSignedUrl() throws Exception {
+        Path source = staging.resolve("cover.png");
+        Files.writeString(source, "not really a png");
+        store.put("cover.png", source, "image/png");
+
+        store.copy("cover.png", "cover_w320.png");
+        URI signed = store.signedUrl("cover_w320.png", "inline; filename=\"cover.png\"").orElseThrow();
+
+        HttpResponse<String> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(signed).build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo("not really a png");
+        assertThat(response.headers().firstValue("Content-Disposition")).contains("inline; filename=\"cover.png\"");
+        assertThat(response.headers().firstValue("Cache-Control")).hasValueSatisfying(value ->
+                assertThat(value).contains("immutable"));
+    }
+}
@@ -0,0 +1,200 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.model.StoredBlob;
+import com.studysync.studysyncbackend.repository.StoredBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class StoredBlobServiceTest {
+
+    private static final String DIGEST = "a".repeat(64);
+
+    @TempDir
+    Path uploadDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private StoredBlobRepository storedBlobRepository;
+    private BlobStore blobStore;
+    private ImageDerivativeService imageDerivativeService;
+    private StoredBlobService storedBlobService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        storedBlobRepository = mock(StoredBlobRepository.class);
+        blobStore = new LocalBlobStore(uploadDir);
+        imageDerivativeService = mock(ImageDerivativeService.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        storedBlobService = new StoredBlobService(jdbcTemplate, transactionTemplate, storedBlobRepository, blobStore,
+                imageDerivativeService, Duration.ofHours(24), 3_600_000);
+    }
+
+    @Test
+    void digestOf_onlyMatchesContentAddressedNames() {
+        assertThat(StoredBlobService.digestOf("http://host/uploads/" + DIGEST + ".mp4?w=320")).contains(DIGEST);
+        assertThat(StoredBlobService.digestOf(DIGEST + ".pdf")).contains(DIGEST);
+        assertThat(StoredBlobService.digestOf("http://host/uploads/0b6c2d1e-uuid_lecture.mp4")).isEmpty();
+        assertThat(StoredBlobService.digestOf("https://www.youtube.com/watch?v=abc")).isEmpty();
+        assertThat(StoredBlobService.digestOf(null)).isEmpty();
+    }
+
+    @Test
+    void swap_retainsNewBeforeReleasingOld_andIgnoresForeignUrls() {
+        String other = "b".repeat(64);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        storedBlobService.swap("/uploads/" + DIGEST + ".png", "/uploads/" + other + ".png");
+        storedBlobService.swap("/uploads/" + DIGEST + ".png", "/uploads/" + DIGEST + ".png");
+        storedBlobService.retain("https://cdn.example.com/thumb.png");
+
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update(contains("ref_count + 1"), eq(other));
+        order.verify(jdbcTemplate).update(contains("ref_count - 1"), any(), eq(DIGEST));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void storeFile_keepsIdenticalContentOnce() throws Exception {
+        FileStorageService fileStorageService = new FileStorageService(uploadDir.toString(), blobStore,
+                storedBlobService, imageDerivativeService);
+        byte[] content = "%PDF-1.7 lecture notes".getBytes();
+
+        String first = fileStorageService.storeFile(new MockMultipartFile("file", "week1.pdf", "application/pdf", content));
+        String second = fileStorageService.storeFile(new MockMultipartFile("file", "copy.PDF", "application/pdf", content));
+
+        assertThat(second).isEqualTo(first).endsWith(".pdf");
+        assertThat(Files.readAllBytes(uploadDir.resolve(first))).isEqualTo(content);
+        try (var files = Files.list(uploadDir)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(1);
+        }
+        verify(jdbcTemplate, times(2)).update(contains("INSERT INTO stored_blobs"), any(), eq("pdf"),
+                eq((long) content.length), eq("application/pdf"), any(), any());
+    }
+
+    @Test
+    void storeFile_sameContentUnderAnotherExtension_reusesTheStoredFile() throws Exception {
+        FileStorageService fileStorageService = new FileStorageService(uploadDir.toString(), blobStore,
+                storedBlobService, imageDerivativeService);
+        byte[] content = "JFIF photo".getBytes();
+        // The row keeps the extension the content was first registered with
+        when(jdbcTemplate.queryForList(contains("SELECT extension"), eq(String.class), anyString()))
+                .thenReturn(List.of("jpg"));
+
+        String first = fileStorageService.storeFile(new MockMultipartFile("file", "photo.jpg", "image/jpeg", content));
+        String second = fileStorageService.storeFile(new MockMultipartFile("file", "photo.jpeg", "image/jpeg", content));
+
+        assertThat(second).isEqualTo(first).endsWith(".jpg");
+        try (var files = Files.list(uploadDir)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(1);
+        }
+    }
+
+    @Test
+    void collectGarbage_deletesFileOnlyWhenRowIsStillOrphaned() throws Exception {
+        String retained = "c".repeat(64);
+        Files.writeString(uploadDir.resolve(DIGEST + ".png"), "orphan");
+        Files.writeString(uploadDir.resolve(DIGEST + "_w320.png"), "orphan's derivative");
+        Files.writeString(uploadDir.resolve(retained + ".png"), "attached meanwhile");
+        when(imageDerivativeService.derivativeNames(DIGEST + ".png")).thenReturn(List.of(DIGEST + "_w320.png"));
+        when(storedBlobRepository.findByRefCountAndOrphanedAtBeforeAndDigestGreaterThanOrderByDigest(eq(0), any(LocalDateTime.class), eq(""),
+                any(Limit.class)))
+                .thenReturn(List.of(blob(DIGEST), blob(retained)));
+        when(jdbcTemplate.update(contains("DELETE"), eq(DIGEST), any())).thenReturn(1);
+        when(jdbcTemplate.update(contains("DELETE"), eq(retained), any())).thenReturn(0);
+
+        assertThat(storedBlobService.collectGarbage()).isEqualTo(1);
+
+        assertThat(uploadDir.resolve(DIGEST + ".png")).doesNotExist();
+        assertThat(uploadDir.resolve(DIGEST + "_w320.png")).doesNotExist();
+        assertThat(uploadDir.resolve(retained + ".png")).exists();
+        verify(storedBlobRepository).findByRefCountAndOrphanedAtBeforeAndDigestGreaterThanOrderByDigest(anyInt(), any(), any(),
+                any());
+        // The digest is locked in the deleting transaction before the file goes
+        verify(jdbcTemplate).queryForList(contains("FOR UPDATE"), eq(String.class), eq(DIGEST));
+    }
+
+    @Test
+    void collectGarbage_rowReappearedUnderLock_keepsFile() throws Exception {
+        Files.writeString(uploadDir.resolve(DIGEST + ".png"), "stored again on another node");
+        when(storedBlobRepository.findByRefCountAndOrphanedAtBeforeAndDigestGreaterThanOrderByDigest(eq(0), any(LocalDateTime.class), eq(""),
+                any(Limit.class)))
+                .thenReturn(List.of(blob(DIGEST)));
+        when(jdbcTemplate.update(contains("DELETE"), eq(DIGEST), any())).thenReturn(1);
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq(String.class), eq(DIGEST))).thenReturn(List.of(DIGEST));
+
+        assertThat(storedBlobService.collectGarbage()).isZero();
+
+        assertThat(uploadDir.resolve(DIGEST + ".png")).exists();
+    }
+
+    @Test
+    void collectGarbage_fileDeleteFails_rollsBackAndContinues() throws Exception {
+        BlobStore failing = mock(BlobStore.class);
+        doThrow(new IOException("S3 unavailable")).when(failing).delete(DIGEST + ".png");
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        storedBlobService = new StoredBlobService(jdbcTemplate, transactionTemplate, storedBlobRepository, failing,
+                imageDerivativeService, Duration.ofHours(24), 3_600_000);
+        String other = "d".repeat(64);
+        when(storedBlobRepository.findByRefCountAndOrphanedAtBeforeAndDigestGreaterThanOrderByDigest(eq(0), any(LocalDateTime.class), eq(""),
+                any(Limit.class)))
+                .thenReturn(List.of(blob(DIGEST), blob(other)));
+        when(jdbcTemplate.update(contains("DELETE"), eq(DIGEST), any())).thenReturn(1);
+        when(jdbcTemplate.update(contains("DELETE"), eq(other), any())).thenReturn(1);
+
+        // The failed blob's row deletion is rolled back by the exception; the next one is still collected
+        assertThat(storedBlobService.collectGarbage()).isEqualTo(1);
+        verify(failing).delete(other + ".png");
+    }
+
+    @Test
+    void collectGarbage_fullPageOfFailures_endsThePass() throws Exception {
+        BlobStore failing = mock(BlobStore.class);
+        doThrow(new IOException("Access denied")).when(failing).delete(anyString());
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        storedBlobService = new StoredBlobService(jdbcTemplate, transactionTemplate, storedBlobRepository, failing,
+                imageDerivativeService, Duration.ofHours(24), 3_600_000);
+        List<StoredBlob> page = IntStream.range(0, 500).mapToObj(i -> blob("%064x".formatted(i))).toList();
+        String last = page.getLast().getDigest();
+        when(storedBlobRepository.findByRefCountAndOrphanedAtBeforeAndDigestGreaterThanOrderByDigest(eq(0),
+                any(LocalDateTime.class), eq(""), any(Limit.class))).thenReturn(page);
+        when(storedBlobRepository.findByRefCountAndOrphanedAtBeforeAndDigestGreaterThanOrderByDigest(eq(0),
+                any(LocalDateTime.class), eq(last), any(Limit.class))).thenReturn(List.of());
+        when(jdbcTemplate.update(contains("DELETE"), anyString(), any())).thenReturn(1);
+
+        // The rolled back rows would come back on every query; the pass moves past them
+        assertThat(storedBlobService.collectGarbage()).isZero();
+        verify(storedBlobRepository, times(2)).findByRefCountAndOrphanedAtBeforeAndDigestGreaterThanOrderByDigest(
+                anyInt(), any(), any(), any());
+    }
+
+    private static StoredBlob blob(String digest) {
+        return StoredBlob.builder().digest(digest).extension("png").build();
+    }
+}
@@ -0,0 +1,176 @@
+package com.studysync.studysyncbackend.service;
+
+import com.studysync.studysyncbackend.event.StreakUpdatedEvent;
+import com.studysync.studysyncbackend.event.UserLoggedInEvent;
+import com.studysync.studysyncbackend.service.UserActivityService.Login;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserActivityServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private UserActivityService userActivityService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_sumsLoginsPerUserDayIntoOneUpsertAndStreakUpdate() {
+        userActivityService.logActivity(1L);
+        userActivityService.logActivity(2L);
+        userActivityService.logActivity(1L);
+
+        userActivityService.flush();
+
+        LocalDate today = LocalDate.now();
+        ArgumentCaptor<Collection<Login>> upserts = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO user_activities"), upserts.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(upserts.getValue()).containsExactly(new Login(1L, today, 2), new Login(2L, today, 1));
+
+        ArgumentCaptor<Collection<Login>> streaks = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE users"), streaks.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(streaks.getValue()).isEqualTo(upserts.getValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_publishesStreaksOfFirstLoginsOfTheDay() throws Exception {
+        userActivityService.logActivity(1L);
+        userActivityService.logActivity(2L);
+        // User 2 had already logged in today on another node, so only user 1's streak moved
+        lenient().when(jdbcTemplate.batchUpdate(startsWith("UPDATE users"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 1, 0 } });
+        doAnswer(inv -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(1L);
+            when(rs.getInt(2)).thenReturn(7);
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT id, current_streak FROM users WHERE id IN (?)"),
+                any(RowCallbackHandler.class), eq(1L));
+
+        userActivityService.flush();
+
+        verify(eventPublisher).publishEvent(new StreakUpdatedEvent(1L, 7));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_failure_keepsSummedLoginsQueued() {
+        userActivityService.logActivity(1L);
+        userActivityService.logActivity(1L);
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[0][]);
+
+        userActivityService.flush();
+        clearInvocations(jdbcTemplate);
+        userActivityService.logActivity(1L);
+        userActivityService.flush();
+
+        ArgumentCaptor<Collection<Login>> upserts = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO user_activities"), upserts.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(upserts.getValue()).containsExactly(new Login(1L, LocalDate.now(), 3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_dropsUserDaysThatCanNeverBeWritten() {
+        LocalDate today = LocalDate.now();
+        userActivityService.logActivity(1L);
+        userActivityService.logActivity(2L);
+        // User 2 was deleted before the flush, so every write that includes it fails the same way
+        lenient().when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO user_activities"),
+                        argThat((Collection<Login> batch) -> batch.contains(new Login(2L, today, 1))), anyInt(),
+                        any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("foreign key"));
+
+        userActivityService.flush();
+
+        ArgumentCaptor<Collection<Login>> upserts = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(3)).batchUpdate(startsWith("INSERT INTO user_activities"), upserts.capture(),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(upserts.getAllValues().get(1)).containsExactly(new Login(1L, today, 1));
+        ArgumentCaptor<Collection<Login>> streaks = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE users"), streaks.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(streaks.getValue()).containsExactly(new Login(1L, today, 1));
+
+        clearInvocations(transactionTemplate);
+        userActivityService.flush();
+
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void consume_loginEvent_queuesLogin() {
+        UserLoggedInEvent login = new UserLoggedInEvent(1L);
+        assertThat(userActivityService.accepts(login)).isTrue();
+
+        userActivityService.consume(login);
+        userActivityService.flush();
+
+        ArgumentCaptor<Collection<Login>> upserts = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO user_activities"), upserts.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(upserts.getValue()).containsExactly(new Login(1L, LocalDate.now(), 1));
+    }
+
+    @Test
+    void flush_withNothingQueued_doesNotTouchDatabase() {
+        userActivityService.flush();
+
+        verify(transactionTemplate, never()).execute(any());
+    }
+}